@@ -10,24 +10,39 @@ import com.zetaplugins.zetacore.services.events.AutoEventRegistrar;
 import org.bukkit.Bukkit;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeInstance;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 import com.zetaplugins.lifestealz.api.LifeStealZAPI;
 import com.zetaplugins.lifestealz.api.LifeStealZAPIImpl;
+import com.zetaplugins.lifestealz.caches.AddressIndex;
 import com.zetaplugins.lifestealz.caches.EliminatedPlayersCache;
 import com.zetaplugins.lifestealz.caches.OfflinePlayerCache;
+import com.zetaplugins.lifestealz.caches.PermissionLimitsCache;
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
 import com.zetaplugins.lifestealz.util.customblocks.ReviveBeaconEffectManager;
 import com.zetaplugins.lifestealz.util.customitems.recipe.RecipeManager;
 import com.zetaplugins.lifestealz.util.geysermc.GeyserManager;
 import com.zetaplugins.lifestealz.util.geysermc.GeyserPlayerFile;
+import com.zetaplugins.lifestealz.util.killfarming.KillFarmingDetector;
+import com.zetaplugins.lifestealz.util.leaderboard.LeaderboardManager;
+import com.zetaplugins.lifestealz.util.luckperms.LuckPermsManager;
 import com.zetaplugins.lifestealz.storage.MariaDBStorage;
+import com.zetaplugins.lifestealz.storage.PlayerData;
 import com.zetaplugins.lifestealz.storage.MySQLStorage;
 import com.zetaplugins.lifestealz.storage.Storage;
 import com.zetaplugins.lifestealz.storage.SQLiteStorage;
+import com.zetaplugins.lifestealz.storage.backup.BackupManager;
+import com.zetaplugins.lifestealz.storage.ledger.HeartLedger;
+import com.zetaplugins.lifestealz.storage.sync.ChangeLogPoller;
+import com.zetaplugins.lifestealz.storage.sync.RemoteChangeHandler;
 import com.zetaplugins.lifestealz.util.worldguard.WorldGuardManager;
 
 import java.io.File;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 public final class LifeStealZ extends ZetaCorePlugin {
     private static final String PACKAGE_PREFIX = "com.zetaplugins.lifestealz";
@@ -41,17 +56,30 @@ public final class LifeStealZ extends ZetaCorePlugin {
     private GeyserManager geyserManager;
     private GeyserPlayerFile geyserPlayerFile;
     private WebHookManager webHookManager;
+    private BackupManager backupManager;
+    private TimingWheel timingWheel;
+    private WorkQueue workQueue;
     private GracePeriodManager gracePeriodManager;
+    private CooldownManager cooldownManager;
     private BypassManager bypassManager;
     private EliminatedPlayersCache eliminatedPlayersCache;
     private OfflinePlayerCache offlinePlayerCache;
+    private PermissionLimitsCache permissionLimitsCache;
+    private PlaceholderCache placeholderCache;
+    private LeaderboardManager leaderboardManager;
+    private HeartLedger heartLedger;
+    private AddressIndex addressIndex;
+    private KillFarmingDetector killFarmingDetector;
+    private LuckPermsManager luckPermsManager;
     private AsyncTaskManager asyncTaskManager;
+    private String serverId;
     private ReviveBeaconEffectManager reviveBeaconEffectManager;
     private ReviveTaskManager reviveTaskManager;
     private AfterlifeManager afterlifeManager;
     private final boolean hasWorldGuard = Bukkit.getPluginManager().getPlugin("WorldGuard") != null;
     private final boolean hasPlaceholderApi = Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null;
     private final boolean hasGeyser = Bukkit.getPluginManager().getPlugin("floodgate") != null;
+    private final boolean hasLuckPerms = Bukkit.getPluginManager().getPlugin("LuckPerms") != null;
 
     @Override
     public void onLoad() {
@@ -74,6 +102,8 @@ public final class LifeStealZ extends ZetaCorePlugin {
 
     @Override
     public void onEnable() {
+        final long enableStart = System.currentTimeMillis();
+
         if (hasGeyser()) {
             getLogger().info("Geyser found, enabling Bedrock player support.");
             geyserPlayerFile = new GeyserPlayerFile();
@@ -91,27 +121,56 @@ public final class LifeStealZ extends ZetaCorePlugin {
         configManager = new ConfigManager(this);
 
         storage = createPlayerDataStorage();
-        storage.init();
+        try {
+            storage.init();
+        } catch (IllegalStateException e) {
+            getLogger().log(Level.SEVERE, "Failed to initialize the player data storage. Disabling LifeStealZ to protect the stored data:", e);
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
+        if (storage instanceof SQLiteStorage sqliteStorage) {
+            backupManager = new BackupManager(this, sqliteStorage);
+            backupManager.scheduleBackups();
+        }
 
         recipeManager = new RecipeManager(this);
         recipeManager.registerRecipes();
 
         versionChecker = new VersionChecker(this, "l8Uv7FzS");
+        timingWheel = new TimingWheel(this);
+        workQueue = new WorkQueue(this);
         gracePeriodManager = new GracePeriodManager(this);
+        cooldownManager = new CooldownManager();
         bypassManager = new BypassManager(this);
         webHookManager = new WebHookManager(this);
 
         eliminatedPlayersCache = new EliminatedPlayersCache(this);
         offlinePlayerCache = new OfflinePlayerCache(this);
+        permissionLimitsCache = new PermissionLimitsCache();
+        killFarmingDetector = new KillFarmingDetector(this);
+        placeholderCache = new PlaceholderCache(this);
+        storage.addListener(placeholderCache);
+        leaderboardManager = new LeaderboardManager(this);
+        storage.addListener(leaderboardManager);
+        leaderboardManager.start();
+
+        if (hasLuckPerms()) {
+            luckPermsManager = new LuckPermsManager(this);
+            luckPermsManager.subscribeToPermissionChanges(permissionLimitsCache);
+        }
+
+        startCrossServerSync();
+        startHeartLedger();
+        startAddressIndex();
         
         // Initialize afterlife system
         afterlifeManager = new AfterlifeManager(this);
         afterlifeManager.getWorldManager().init();
-        
-        // Start afterlife timer task (runs every second)
-        Bukkit.getScheduler().runTaskTimer(this, () -> {
-            afterlifeManager.checkAndReleaseExpiredPlayers();
-        }, 20L, 20L);
+
+        timingWheel.start();
+        workQueue.start();
+        restorePlayerTimers();
 
         List<String> registeredCommands = new AutoCommandRegistrar(this, PACKAGE_PREFIX).registerAllCommands();
         getLogger().info("Registered " + registeredCommands.size() + " commands");
@@ -129,7 +188,94 @@ public final class LifeStealZ extends ZetaCorePlugin {
             }
         }
 
-        getLogger().info("LifeStealZ enabled!");
+        getLogger().info("LifeStealZ enabled in " + (System.currentTimeMillis() - enableStart) + "ms!");
+
+        startBackgroundPhase();
+    }
+
+    /**
+     * Starts writing and polling the database change log if cross server sync is enabled in storage.yml,
+     * so the caches of servers that share a MySQL/MariaDB database stay up to date.
+     */
+    private void startCrossServerSync() {
+        FileConfiguration storageConfig = getConfigManager().getStorageConfig();
+        if (!storageConfig.getBoolean("crossServerSync.enabled", false)) return;
+
+        serverId = UUID.randomUUID().toString();
+        storage.enableChangeLog(serverId);
+
+        long retentionMillis = TimeUnit.MINUTES.toMillis(Math.max(1, storageConfig.getLong("crossServerSync.retention", 60)));
+        long pollInterval = Math.max(1, storageConfig.getLong("crossServerSync.pollInterval", 40));
+        new ChangeLogPoller(this, storage, serverId, new RemoteChangeHandler(this), retentionMillis).start(pollInterval);
+        getLogger().info("Enabled cross server sync with server id " + serverId);
+    }
+
+    /**
+     * Creates the heart ledger, which records every max health change if it is enabled in storage.yml
+     */
+    private void startHeartLedger() {
+        FileConfiguration storageConfig = getConfigManager().getStorageConfig();
+        boolean enabled = storageConfig.getBoolean("heartLedger.enabled", true);
+        if (enabled) storage.enableHeartLedger();
+
+        heartLedger = new HeartLedger(
+                this,
+                storage,
+                enabled,
+                storageConfig.getInt("heartLedger.queueCapacity", 10000),
+                storageConfig.getInt("heartLedger.batchSize", 200),
+                storageConfig.getLong("heartLedger.flushInterval", 2000)
+        );
+
+        if (!enabled) return;
+        long retentionDays = storageConfig.getLong("heartLedger.retention", 90);
+        if (retentionDays > 0) heartLedger.schedulePruning(TimeUnit.DAYS.toMillis(retentionDays));
+    }
+
+    /**
+     * Creates the address index of the anti alt system and loads the stored address history if anti alt is enabled.
+     * The address table is created either way, so anti alt can be enabled with a reload.
+     */
+    private void startAddressIndex() {
+        storage.enableAddressHistory();
+        addressIndex = new AddressIndex(this);
+        addressIndex.start();
+    }
+
+    /**
+     * Schedules the grace period and afterlife timers of players that are already online (e.g. after a reload).
+     * Other players get their timers when they join.
+     */
+    private void restorePlayerTimers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerData playerData = storage.load(player.getUniqueId());
+            if (playerData == null) continue;
+
+            gracePeriodManager.scheduleGracePeriodEnd(player, playerData.getFirstJoin());
+            if (playerData.isAfterlife()) afterlifeManager.scheduleRelease(player, playerData.getAfterlifeReleaseTime());
+        }
+    }
+
+    /**
+     * Runs the parts of the startup that are not needed for the plugin to work (update check, cache warm-up)
+     * asynchronously, so they don't delay the server start. Recipes are registered synchronously,
+     * because the Bukkit recipe API is not thread-safe.
+     */
+    private void startBackgroundPhase() {
+        asyncTaskManager.addTask(Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            final long backgroundStart = System.currentTimeMillis();
+
+            long phaseStart = System.currentTimeMillis();
+            eliminatedPlayersCache.reloadCache();
+            offlinePlayerCache.reloadCache();
+            getLogger().info("Warmed up player caches in " + (System.currentTimeMillis() - phaseStart) + "ms");
+
+            phaseStart = System.currentTimeMillis();
+            versionChecker.checkForUpdates();
+            getLogger().info("Checked for updates in " + (System.currentTimeMillis() - phaseStart) + "ms");
+
+            getLogger().info("Background startup finished in " + (System.currentTimeMillis() - backgroundStart) + "ms");
+        }));
     }
 
     @Override
@@ -137,6 +283,9 @@ public final class LifeStealZ extends ZetaCorePlugin {
         getLogger().info("Canceling all running tasks...");
         asyncTaskManager.cancelAllTasks();
         reviveBeaconEffectManager.clearAllEffects();
+        if (webHookManager != null) webHookManager.shutdown();
+        if (storage != null) storage.shutdownExecutor(5000);
+        if (heartLedger != null) heartLedger.shutdown(5000);
         getLogger().info("LifeStealZ disabled!");
     }
 
@@ -168,6 +317,13 @@ public final class LifeStealZ extends ZetaCorePlugin {
         return storage;
     }
 
+    /**
+     * @return The id of this server in the change log, or null if cross server sync is disabled
+     */
+    public String getServerId() {
+        return serverId;
+    }
+
     public EliminatedPlayersCache getEliminatedPlayersCache() {
         return eliminatedPlayersCache;
     }
@@ -176,6 +332,30 @@ public final class LifeStealZ extends ZetaCorePlugin {
         return offlinePlayerCache;
     }
 
+    public PermissionLimitsCache getPermissionLimitsCache() {
+        return permissionLimitsCache;
+    }
+
+    public PlaceholderCache getPlaceholderCache() {
+        return placeholderCache;
+    }
+
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    public HeartLedger getHeartLedger() {
+        return heartLedger;
+    }
+
+    public AddressIndex getAddressIndex() {
+        return addressIndex;
+    }
+
+    public KillFarmingDetector getKillFarmingDetector() {
+        return killFarmingDetector;
+    }
+
     public WorldGuardManager getWorldGuardManager() {
         return worldGuardManager;
     }
@@ -184,10 +364,22 @@ public final class LifeStealZ extends ZetaCorePlugin {
         return recipeManager;
     }
 
+    public TimingWheel getTimingWheel() {
+        return timingWheel;
+    }
+
+    public WorkQueue getWorkQueue() {
+        return workQueue;
+    }
+
     public GracePeriodManager getGracePeriodManager() {
         return gracePeriodManager;
     }
 
+    public CooldownManager getCooldownManager() {
+        return cooldownManager;
+    }
+
     public BypassManager getBypassManager() {
         return bypassManager;
     }
@@ -200,6 +392,10 @@ public final class LifeStealZ extends ZetaCorePlugin {
         return geyserPlayerFile;
     }
 
+    public LuckPermsManager getLuckPermsManager() {
+        return luckPermsManager;
+    }
+
     public boolean hasWorldGuard() {
         return hasWorldGuard;
     }
@@ -212,10 +408,21 @@ public final class LifeStealZ extends ZetaCorePlugin {
         return hasGeyser;
     }
 
+    public boolean hasLuckPerms() {
+        return hasLuckPerms;
+    }
+
     public WebHookManager getWebHookManager() {
         return webHookManager;
     }
 
+    /**
+     * @return The backup manager, or null if the storage is not SQLite
+     */
+    public BackupManager getBackupManager() {
+        return backupManager;
+    }
+
     public LanguageManager getLanguageManager() {
         return languageManager;
     }
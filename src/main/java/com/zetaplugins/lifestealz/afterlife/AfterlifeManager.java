@@ -6,13 +6,19 @@ import org.bukkit.World;
 import org.bukkit.entity.Player;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.util.MessageUtils;
+import com.zetaplugins.lifestealz.util.TimingWheel;
 import net.kyori.adventure.text.Component;
 
+import java.util.UUID;
+
 /**
  * Manages afterlife mechanics including sending players to afterlife and releasing them.
  */
 public class AfterlifeManager {
+    private static final String TIMER_TYPE = "afterlifeRelease";
+
     private final LifeStealZ plugin;
     private final AfterlifeWorldManager worldManager;
     private final com.zetaplugins.lifestealz.util.InventoryManager inventoryManager;
@@ -55,9 +61,12 @@ public class AfterlifeManager {
         
         // Fix hearts to configured amount while in afterlife (default 10 hearts)
         int afterlifeHearts = plugin.getConfig().getInt("afterlife.afterlife-hearts", 10);
+        plugin.getHeartLedger().record(player.getUniqueId(), data.getMaxHealth(), afterlifeHearts * 2, HeartChangeCause.AFTERLIFE_ENTER, null);
         data.setMaxHealth(afterlifeHearts * 2);
         plugin.getStorage().save(data);
+        plugin.getEliminatedPlayersCache().markRevived(player.getUniqueId());
         LifeStealZ.setMaxHealth(player, data.getMaxHealth());
+        scheduleRelease(player, data.getAfterlifeReleaseTime());
         
         // Restore health to full
         player.setHealth(afterlifeHearts * 2.0);
@@ -114,17 +123,30 @@ public class AfterlifeManager {
         if (data == null) {
             return;
         }
-        
+
+        releaseFromAfterlife(player, data);
+    }
+
+    /**
+     * Release a player from the afterlife with data that was already loaded.
+     * @param player The player to release
+     * @param data The current data of the player
+     */
+    private void releaseFromAfterlife(Player player, PlayerData data) {
+        plugin.getTimingWheel().cancel(getTimerKey(player));
+
         // Set state back to alive
         data.setLifeState(LifeState.ALIVE);
         data.setAfterlifeReleaseTime(0L);
         
         // Set hearts to return amount (separate from afterlife hearts)
         int returnHearts = plugin.getConfig().getInt("afterlife.return-hearts", 2);
+        plugin.getHeartLedger().record(player.getUniqueId(), data.getMaxHealth(), returnHearts * 2, HeartChangeCause.AFTERLIFE_RELEASE, null);
         data.setMaxHealth(returnHearts * 2);
         data.setHasBeenRevived(data.getHasBeenRevived() + 1);
         
         plugin.getStorage().save(data);
+        plugin.getEliminatedPlayersCache().markRevived(player.getUniqueId());
         LifeStealZ.setMaxHealth(player, data.getMaxHealth());
         
         // Save afterlife inventory and restore main inventory if enabled
@@ -156,25 +178,28 @@ public class AfterlifeManager {
     }
     
     /**
-     * Check and release all players whose afterlife timer has expired.
+     * Schedule the release of a player from the afterlife, e.g. again after a restart when the player joins.
+     * The player is only released if they are online and still in the afterlife when the timer expires.
+     * The data is loaded on the storage executor and only the release itself runs through the work queue,
+     * so many releases at once (e.g. after a restart) are spread over several ticks.
+     * @param player The player to release
+     * @param releaseTime The time to release the player at in milliseconds
      */
-    public void checkAndReleaseExpiredPlayers() {
+    public void scheduleRelease(Player player, long releaseTime) {
         if (!plugin.getConfig().getBoolean("afterlife.enabled", false)) {
             return;
         }
-        
-        long currentTime = System.currentTimeMillis();
-        
-        for (Player player : Bukkit.getOnlinePlayers()) {
-            PlayerData data = plugin.getStorage().load(player.getUniqueId());
-            if (data == null) {
-                continue;
-            }
-            
-            if (data.isAfterlife() && currentTime >= data.getAfterlifeReleaseTime()) {
-                releaseFromAfterlife(player);
+
+        final UUID uuid = player.getUniqueId();
+        plugin.getTimingWheel().scheduleAt(getTimerKey(player), releaseTime, () -> plugin.getStorage().loadAsync(uuid).thenAccept(data -> {
+            if (data != null && data.isAfterlife() && System.currentTimeMillis() >= data.getAfterlifeReleaseTime()) {
+                plugin.getWorkQueue().submit(uuid, onlinePlayer -> releaseFromAfterlife(onlinePlayer, data));
             }
-        }
+        }));
+    }
+
+    private static TimingWheel.Key getTimerKey(Player player) {
+        return new TimingWheel.Key(TIMER_TYPE, player.getUniqueId());
     }
     
     /**
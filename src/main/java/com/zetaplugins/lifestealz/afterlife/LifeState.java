@@ -7,15 +7,40 @@ public enum LifeState {
     /**
      * Player is alive and playing normally in the SMP world.
      */
-    ALIVE,
+    ALIVE(0),
     
     /**
      * Player has reached 0 hearts and is currently in the afterlife world.
      */
-    AFTERLIFE,
+    AFTERLIFE(1),
     
     /**
      * Player has been permanently eliminated (banned).
      */
-    ELIMINATED
+    ELIMINATED(2);
+
+    private final int id;
+
+    LifeState(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return The id that is stored in the database for this state
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Get the life state for a stored id
+     * @param id The stored id
+     * @return The life state, or ALIVE if the id is unknown
+     */
+    public static LifeState fromId(int id) {
+        for (LifeState state : values()) {
+            if (state.id == id) return state;
+        }
+        return ALIVE;
+    }
 }
@@ -3,9 +3,14 @@ package com.zetaplugins.lifestealz.api;
 import org.bukkit.inventory.ItemStack;
 import com.zetaplugins.lifestealz.util.customitems.customitemdata.CustomItemData;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.util.leaderboard.Leaderboard;
+import com.zetaplugins.lifestealz.util.leaderboard.LeaderboardType;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface LifeStealZAPI {
     /**
@@ -49,6 +54,59 @@ public interface LifeStealZAPI {
      */
     boolean revive(UUID uuid);
 
+    /**
+     * Get the player data for a player without blocking the calling thread.
+     * @param uuid The UUID of the player to get the data for.
+     * @return A future with the player data, or null if the player has no data.
+     */
+    CompletableFuture<PlayerData> getPlayerDataAsync(UUID uuid);
+
+    /**
+     * Get the player data for multiple players without blocking the calling thread.
+     * The players are loaded concurrently, but never more than the database can serve at once.
+     * @param uuids The UUIDs of the players to get the data for.
+     * @return A future with the player data by UUID. Players without data are left out.
+     */
+    CompletableFuture<Map<UUID, PlayerData>> getPlayerDataBatch(Collection<UUID> uuids);
+
+    /**
+     * Save the player data for a player without blocking the calling thread.
+     * Saves of the same player are written in the order they were made. Don't change the player data until the future completed.
+     * @param playerData The player data to save.
+     * @return A future that completes when the data was saved.
+     */
+    CompletableFuture<Void> savePlayerDataAsync(PlayerData playerData);
+
+    /**
+     * Get if a player is eliminated without blocking the calling thread.
+     * @param uuid The UUID of the player to check.
+     * @return A future that completes with true if the player is eliminated, false otherwise.
+     */
+    CompletableFuture<Boolean> isEliminatedAsync(UUID uuid);
+
+    /**
+     * Eliminate a player without blocking the calling thread.
+     * @param uuid The UUID of the player to eliminate.
+     * @return A future that completes with true if the player was successfully eliminated, false otherwise.
+     */
+    CompletableFuture<Boolean> eliminateAsync(UUID uuid);
+
+    /**
+     * Revive a player without blocking the calling thread.
+     * @param uuid The UUID of the player to revive.
+     * @return A future that completes with true if the player was successfully revived, false otherwise.
+     */
+    CompletableFuture<Boolean> reviveAsync(UUID uuid);
+
+    /**
+     * Get a read-only snapshot of the stored values of a player (hearts, revives, kills, prestige, ...).
+     * It is served from memory, so it can be called often and from any thread. It never queries the database.
+     * @param uuid The UUID of the player.
+     * @return The snapshot, or null if the player is not cached (snapshots are kept for online players).
+     *         Use {@link #getPlayerDataAsync(UUID)} for offline players.
+     */
+    PlayerSnapshot getSnapshot(UUID uuid);
+
     /**
      * Get a custom LifeStealZ item by its ID.
      * @return The custom LifeStealZ item with the given ID.
@@ -85,4 +143,19 @@ public interface LifeStealZAPI {
      * When active, deaths will not cause heart loss, heart drops, or killer rewards.
      */
     boolean isBypassActive(org.bukkit.entity.Player player);
+
+    /**
+     * Get the current snapshot of a leaderboard. It never queries the database.
+     * @param type The type of the leaderboard.
+     * @return The top players and the ranks of online players.
+     */
+    Leaderboard getLeaderboard(LeaderboardType type);
+
+    /**
+     * Get the rank of a player on a leaderboard. Ranks are known for the top players and for online players.
+     * @param uuid The UUID of the player.
+     * @param type The type of the leaderboard.
+     * @return The rank of the player (starting at 1), or -1 if it is unknown.
+     */
+    long getRank(UUID uuid, LeaderboardType type);
 }
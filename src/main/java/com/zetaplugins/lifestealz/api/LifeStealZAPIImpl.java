@@ -2,12 +2,22 @@ package com.zetaplugins.lifestealz.api;
 
 import org.bukkit.inventory.ItemStack;
 import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
 import com.zetaplugins.lifestealz.util.customitems.customitemdata.CustomItemData;
 import com.zetaplugins.lifestealz.util.customitems.CustomItemManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
-
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
+import com.zetaplugins.lifestealz.util.leaderboard.Leaderboard;
+import com.zetaplugins.lifestealz.util.leaderboard.LeaderboardType;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public final class LifeStealZAPIImpl implements LifeStealZAPI {
     private final LifeStealZ plugin;
@@ -33,17 +43,21 @@ public final class LifeStealZAPIImpl implements LifeStealZAPI {
 
     @Override
     public boolean isEliminated(UUID uuid) {
+        if (plugin.getEliminatedPlayersCache().isLoaded()) return plugin.getEliminatedPlayersCache().isEliminated(uuid);
+
         PlayerData playerData = plugin.getStorage().load(uuid);
         if (playerData == null) return false;
-        return playerData.getMaxHealth() <= 0.0;
+        return playerData.getMaxHealth() <= plugin.getConfig().getInt("minHearts") * 2;
     }
 
     @Override
     public boolean eliminate(UUID uuid) {
         PlayerData playerData = plugin.getStorage().load(uuid);
         if (playerData == null) return false;
+        plugin.getHeartLedger().record(uuid, playerData.getMaxHealth(), 0.0, HeartChangeCause.API, null);
         playerData.setMaxHealth(0.0);
         plugin.getStorage().save(playerData);
+        plugin.getEliminatedPlayersCache().markEliminated(uuid, playerData.getName());
         return true;
     }
 
@@ -51,12 +65,73 @@ public final class LifeStealZAPIImpl implements LifeStealZAPI {
     public boolean revive(UUID uuid) {
         PlayerData playerData = plugin.getStorage().load(uuid);
         if (playerData == null) return false;
+        plugin.getHeartLedger().record(uuid, playerData.getMaxHealth(), plugin.getConfig().getInt("reviveHearts") * 2, HeartChangeCause.API, null);
         playerData.setMaxHealth(plugin.getConfig().getInt("reviveHearts") * 2);
         playerData.setHasBeenRevived(playerData.getHasBeenRevived() + 1);
         plugin.getStorage().save(playerData);
+        plugin.getEliminatedPlayersCache().markRevived(uuid);
         return true;
     }
 
+    @Override
+    public CompletableFuture<PlayerData> getPlayerDataAsync(UUID uuid) {
+        return plugin.getStorage().loadAsync(uuid);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, PlayerData>> getPlayerDataBatch(Collection<UUID> uuids) {
+        final List<UUID> distinctUuids = List.copyOf(new LinkedHashSet<>(uuids));
+        final List<CompletableFuture<PlayerData>> loads = distinctUuids.stream().map(this::getPlayerDataAsync).toList();
+
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            Map<UUID, PlayerData> playerData = new HashMap<>();
+            for (int i = 0; i < distinctUuids.size(); i++) {
+                PlayerData data = loads.get(i).join();
+                if (data != null) playerData.put(distinctUuids.get(i), data);
+            }
+            return playerData;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> savePlayerDataAsync(PlayerData playerData) {
+        return plugin.getStorage().saveAsync(playerData);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isEliminatedAsync(UUID uuid) {
+        if (plugin.getEliminatedPlayersCache().isLoaded()) {
+            return CompletableFuture.completedFuture(plugin.getEliminatedPlayersCache().isEliminated(uuid));
+        }
+        return plugin.getStorage().getExecutor().submit(uuid, () -> isEliminated(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> eliminateAsync(UUID uuid) {
+        return plugin.getStorage().getExecutor().submit(uuid, () -> eliminate(uuid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> reviveAsync(UUID uuid) {
+        return plugin.getStorage().getExecutor().submit(uuid, () -> revive(uuid));
+    }
+
+    @Override
+    public PlayerSnapshot getSnapshot(UUID uuid) {
+        PlaceholderCache.Snapshot snapshot = plugin.getPlaceholderCache().peek(uuid);
+        if (snapshot == null) return null;
+
+        return new PlayerSnapshot(
+                snapshot.maxHealth(),
+                snapshot.hasBeenRevived(),
+                snapshot.craftedHearts(),
+                snapshot.craftedRevives(),
+                snapshot.killedOtherPlayers(),
+                snapshot.prestigeCount(),
+                snapshot.firstJoin()
+        );
+    }
+
     @Override
     public ItemStack getCustomItem(String customItemID) {
         return CustomItemManager.createCustomItem(customItemID);
@@ -86,4 +161,14 @@ public final class LifeStealZAPIImpl implements LifeStealZAPI {
     public boolean isBypassActive(org.bukkit.entity.Player player) {
         return plugin.getBypassManager().hasBypass(player);
     }
+
+    @Override
+    public Leaderboard getLeaderboard(LeaderboardType type) {
+        return plugin.getLeaderboardManager().getLeaderboard(type);
+    }
+
+    @Override
+    public long getRank(UUID uuid, LeaderboardType type) {
+        return plugin.getLeaderboardManager().getLeaderboard(type).getRank(uuid);
+    }
 }
@@ -0,0 +1,14 @@
+package com.zetaplugins.lifestealz.api;
+
+/**
+ * A read-only snapshot of the stored values of a player, see {@link LifeStealZAPI#getSnapshot}
+ * @param maxHealth The max health of the player (2 health = 1 heart)
+ * @param hasBeenRevived How often the player was revived
+ * @param craftedHearts How many hearts the player crafted
+ * @param craftedRevives How many revive items the player crafted
+ * @param killedOtherPlayers How many players the player killed
+ * @param prestigeCount How often the player prestiged
+ * @param firstJoin The time the player first joined at, in milliseconds
+ */
+public record PlayerSnapshot(double maxHealth, int hasBeenRevived, int craftedHearts, int craftedRevives, int killedOtherPlayers, int prestigeCount, long firstJoin) {
+}
@@ -0,0 +1,268 @@
+package com.zetaplugins.lifestealz.caches;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.PlayerAddress;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An index of the addresses players logged in from, used by the anti alt system to find accounts that shared
+ * an address recently, even if one of them is offline or on another address now.
+ *
+ * <p>Every address is put into two buckets: the exact address and its network prefix (/24 for IPv4, /48 for IPv6).
+ * The index maps every bucket to the accounts seen in it and every account to its buckets, so checking two
+ * players costs a few hash lookups. Logins are added to the index right away and stored asynchronously,
+ * the stored history is loaded on startup. The index never queries the database or resolves addresses itself.</p>
+ */
+public final class AddressIndex {
+    private static final long PRUNE_INTERVAL_TICKS = 20L * 60 * 60;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final char EXACT = '=';
+    private static final char PREFIX = '/';
+
+    private final LifeStealZ plugin;
+    private final Map<String, Map<UUID, Long>> accountsByBucket = new HashMap<>();
+    private final Map<UUID, Map<String, Long>> bucketsByAccount = new HashMap<>();
+    /**
+     * If the stored history was loaded since anti alt was last enabled
+     */
+    private boolean historyLoaded = false;
+
+    public AddressIndex(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("antiAlt.enabled");
+    }
+
+    /**
+     * @return How long an address links two accounts after it was last used, in milliseconds
+     */
+    public long getHistoryMillis() {
+        return TimeUnit.DAYS.toMillis(Math.max(0, plugin.getConfig().getLong("antiAlt.historyDays", 30)));
+    }
+
+    private int getMaxAddresses() {
+        return Math.max(1, plugin.getConfig().getInt("antiAlt.maxAddressesPerPlayer", 10));
+    }
+
+    /**
+     * Load the index (see {@link #reload()}) and start pruning old addresses every hour.
+     * Pruning is skipped while anti alt is disabled.
+     */
+    public void start() {
+        reload();
+
+        plugin.getAsyncTaskManager().addTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            if (!isEnabled()) return;
+
+            long olderThan = System.currentTimeMillis() - getHistoryMillis();
+            removeOlderThan(olderThan);
+            int deleted = plugin.getStorage().prunePlayerAddresses(olderThan);
+            if (deleted > 0) plugin.getLogger().fine("Pruned " + deleted + " player addresses.");
+        }, PRUNE_INTERVAL_TICKS, PRUNE_INTERVAL_TICKS));
+    }
+
+    /**
+     * Apply the anti alt setting from the config. If anti alt was enabled, the stored address history and the addresses
+     * of players that are already online are loaded asynchronously. If it was disabled, the index is cleared.
+     */
+    public synchronized void reload() {
+        if (!isEnabled()) {
+            accountsByBucket.clear();
+            bucketsByAccount.clear();
+            historyLoaded = false;
+            return;
+        }
+        if (historyLoaded) return;
+        historyLoaded = true;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            InetSocketAddress socketAddress = player.getAddress();
+            if (socketAddress != null) add(player.getUniqueId(), socketAddress.getAddress().getAddress(), System.currentTimeMillis());
+        }
+
+        plugin.getStorage().getExecutor().submit(() -> plugin.getStorage().loadPlayerAddresses(System.currentTimeMillis() - getHistoryMillis()))
+                .thenAccept(addresses -> {
+                    // Anti alt may have been disabled again while the history was loading
+                    if (!isEnabled()) return;
+                    for (PlayerAddress address : addresses) {
+                        add(address.uuid(), address.address(), address.lastSeen());
+                    }
+                });
+    }
+
+    /**
+     * Record that a player logged in. The index is updated right away, the address is stored asynchronously.
+     * @param uuid The UUID of the player
+     * @param address The address the player logged in from
+     */
+    public void recordLogin(UUID uuid, InetAddress address) {
+        if (!isEnabled() || address == null) return;
+
+        final PlayerAddress playerAddress = new PlayerAddress(uuid, address.getAddress(), System.currentTimeMillis());
+        add(uuid, playerAddress.address(), playerAddress.lastSeen());
+
+        final int maxAddresses = getMaxAddresses();
+        plugin.getStorage().getExecutor().submit(uuid, () -> {
+            plugin.getStorage().savePlayerAddress(playerAddress, maxAddresses);
+            return null;
+        });
+    }
+
+    /**
+     * Find an address two players both used within the history
+     * @param first The UUID of the first player
+     * @param second The UUID of the second player
+     * @param matchPrefix If addresses in the same network (/24 for IPv4, /48 for IPv6) count as shared
+     * @return The shared address (e.g. "203.0.113.7" or "203.0.113.0/24"), or null if they didn't share one.
+     *         An exact address is preferred over a network.
+     */
+    public synchronized String findSharedAddress(UUID first, UUID second, boolean matchPrefix) {
+        Map<String, Long> firstBuckets = bucketsByAccount.get(first);
+        if (firstBuckets == null || first.equals(second)) return null;
+
+        final long seenSince = System.currentTimeMillis() - getHistoryMillis();
+        String sharedPrefix = null;
+        for (Map.Entry<String, Long> entry : firstBuckets.entrySet()) {
+            String bucket = entry.getKey();
+            boolean isExact = bucket.charAt(0) == EXACT;
+            if ((!isExact && (!matchPrefix || sharedPrefix != null)) || entry.getValue() < seenSince) continue;
+
+            Long secondLastSeen = accountsByBucket.get(bucket).get(second);
+            if (secondLastSeen == null || secondLastSeen < seenSince) continue;
+
+            if (isExact) return formatBucket(bucket);
+            sharedPrefix = bucket;
+        }
+        return sharedPrefix == null ? null : formatBucket(sharedPrefix);
+    }
+
+    /**
+     * @return The amount of accounts in the index
+     */
+    public synchronized int getIndexedAccounts() {
+        return bucketsByAccount.size();
+    }
+
+    private synchronized void add(UUID uuid, byte[] address, long seenAt) {
+        if (address.length != 4 && address.length != 16) return;
+
+        String exactBucket = EXACT + HEX.formatHex(address);
+        Map<String, Long> buckets = bucketsByAccount.computeIfAbsent(uuid, key -> new HashMap<>());
+        put(uuid, buckets, exactBucket, seenAt);
+        put(uuid, buckets, prefixBucketOf(exactBucket), seenAt);
+
+        int maxAddresses = getMaxAddresses();
+        while (countExactBuckets(buckets) > maxAddresses) {
+            removeBucket(uuid, buckets, oldestExactBucket(buckets));
+        }
+    }
+
+    private void put(UUID uuid, Map<String, Long> buckets, String bucket, long seenAt) {
+        buckets.merge(bucket, seenAt, Math::max);
+        accountsByBucket.computeIfAbsent(bucket, key -> new HashMap<>()).merge(uuid, seenAt, Math::max);
+    }
+
+    private synchronized void removeOlderThan(long olderThan) {
+        Iterator<Map.Entry<UUID, Map<String, Long>>> accounts = bucketsByAccount.entrySet().iterator();
+        while (accounts.hasNext()) {
+            Map.Entry<UUID, Map<String, Long>> account = accounts.next();
+            for (String bucket : List.copyOf(account.getValue().keySet())) {
+                if (bucket.charAt(0) == EXACT && account.getValue().get(bucket) < olderThan) {
+                    removeBucket(account.getKey(), account.getValue(), bucket);
+                }
+            }
+            if (account.getValue().isEmpty()) accounts.remove();
+        }
+    }
+
+    /**
+     * Remove an exact bucket of an account, and its prefix bucket if no other address of the account is in it
+     */
+    private void removeBucket(UUID uuid, Map<String, Long> buckets, String exactBucket) {
+        buckets.remove(exactBucket);
+        unlink(uuid, exactBucket);
+
+        String prefixBucket = prefixBucketOf(exactBucket);
+        long prefixLastSeen = -1;
+        for (Map.Entry<String, Long> entry : buckets.entrySet()) {
+            if (entry.getKey().charAt(0) == EXACT && prefixBucketOf(entry.getKey()).equals(prefixBucket)) {
+                prefixLastSeen = Math.max(prefixLastSeen, entry.getValue());
+            }
+        }
+
+        if (prefixLastSeen < 0) {
+            buckets.remove(prefixBucket);
+            unlink(uuid, prefixBucket);
+        } else {
+            buckets.put(prefixBucket, prefixLastSeen);
+            accountsByBucket.get(prefixBucket).put(uuid, prefixLastSeen);
+        }
+    }
+
+    private void unlink(UUID uuid, String bucket) {
+        Map<UUID, Long> accounts = accountsByBucket.get(bucket);
+        if (accounts == null) return;
+        accounts.remove(uuid);
+        if (accounts.isEmpty()) accountsByBucket.remove(bucket);
+    }
+
+    private static int countExactBuckets(Map<String, Long> buckets) {
+        int count = 0;
+        for (String bucket : buckets.keySet()) {
+            if (bucket.charAt(0) == EXACT) count++;
+        }
+        return count;
+    }
+
+    private static String oldestExactBucket(Map<String, Long> buckets) {
+        String oldest = null;
+        long oldestLastSeen = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : buckets.entrySet()) {
+            if (entry.getKey().charAt(0) == EXACT && entry.getValue() < oldestLastSeen) {
+                oldest = entry.getKey();
+                oldestLastSeen = entry.getValue();
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * The /24 prefix of an IPv4 address (3 bytes) or the /48 prefix of an IPv6 address (6 bytes)
+     */
+    private static String prefixBucketOf(String exactBucket) {
+        int prefixBytes = exactBucket.length() == 1 + 4 * 2 ? 3 : 6;
+        return PREFIX + exactBucket.substring(1, 1 + prefixBytes * 2);
+    }
+
+    /**
+     * Format a bucket for display. Only called when a shared address was found.
+     */
+    private static String formatBucket(String bucket) {
+        byte[] bytes = HEX.parseHex(bucket, 1, bucket.length());
+        boolean isPrefix = bucket.charAt(0) == PREFIX;
+        if (isPrefix) bytes = Arrays.copyOf(bytes, bytes.length == 3 ? 4 : 16);
+
+        try {
+            // getByAddress never does a lookup
+            String address = InetAddress.getByAddress(bytes).getHostAddress();
+            return isPrefix ? address + "/" + (bytes.length == 4 ? 24 : 48) : address;
+        } catch (UnknownHostException e) {
+            return bucket.substring(1);
+        }
+    }
+}
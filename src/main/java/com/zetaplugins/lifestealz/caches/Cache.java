@@ -4,24 +4,33 @@ import com.zetaplugins.lifestealz.LifeStealZ;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Cache<T> {
     private final Set<T> cachedData;
     private final LifeStealZ plugin;
 
     public Cache(LifeStealZ plugin) {
+        this(plugin, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * @param plugin The plugin instance
+     * @param backingSet The (thread-safe) set to store the cached data in
+     */
+    protected Cache(LifeStealZ plugin, Set<T> backingSet) {
         this.plugin = plugin;
-        this.cachedData = new HashSet<>();
-        reloadCache();
+        this.cachedData = backingSet;
     }
 
     /**
-     * Reload the cache from the database
+     * Reload the cache from the database.
+     * The cache starts out empty, so this has to be called once after construction (it may be called asynchronously).
      */
     public abstract void reloadCache();
 
     /**
-     * Get a set of all cached data
+     * Get a copy of all cached data. This copies the whole cache, so prefer more specific lookups where possible.
      */
     public Set<T> getCachedData() {
         return new HashSet<>(cachedData);
@@ -2,48 +2,139 @@ package com.zetaplugins.lifestealz.caches;
 
 import com.zetaplugins.lifestealz.LifeStealZ;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
-public final class EliminatedPlayersCache extends Cache<String> {
+/**
+ * An index of all eliminated players, keyed by UUID with their names as a side index for tab completion.
+ * It is loaded once from the database and then kept up to date by the elimination and revive code paths,
+ * so lookups never hit the database.
+ */
+public final class EliminatedPlayersCache extends NameCache {
+    private final Map<UUID, String> eliminatedPlayers = new ConcurrentHashMap<>();
     /**
-     * A cache for eliminated players to avoid unnecessary database queries on tab completion
+     * Guards changes of the index, so a reload can merge the marks made while it queried the database
      */
+    private final Object markLock = new Object();
+    /**
+     * The marks made while a reload is querying the database (null name = revived), or null if no reload is running
+     */
+    private Map<UUID, String> marksDuringReload = null;
+    private volatile boolean loaded = false;
+
     public EliminatedPlayersCache(LifeStealZ plugin) {
         super(plugin);
     }
 
     /**
-     * Reload the cache from the database
+     * Reload the cache from the database. Players marked while the database is queried keep their mark,
+     * and the index stays usable during the reload.
      */
     @Override
-    public void reloadCache() {
-        clearCache();
-        Set<String> eliminatedPlayerNames = new HashSet<>(getPlugin().getStorage().getEliminatedPlayerNames());
-        addAllItems(eliminatedPlayerNames);
+    public synchronized void reloadCache() {
+        synchronized (markLock) {
+            marksDuringReload = new HashMap<>();
+        }
+
+        Map<UUID, String> loadedPlayers = new HashMap<>(getPlugin().getStorage().getEliminatedPlayersWithNames());
+
+        synchronized (markLock) {
+            marksDuringReload.forEach((uuid, name) -> {
+                if (name != null) loadedPlayers.put(uuid, name);
+                else loadedPlayers.remove(uuid);
+            });
+            marksDuringReload = null;
+
+            for (UUID uuid : List.copyOf(eliminatedPlayers.keySet())) {
+                if (!loadedPlayers.containsKey(uuid)) remove(uuid);
+            }
+            loadedPlayers.forEach(this::put);
+        }
+        loaded = true;
+    }
+
+    /**
+     * Check if the index has been loaded from the database yet (it is loaded asynchronously on startup)
+     * @return True if the index is loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Check if a player is eliminated
+     * @param uuid The UUID of the player
+     * @return True if the player is eliminated
+     */
+    public boolean isEliminated(UUID uuid) {
+        return eliminatedPlayers.containsKey(uuid);
     }
 
     /**
-     * Get a set of all eliminated players
-     * @return A set of all eliminated players
+     * Get the UUIDs of all eliminated players, sorted by name
+     * @return A new list of the UUIDs of all eliminated players
      */
-    public Set<String> getEliminatedPlayers() {
-        return getCachedData();
+    public List<UUID> getEliminatedPlayers() {
+        List<UUID> uuids = new ArrayList<>(eliminatedPlayers.keySet());
+        uuids.sort(Comparator.comparing(uuid -> eliminatedPlayers.getOrDefault(uuid, ""), String.CASE_INSENSITIVE_ORDER));
+        return uuids;
     }
 
     /**
-     * Add a player to the cache
-     * @param username The username of the player to add
+     * @return The amount of eliminated players
      */
-    public void addEliminatedPlayer(String username) {
-        addItem(username);
+    public int getEliminatedCount() {
+        return eliminatedPlayers.size();
     }
 
     /**
-     * Remove a player from the cache
-     * @param username The username of the player to remove
+     * Add a player to the index
+     * @param uuid The UUID of the player
+     * @param name The current name of the player (may be null if unknown)
      */
-    public void removeEliminatedPlayer(String username) {
-        removeItem(username);
+    public void markEliminated(UUID uuid, String name) {
+        String newName = name != null ? name : "";
+        synchronized (markLock) {
+            if (marksDuringReload != null) marksDuringReload.put(uuid, newName);
+            put(uuid, newName);
+        }
+    }
+
+    /**
+     * Remove a player from the index
+     * @param uuid The UUID of the player
+     */
+    public void markRevived(UUID uuid) {
+        synchronized (markLock) {
+            if (marksDuringReload != null) marksDuringReload.put(uuid, null);
+            remove(uuid);
+        }
+    }
+
+    /**
+     * Remove multiple players from the index
+     * @param uuids The UUIDs of the players
+     */
+    public void markRevived(Collection<UUID> uuids) {
+        for (UUID uuid : uuids) {
+            markRevived(uuid);
+        }
+    }
+
+    private void put(UUID uuid, String name) {
+        String oldName = eliminatedPlayers.put(uuid, name);
+        if (oldName != null && !oldName.isEmpty() && !oldName.equals(name)) removeItem(oldName);
+        if (!name.isEmpty()) addItem(name);
+    }
+
+    private void remove(UUID uuid) {
+        String name = eliminatedPlayers.remove(uuid);
+        if (name != null && !name.isEmpty()) removeItem(name);
     }
 }
@@ -0,0 +1,56 @@
+package com.zetaplugins.lifestealz.caches;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A cache of player names that is sorted case-insensitively, so prefix lookups for tab completion
+ * don't have to scan (or copy) every name. It is safe to use from multiple threads.
+ */
+public abstract class NameCache extends Cache<String> {
+    private final NavigableSet<String> names;
+
+    public NameCache(LifeStealZ plugin) {
+        this(plugin, new ConcurrentSkipListSet<>(String.CASE_INSENSITIVE_ORDER));
+    }
+
+    private NameCache(LifeStealZ plugin, NavigableSet<String> names) {
+        super(plugin, names);
+        this.names = names;
+    }
+
+    /**
+     * Get the first names (in case-insensitive order) that start with the given prefix
+     * @param prefix The prefix to search for (case-insensitive)
+     * @param limit The maximum amount of names to return
+     * @return A list of at most {@code limit} matching names
+     */
+    public List<String> getNamesStartingWith(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (String name : names.tailSet(prefix, true)) {
+            if (matches.size() >= limit || !name.regionMatches(true, 0, prefix, 0, prefix.length())) break;
+            matches.add(name);
+        }
+        return matches;
+    }
+
+    /**
+     * Check if a name is cached (case-insensitive)
+     * @param name The name to check
+     * @return True if the name is cached
+     */
+    public boolean containsName(String name) {
+        return names.contains(name);
+    }
+
+    /**
+     * @return The amount of cached names
+     */
+    public int size() {
+        return names.size();
+    }
+}
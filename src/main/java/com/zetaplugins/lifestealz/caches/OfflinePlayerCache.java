@@ -4,8 +4,14 @@ import com.zetaplugins.lifestealz.LifeStealZ;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.TreeSet;
 
-public final class OfflinePlayerCache extends Cache<String> {
+public final class OfflinePlayerCache extends NameCache {
+    private final Object addLock = new Object();
+    /**
+     * The names added while a reload is querying the database, or null if no reload is running
+     */
+    private Set<String> namesAddedDuringReload = null;
 
     /**
      * A cache for offline players to avoid unnecessary database queries on tab completion
@@ -15,12 +21,34 @@ public final class OfflinePlayerCache extends Cache<String> {
     }
 
     /**
-     * Reload the cache from the database
+     * Reload the cache from the database. Names added while the database is queried are kept,
+     * and the cache stays usable during the reload.
      */
     @Override
-    public void reloadCache() {
-        clearCache();
-        Set<String> offlinePlayerNames = new HashSet<>(getPlugin().getStorage().getPlayerNames());
-        addAllItems(offlinePlayerNames);
+    public synchronized void reloadCache() {
+        synchronized (addLock) {
+            namesAddedDuringReload = new HashSet<>();
+        }
+
+        Set<String> offlinePlayerNames = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        offlinePlayerNames.addAll(getPlugin().getStorage().getPlayerNames());
+
+        synchronized (addLock) {
+            offlinePlayerNames.addAll(namesAddedDuringReload);
+            namesAddedDuringReload = null;
+
+            for (String name : getCachedData()) {
+                if (!offlinePlayerNames.contains(name)) removeItem(name);
+            }
+            addAllItems(offlinePlayerNames);
+        }
+    }
+
+    @Override
+    public void addItem(String item) {
+        synchronized (addLock) {
+            if (namesAddedDuringReload != null) namesAddedDuringReload.add(item);
+            super.addItem(item);
+        }
     }
 }
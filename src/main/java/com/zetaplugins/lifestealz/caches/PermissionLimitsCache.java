@@ -0,0 +1,122 @@
+package com.zetaplugins.lifestealz.caches;
+
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A per-player cache of values that are derived from permissions (max hearts, prestige multiplier).
+ * Resolving these requires scanning all effective permissions of a player, which is expensive for
+ * players with a lot of permission nodes, so the result is kept until the player's permissions change.
+ */
+public final class PermissionLimitsCache {
+    public static final String MAX_HEARTS_PREFIX = "lifestealz.maxhearts.";
+    public static final String PRESTIGE_MULTIPLIER_PREFIX = "lifestealz.prestige.multiplier.";
+
+    /**
+     * How long an entry stays valid if there is no permission plugin that notifies us about changes
+     */
+    private static final long FALLBACK_TTL_MILLIS = 30_000L;
+
+    private final Map<UUID, PermissionLimits> limits = new ConcurrentHashMap<>();
+    private volatile boolean changeNotifications = false;
+
+    /**
+     * Gets the cached limits of a player, resolving them if they are not cached (or expired)
+     * @param player The player to get the limits for
+     * @return The limits of the player
+     */
+    public PermissionLimits get(Player player) {
+        PermissionLimits cached = limits.get(player.getUniqueId());
+        if (cached != null && (changeNotifications || System.currentTimeMillis() - cached.resolvedAt() < FALLBACK_TTL_MILLIS)) {
+            return cached;
+        }
+        return refresh(player);
+    }
+
+    /**
+     * Resolves the limits of a player from their effective permissions and stores them in the cache
+     * @param player The player to resolve the limits for
+     * @return The freshly resolved limits
+     */
+    public PermissionLimits refresh(Player player) {
+        PermissionLimits resolved = resolve(player);
+        limits.put(player.getUniqueId(), resolved);
+        return resolved;
+    }
+
+    /**
+     * Invalidate the cached limits of a player. They will be resolved again on the next lookup.
+     * This method is safe to call from any thread.
+     * @param uuid The UUID of the player
+     */
+    public void invalidate(UUID uuid) {
+        limits.remove(uuid);
+    }
+
+    /**
+     * Invalidate the cached limits of all players
+     */
+    public void invalidateAll() {
+        limits.clear();
+    }
+
+    /**
+     * Set whether a permission plugin notifies this cache about permission changes.
+     * If not, entries expire after a short time instead.
+     * @param changeNotifications True if changes are pushed to this cache
+     */
+    public void setChangeNotifications(boolean changeNotifications) {
+        this.changeNotifications = changeNotifications;
+    }
+
+    /**
+     * Scans the effective permissions of a player once and resolves all permission-derived values
+     * @param player The player to scan
+     * @return The resolved limits
+     */
+    private static PermissionLimits resolve(Player player) {
+        int highestMaxHearts = -1;
+        double highestMultiplier = -1;
+
+        for (PermissionAttachmentInfo permInfo : player.getEffectivePermissions()) {
+            String perm = permInfo.getPermission();
+            if (perm.startsWith(MAX_HEARTS_PREFIX)) {
+                try {
+                    int hearts = Integer.parseInt(perm.substring(MAX_HEARTS_PREFIX.length())) * 2;
+                    if (hearts > highestMaxHearts) highestMaxHearts = hearts;
+                } catch (NumberFormatException ignored) {}
+            } else if (perm.startsWith(PRESTIGE_MULTIPLIER_PREFIX)) {
+                double multiplier;
+                try {
+                    // Convert "105" → 1.05, "150" → 1.50, "200" → 2.00
+                    multiplier = Double.parseDouble(perm.substring(PRESTIGE_MULTIPLIER_PREFIX.length())) / 100.0;
+                } catch (NumberFormatException e) {
+                    multiplier = 1.0;
+                }
+                if (multiplier > highestMultiplier) highestMultiplier = multiplier;
+            }
+        }
+
+        return new PermissionLimits(
+                highestMaxHearts,
+                highestMultiplier < 0 ? 1.0 : highestMultiplier,
+                System.currentTimeMillis()
+        );
+    }
+
+    /**
+     * The permission-derived values of a player
+     * @param maxHearts The highest max hearts permission in health points, or -1 if the player has none
+     * @param prestigeMultiplier The highest prestige multiplier, or 1.0 if the player has none
+     * @param resolvedAt The time the values were resolved at
+     */
+    public record PermissionLimits(int maxHearts, double prestigeMultiplier, long resolvedAt) {
+        public boolean hasMaxHeartsPermission() {
+            return maxHearts != -1;
+        }
+    }
+}
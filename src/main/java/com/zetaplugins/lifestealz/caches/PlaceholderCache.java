@@ -0,0 +1,140 @@
+package com.zetaplugins.lifestealz.caches;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataListener;
+import org.bukkit.Bukkit;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshots of the stored values that PlaceholderAPI placeholders need, so scoreboard and tab plugins
+ * that request them every few ticks never cause a database query on the calling thread.
+ *
+ * <p>Snapshots are updated whenever the storage loads or saves player data. If a player was changed in the
+ * database directly, the old snapshot is served until it has been reloaded asynchronously.
+ * A player without a snapshot gets default values until the first load has finished.</p>
+ */
+public final class PlaceholderCache implements PlayerDataListener {
+    private static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0, 0);
+
+    private final LifeStealZ plugin;
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<UUID> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public PlaceholderCache(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the snapshot of a player. If there is none yet, it is loaded asynchronously and an empty snapshot is returned.
+     * @param uuid The UUID of the player
+     * @return The snapshot of the player, never null
+     */
+    public Snapshot get(UUID uuid) {
+        Snapshot snapshot = snapshots.get(uuid);
+        if (snapshot != null) {
+            hits.incrementAndGet();
+            return snapshot;
+        }
+
+        misses.incrementAndGet();
+        refresh(uuid);
+        return EMPTY;
+    }
+
+    /**
+     * Get the snapshot of a player without loading it or counting the request
+     * @param uuid The UUID of the player
+     * @return The snapshot of the player, or null if there is none
+     */
+    public Snapshot peek(UUID uuid) {
+        return snapshots.get(uuid);
+    }
+
+    /**
+     * Update the snapshot of a player from their current data
+     * @param playerData The data of the player
+     */
+    public void update(PlayerData playerData) {
+        snapshots.put(UUID.fromString(playerData.getUuid()), Snapshot.of(playerData));
+    }
+
+    /**
+     * Remove the snapshot of a player (e.g. when they leave)
+     * @param uuid The UUID of the player
+     */
+    public void remove(UUID uuid) {
+        snapshots.remove(uuid);
+    }
+
+    /**
+     * @return The amount of requests that were answered from a snapshot
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return The amount of requests for players without a snapshot
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The amount of players with a snapshot
+     */
+    public int size() {
+        return snapshots.size();
+    }
+
+    @Override
+    public void onPlayerDataChanged(PlayerData playerData) {
+        UUID uuid = UUID.fromString(playerData.getUuid());
+        // Only keep snapshots for online players, the storage also reports saves of offline players
+        if (snapshots.containsKey(uuid) || Bukkit.getPlayer(uuid) != null) update(playerData);
+    }
+
+    @Override
+    public void onPlayerDataInvalidated(UUID uuid) {
+        if (snapshots.containsKey(uuid)) refresh(uuid);
+    }
+
+    @Override
+    public void onAllPlayerDataInvalidated() {
+        snapshots.keySet().forEach(this::refresh);
+    }
+
+    /**
+     * Load the data of a player asynchronously. The load itself updates the snapshot through {@link #onPlayerDataChanged}.
+     */
+    private void refresh(UUID uuid) {
+        if (!loading.add(uuid)) return;
+
+        plugin.getStorage().loadAsync(uuid).whenComplete((playerData, e) -> loading.remove(uuid));
+    }
+
+    /**
+     * The stored values of a player that are used by placeholders
+     */
+    public record Snapshot(double maxHealth, int hasBeenRevived, int craftedHearts, int craftedRevives, int killedOtherPlayers, int prestigeCount, long firstJoin) {
+        static Snapshot of(PlayerData playerData) {
+            return new Snapshot(
+                    playerData.getMaxHealth(),
+                    playerData.getHasBeenRevived(),
+                    playerData.getCraftedHearts(),
+                    playerData.getCraftedRevives(),
+                    playerData.getKilledOtherPlayers(),
+                    playerData.getPrestigeCount(),
+                    playerData.getFirstJoin()
+            );
+        }
+    }
+}
@@ -16,6 +16,7 @@ import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.WebHookManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 
 import java.util.List;
 
@@ -49,6 +50,8 @@ public final class EliminateCommand implements CommandExecutor, TabCompleter {
 
     private void eliminatePlayer(CommandSender sender, Player targetPlayer) {
         PlayerData playerData = plugin.getStorage().load(targetPlayer.getUniqueId());
+        plugin.getHeartLedger().record(targetPlayer.getUniqueId(), playerData.getMaxHealth(), 0.0,
+                HeartChangeCause.ADMIN, sender instanceof Player admin ? admin.getUniqueId() : null);
         playerData.setMaxHealth(0.0);
         plugin.getStorage().save(playerData);
 
@@ -66,7 +69,7 @@ public final class EliminateCommand implements CommandExecutor, TabCompleter {
             Bukkit.broadcast(elimAnnouncementMsg);
         }
 
-        plugin.getEliminatedPlayersCache().addEliminatedPlayer(targetPlayer.getName());
+        plugin.getEliminatedPlayersCache().markEliminated(targetPlayer.getUniqueId(), targetPlayer.getName());
 
         plugin.getWebHookManager().sendWebhookMessage(WebHookManager.WebHookType.ELIMINATION, targetPlayer.getName(), sender.getName());
     }
@@ -60,16 +60,16 @@ public final class MainTabCompleter implements TabCompleter {
             case "giveItem":
                 return getDisplayOptions(getPlayersTabCompletion(true, plugin), input);
             case "graceperiod":
-                return getDisplayOptions(getOfflinePlayersTabCompletion(true, true, plugin), input);
+                return getOfflinePlayersTabCompletion(true, true, input, plugin);
             case "recipe":
                 return getDisplayOptions(plugin.getRecipeManager().getItemIds(), input);
             case "data":
-                if (sender.hasPermission("lifestealz.managedata")) return getDisplayOptions(List.of("import", "export"), input);
+                if (sender.hasPermission("lifestealz.managedata")) return getDisplayOptions(List.of("import", "export", "backup"), input);
                 break;
             case "checkbypass":
                 return getDisplayOptions(getPlayersTabCompletion(false, plugin), input);
             case "debug":
-                return getDisplayOptions(List.of("upload", "generate"), input);
+                return getDisplayOptions(List.of("upload", "generate", "storage"), input);
             case "dev":
                 return getDisplayOptions(List.of("giveForbiddenitem", "isInGracePeriod", "setFirstJoinDate", "refreshCaches", "crash", "cleardatabase", "giveAnimationTotem", "getEffectivePerms"), input);
         }
@@ -88,8 +88,8 @@ public final class MainTabCompleter implements TabCompleter {
                 }
                 return List.of();
             case "hearts":
-                if ("get".equals(args[1])) return getDisplayOptions(getOfflinePlayersTabCompletion(false, true, plugin), input);
-                return getDisplayOptions(getOfflinePlayersTabCompletion(true, true, plugin), input);
+                if ("get".equals(args[1])) return getOfflinePlayersTabCompletion(false, true, input, plugin);
+                return getOfflinePlayersTabCompletion(true, true, input, plugin);
             case "graceperiod":
                 return getDisplayOptions(List.of("skip", "reset"), input);
             case "giveItem":
@@ -7,6 +7,7 @@ import com.zetaplugins.lifestealz.commands.SubCommand;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 import com.zetaplugins.lifestealz.storage.Storage;
+import com.zetaplugins.lifestealz.storage.backup.BackupManager;
 
 import static com.zetaplugins.lifestealz.util.commands.CommandUtils.throwUsageError;
 
@@ -26,8 +27,12 @@ public final class DataSubCommand implements SubCommand {
             return false;
         }
 
+        if (args.length == 2 && args[1].equals("backup")) {
+            return handleBackup(sender);
+        }
+
         if (args.length < 3) {
-            throwUsageError(sender, "/lifestealz data <import | export> <file>");
+            throwUsageError(sender, getUsage());
             return false;
         }
 
@@ -90,9 +95,57 @@ public final class DataSubCommand implements SubCommand {
         return true;
     }
 
+    private boolean handleBackup(CommandSender sender) {
+        BackupManager backupManager = plugin.getBackupManager();
+        if (backupManager == null) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(
+                    false,
+                    "backupNotSupported",
+                    "&cBackups are only supported for SQLite storage. Use your database's own backup tools instead."
+            ));
+            return false;
+        }
+
+        if (backupManager.isRunning()) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(
+                    false,
+                    "backupAlreadyRunning",
+                    "&cA backup is already running!"
+            ));
+            return false;
+        }
+
+        sender.sendMessage(MessageUtils.getAndFormatMsg(
+                true,
+                "creatingBackup",
+                "&7Creating database backup..."
+        ));
+        // The backup completes on a storage thread, so the result is sent on the main thread
+        backupManager.createBackupAsync().thenAccept(result -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (result == null) {
+                sender.sendMessage(MessageUtils.getAndFormatMsg(
+                        false,
+                        "backupError",
+                        "&cFailed to create backup! Check console for details."
+                ));
+                return;
+            }
+
+            sender.sendMessage(MessageUtils.getAndFormatMsg(
+                    true,
+                    "backupCreated",
+                    "&7Created backup &c%file% &7(%size%) in &c%duration%ms",
+                    new MessageUtils.Replaceable("%file%", result.file().getFileName().toString()),
+                    new MessageUtils.Replaceable("%size%", result.formatSize()),
+                    new MessageUtils.Replaceable("%duration%", String.valueOf(result.durationMillis()))
+            ));
+        }));
+        return true;
+    }
+
     @Override
     public String getUsage() {
-        return "/lifestealz data <import | export> <file>";
+        return "/lifestealz data <import | export> <file> | backup";
     }
 
     @Override
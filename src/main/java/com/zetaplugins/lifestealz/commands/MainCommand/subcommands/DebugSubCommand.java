@@ -8,6 +8,8 @@ import com.zetaplugins.zetacore.debug.uploader.ZetaDebugReportUploader;
 import org.bukkit.command.CommandSender;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.commands.SubCommand;
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
+import com.zetaplugins.lifestealz.storage.connectionPool.PoolStatus;
 import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 
 import java.io.*;
@@ -32,7 +34,7 @@ public final class DebugSubCommand implements SubCommand {
         }
 
         if (args.length == 1) {
-            throwUsageError(sender, "/lifestealz debug <upload | generate>");
+            throwUsageError(sender, "/lifestealz debug <upload | generate | storage>");
             return true;
         }
 
@@ -44,8 +46,9 @@ public final class DebugSubCommand implements SubCommand {
                     args.length > 2 && args[2].equalsIgnoreCase("confirm")
             );
             case "generate" -> handleGenerate(sender);
+            case "storage" -> handleStorage(sender);
             default -> {
-                throwUsageError(sender, "/lifestealz debug <upload | generate>");
+                throwUsageError(sender, "/lifestealz debug <upload | generate | storage>");
                 yield true;
             }
         };
@@ -129,6 +132,69 @@ public final class DebugSubCommand implements SubCommand {
         return true;
     }
 
+    /**
+     * Handles the storage command. Measures the database pools asynchronously and reports latency and replica lag,
+     * followed by the statistics of the placeholder cache.
+     * @param sender the CommandSender who executed the command
+     * @return true if the command was handled successfully, false otherwise
+     */
+    private boolean handleStorage(CommandSender sender) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<PoolStatus> statuses = plugin.getStorage().getPoolStatus();
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                sender.sendMessage(MessageUtils.getAndFormatMsg(
+                        false,
+                        "debugStorageHeader",
+                        "\n <#8b73f6>&lStorage Pools&r\n"
+                ));
+
+                for (PoolStatus status : statuses) {
+                    if (!status.reachable()) {
+                        sender.sendMessage(MessageUtils.getAndFormatMsg(
+                                false,
+                                "debugStoragePoolUnreachable",
+                                "&8 - &7%pool%: &cunreachable",
+                                new MessageUtils.Replaceable("%pool%", status.name())
+                        ));
+                        continue;
+                    }
+
+                    sender.sendMessage(MessageUtils.getAndFormatMsg(
+                            false,
+                            "debugStoragePool",
+                            "&8 - &7%pool%: &a%latency%ms &8| &7replica lag: &e%lag%",
+                            new MessageUtils.Replaceable("%pool%", status.name()),
+                            new MessageUtils.Replaceable("%latency%", String.format("%.2f", status.latencyMillis())),
+                            new MessageUtils.Replaceable("%lag%", status.replicaLagSeconds() != null ? status.replicaLagSeconds() + "s" : "-")
+                    ));
+                }
+
+                PlaceholderCache placeholderCache = plugin.getPlaceholderCache();
+                long hits = placeholderCache.getHits();
+                long requests = hits + placeholderCache.getMisses();
+                sender.sendMessage(MessageUtils.getAndFormatMsg(
+                        false,
+                        "debugPlaceholderCache",
+                        "&8 - &7Placeholder cache: &e%size% &7players &8| &7hits: &a%hits% &8| &7misses: &c%misses% &8| &7hit rate: &e%rate%%",
+                        new MessageUtils.Replaceable("%size%", String.valueOf(placeholderCache.size())),
+                        new MessageUtils.Replaceable("%hits%", String.valueOf(hits)),
+                        new MessageUtils.Replaceable("%misses%", String.valueOf(placeholderCache.getMisses())),
+                        new MessageUtils.Replaceable("%rate%", requests > 0 ? String.format("%.1f", hits * 100.0 / requests) : "-")
+                ));
+
+                sender.sendMessage(MessageUtils.getAndFormatMsg(
+                        false,
+                        "debugWorkQueue",
+                        "&8 - &7Work queue: &e%backlog% &7queued &8| &7drain rate: &a%rate%/s",
+                        new MessageUtils.Replaceable("%backlog%", String.valueOf(plugin.getWorkQueue().getBacklog())),
+                        new MessageUtils.Replaceable("%rate%", String.format("%.1f", plugin.getWorkQueue().getDrainRate()))
+                ));
+            });
+        });
+        return true;
+    }
+
     @Override
     public String getUsage() {
         return "/lifestealz debug";
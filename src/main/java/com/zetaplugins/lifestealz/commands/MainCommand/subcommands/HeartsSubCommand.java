@@ -11,11 +11,14 @@ import com.zetaplugins.lifestealz.util.MaxHeartsManager;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataField;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.storage.Storage;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 import static com.zetaplugins.lifestealz.util.commands.CommandUtils.*;
 
@@ -78,6 +81,10 @@ public final class HeartsSubCommand implements SubCommand {
             return false;
         }
 
+        if (args[2].equals("*")) {
+            return handleBulkUpdate(sender, optionTwo, amount);
+        }
+
         List<OfflinePlayer> targetPlayers = parseOfflinePlayer(args[2], true, true, plugin);
 
         for (OfflinePlayer targetPlayer : targetPlayers) {
@@ -110,8 +117,13 @@ public final class HeartsSubCommand implements SubCommand {
                         return false;
                     }
 
-                    targetPlayerData.setMaxHealth(targetPlayerData.getMaxHealth() + (amount * 2));
-                    storage.save(targetPlayerData);
+                    double maxHealth = config.getBoolean("enforceMaxHeartsOnAdminCommands") ? maxAllowedHearts : Double.MAX_VALUE;
+                    double oldHealth = targetPlayerData.getMaxHealth();
+                    if (storage.applyDelta(targetPlayerData, PlayerDataField.MAX_HEALTH, amount * 2, 0, maxHealth) == null) {
+                        sendHeartsChangeFailedMessage(sender, targetPlayer);
+                        return false;
+                    }
+                    recordAdminChange(sender, targetPlayer, oldHealth, targetPlayerData.getMaxHealth());
                     if (targetPlayer instanceof Player) LifeStealZ.setMaxHealth((Player) targetPlayer, targetPlayerData.getMaxHealth());
                     break;
                 }
@@ -130,6 +142,7 @@ public final class HeartsSubCommand implements SubCommand {
                         return false;
                     }
 
+                    recordAdminChange(sender, targetPlayer, targetPlayerData.getMaxHealth(), amount * 2);
                     targetPlayerData.setMaxHealth(amount * 2);
                     storage.save(targetPlayerData);
                     if (targetPlayer instanceof Player) LifeStealZ.setMaxHealth((Player) targetPlayer, targetPlayerData.getMaxHealth());
@@ -145,8 +158,13 @@ public final class HeartsSubCommand implements SubCommand {
                         return false;
                     }
 
-                    targetPlayerData.setMaxHealth(targetPlayerData.getMaxHealth() - (amount * 2));
-                    storage.save(targetPlayerData);
+                    // Keep at least one heart, even if the hearts changed since the check above
+                    double oldHealth = targetPlayerData.getMaxHealth();
+                    if (storage.applyDelta(targetPlayerData, PlayerDataField.MAX_HEALTH, -(amount * 2), 2, Double.MAX_VALUE) == null) {
+                        sendHeartsChangeFailedMessage(sender, targetPlayer);
+                        return false;
+                    }
+                    recordAdminChange(sender, targetPlayer, oldHealth, targetPlayerData.getMaxHealth());
                     if (targetPlayer instanceof Player) LifeStealZ.setMaxHealth((Player) targetPlayer, targetPlayerData.getMaxHealth());
                     break;
                 }
@@ -157,35 +175,107 @@ public final class HeartsSubCommand implements SubCommand {
         return true;
     }
 
+    private void sendHeartsChangeFailedMessage(CommandSender sender, OfflinePlayer targetPlayer) {
+        sender.sendMessage(MessageUtils.getAndFormatMsg(
+                false,
+                "heartsChangeFailed",
+                "&cFailed to change the hearts of %player%! Check console for details.",
+                new MessageUtils.Replaceable("%player%", targetPlayer.getName() != null ? targetPlayer.getName() : targetPlayer.getUniqueId().toString())
+        ));
+    }
+
+    private void recordAdminChange(CommandSender sender, OfflinePlayer targetPlayer, double oldHealth, double newHealth) {
+        plugin.getHeartLedger().record(targetPlayer.getUniqueId(), oldHealth, newHealth,
+                HeartChangeCause.ADMIN, sender instanceof Player admin ? admin.getUniqueId() : null);
+    }
+
+    /**
+     * Changes the hearts of every player that is not eliminated with a single database update, instead of
+     * loading and saving every player on the main thread. Online players are updated afterwards through the work queue.
+     * If the heart limit is enforced, bulk updates use the global maxHearts limit, not per-player permission limits
+     * ({@link MaxHeartsManager}), and setting hearts above it is rejected like for a single player.
+     * @param sender The command sender
+     * @param optionTwo The operation (add, set or remove)
+     * @param amount The amount of hearts
+     * @return True if the update was started, false otherwise
+     */
+    private boolean handleBulkUpdate(CommandSender sender, String optionTwo, int amount) {
+        if (optionTwo.equals("set") && amount == 0) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(
+                    false,
+                    "connotSetHeartsBelowOrToZero",
+                    "&cYou can't set a player's hearts below or to 0!"
+            ));
+            return false;
+        }
+
+        final Storage.HeartsOperation operation = Storage.HeartsOperation.valueOf(optionTwo.toUpperCase());
+        final double eliminatedHealth = config.getInt("minHearts") * 2;
+        final double maxHealth = config.getBoolean("enforceMaxHeartsOnAdminCommands") ? config.getInt("maxHearts") * 2 : 0;
+        if (operation == Storage.HeartsOperation.SET && maxHealth > 0 && amount * 2 > maxHealth) {
+            sendHeartLimitReachedMessage(sender, maxHealth);
+            return false;
+        }
+        final List<UUID> onlinePlayers = plugin.getServer().getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            int affectedPlayers = storage.updateAllHearts(operation, amount * 2, eliminatedHealth, maxHealth);
+            if (affectedPlayers < 0) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(MessageUtils.getAndFormatMsg(
+                        false,
+                        "bulkHeartsUnavailable",
+                        "&cThe database is unavailable right now. Please try again later."
+                )));
+                return;
+            }
+
+            for (UUID uuid : onlinePlayers) {
+                PlayerData playerData = storage.load(uuid);
+                if (playerData == null) continue;
+
+                final double newMaxHealth = playerData.getMaxHealth();
+                plugin.getWorkQueue().submit(uuid, player -> LifeStealZ.setMaxHealth(player, newMaxHealth));
+            }
+
+            plugin.getServer().getScheduler().runTask(plugin, () -> sendConfirmMessage(sender, optionTwo, affectedPlayers, null, amount));
+        });
+        return true;
+    }
+
     private void sendConfirmMessage(CommandSender sender, String optionTwo, List<OfflinePlayer> targetPlayers, int changedAmount) {
+        sendConfirmMessage(sender, optionTwo, targetPlayers.size(), targetPlayers.size() == 1 ? targetPlayers.get(0).getName() : null, changedAmount);
+    }
+
+    private void sendConfirmMessage(CommandSender sender, String optionTwo, int playerCount, String playerName, int changedAmount) {
         String messageKey;
         String defaultMessage;
         Map<String, String> replacements = new HashMap<>();
 
         replacements.put("%amount%", String.valueOf(changedAmount));
 
-        if (targetPlayers.size() == 1) {
-            replacements.put("%player%", targetPlayers.get(0).getName());
+        boolean single = playerCount == 1 && playerName != null;
+        if (single) {
+            replacements.put("%player%", playerName);
         } else {
-            replacements.put("%pamount%", String.valueOf(targetPlayers.size()));
+            replacements.put("%pamount%", String.valueOf(playerCount));
         }
 
         switch (optionTwo) {
             case "add":
-                messageKey = targetPlayers.size() == 1 ? "addHeartsConfirmSingle" : "addHeartsConfirmMultiple";
-                defaultMessage = targetPlayers.size() == 1
+                messageKey = single ? "addHeartsConfirmSingle" : "addHeartsConfirmMultiple";
+                defaultMessage = single
                         ? "&7You successfully added &c%amount% &7hearts to &c%player%!"
                         : "&7Successfully added &c%amount% &7hearts to &c%pamount% players";
                 break;
             case "set":
-                messageKey = targetPlayers.size() == 1 ? "setHeartsConfirmSingle" : "setHeartsConfirmMultiple";
-                defaultMessage = targetPlayers.size() == 1
+                messageKey = single ? "setHeartsConfirmSingle" : "setHeartsConfirmMultiple";
+                defaultMessage = single
                         ? "&7Successfully set &c%player%'s &7hearts to &c%amount% hearts"
                         : "&7Successfully set &c%pamount% players' &7hearts to &c%amount% hearts";
                 break;
             case "remove":
-                messageKey = targetPlayers.size() == 1 ? "removeHeartsConfirmSingle" : "removeHeartsConfirmMultiple";
-                defaultMessage = targetPlayers.size() == 1
+                messageKey = single ? "removeHeartsConfirmSingle" : "removeHeartsConfirmMultiple";
+                defaultMessage = single
                         ? "&7Successfully removed &c%amount% &7hearts from &c%player%"
                         : "&7Successfully removed &c%amount% &7hearts from &c%pamount% players";
                 break;
@@ -16,9 +16,12 @@ import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 import com.zetaplugins.lifestealz.util.PrestigePermissionManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.storage.Storage;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 public final class PrestigeSubCommand implements SubCommand {
     private final LifeStealZ plugin;
@@ -37,7 +40,7 @@ public final class PrestigeSubCommand implements SubCommand {
             var provider = Bukkit.getServicesManager().getRegistration(LuckPerms.class);
             if (provider != null) {
                 this.luckPerms = provider.getProvider();
-                this.prestigePermissionManager = new PrestigePermissionManager(luckPerms, plugin.getLogger(), config);
+                this.prestigePermissionManager = new PrestigePermissionManager(luckPerms, plugin.getLogger(), plugin::getConfig);
                 plugin.getLogger().info("LuckPerms integration enabled for prestige system (with multiplier permissions)");
             }
         } catch (Exception e) {
@@ -52,14 +55,14 @@ public final class PrestigeSubCommand implements SubCommand {
                 sendPrestigeInfo((Player) sender);
                 return true;
             }
-            sender.sendMessage(MessageUtils.getAndFormatMsg(false, "usage", "&cUsage: /lifestealz prestige <confirm|info|set|reset|get> [player] [amount]"));
+            sender.sendMessage(MessageUtils.getAndFormatMsg(false, "usage", "&cUsage: /lifestealz prestige <confirm|info|set|reset|get|resync> [player] [amount]"));
             return false;
         }
 
         String action = args[1].toLowerCase();
 
         // Admin commands
-        if (action.equals("set") || action.equals("reset") || action.equals("get")) {
+        if (action.equals("set") || action.equals("reset") || action.equals("get") || action.equals("resync")) {
             return handleAdminCommand(sender, args);
         }
 
@@ -97,6 +100,10 @@ public final class PrestigeSubCommand implements SubCommand {
 
         String action = args[1].toLowerCase();
 
+        if (action.equals("resync")) {
+            return handleResync(sender);
+        }
+
         if (action.equals("get")) {
             if (args.length < 3) {
                 sender.sendMessage(MessageUtils.getAndFormatMsg(false, "usage", "&cUsage: /lifestealz prestige get <player>"));
@@ -204,6 +211,56 @@ public final class PrestigeSubCommand implements SubCommand {
         return false;
     }
 
+    /**
+     * Recompute the prestige multiplier permission of every player that has prestiged
+     * @param sender The sender that started the resync
+     * @return True if the resync was started, false otherwise
+     */
+    private boolean handleResync(CommandSender sender) {
+        if (prestigePermissionManager == null) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(false, "prestigeResyncNoLuckPerms",
+                    "&cLuckPerms is required to resync prestige multipliers!"));
+            return false;
+        }
+
+        // The resync reports from its own thread, so messages are sent on the main thread
+        CompletableFuture<PrestigePermissionManager.ResyncStats> resync = prestigePermissionManager.resyncAll(storage,
+                stats -> plugin.getServer().getScheduler().runTask(plugin, () -> sender.sendMessage(MessageUtils.getAndFormatMsg(true, "prestigeResyncProgress",
+                        "&7Resynced &b%processed% &7players so far &8(&7%updated% updated, %failed% failed&8)",
+                        new MessageUtils.Replaceable("%processed%", String.valueOf(stats.processed())),
+                        new MessageUtils.Replaceable("%updated%", String.valueOf(stats.updated())),
+                        new MessageUtils.Replaceable("%failed%", String.valueOf(stats.failed()))
+                ))));
+
+        if (resync == null) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(false, "prestigeResyncRunning",
+                    "&cA prestige multiplier resync is already running!"));
+            return false;
+        }
+
+        sender.sendMessage(MessageUtils.getAndFormatMsg(true, "prestigeResyncStarted",
+                "&7Started resyncing prestige multipliers..."));
+
+        resync.whenComplete((stats, throwable) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (throwable != null) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to resync prestige multipliers:", throwable);
+                sender.sendMessage(MessageUtils.getAndFormatMsg(false, "prestigeResyncFailed",
+                        "&cFailed to resync prestige multipliers! Check the console for details."));
+                return;
+            }
+
+            sender.sendMessage(MessageUtils.getAndFormatMsg(true, "prestigeResyncDone",
+                    "&7Resynced &b%processed% &7players in &b%seconds%s &8(&7%updated% updated, %failed% failed, %rate% players/s&8)",
+                    new MessageUtils.Replaceable("%processed%", String.valueOf(stats.processed())),
+                    new MessageUtils.Replaceable("%updated%", String.valueOf(stats.updated())),
+                    new MessageUtils.Replaceable("%failed%", String.valueOf(stats.failed())),
+                    new MessageUtils.Replaceable("%seconds%", String.format("%.1f", stats.elapsedMillis() / 1000.0)),
+                    new MessageUtils.Replaceable("%rate%", String.format("%.1f", stats.playersPerSecond()))
+            ));
+        }));
+        return true;
+    }
+
     /**
      * Update LuckPerms group for prestige
      */
@@ -307,6 +364,7 @@ public final class PrestigeSubCommand implements SubCommand {
         int oldPrestigeCount = playerData.getPrestigeCount();
         double newMaxHealth = prestigeResetHearts * 2.0; // Convert to health value
 
+        plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), newMaxHealth, HeartChangeCause.PRESTIGE, null);
         playerData.setMaxHealth(newMaxHealth);
         playerData.setPrestigeCount(newPrestigeCount);
 
@@ -23,6 +23,9 @@ public final class ReloadSubCommand implements SubCommand {
         plugin.reloadConfig();
         plugin.getLanguageManager().reload();
         plugin.getRecipeManager().registerRecipes();
+        plugin.getPermissionLimitsCache().invalidateAll();
+        plugin.getKillFarmingDetector().reload();
+        plugin.getAddressIndex().reload();
         sender.sendMessage(MessageUtils.getAndFormatMsg(true, "reloadMsg", "&7Successfully reloaded the plugin!"));
         return true;
     }
@@ -12,11 +12,13 @@ import org.jetbrains.annotations.Nullable;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.WebHookManager;
+import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.UUID;
 
 @AutoRegisterCommand(command = "revive")
 public final class ReviveCommand implements CommandExecutor, TabCompleter {
@@ -46,16 +48,27 @@ public final class ReviveCommand implements CommandExecutor, TabCompleter {
 
     private boolean handleReviveAll(CommandSender sender, String bypassOption) {
         try {
-            int revivedPlayers = plugin.getStorage().reviveAllPlayers(
+            List<UUID> revivedPlayers = plugin.getStorage().reviveAllPlayers(
                     plugin.getConfig().getInt("minHearts"),
                     plugin.getConfig().getInt("reviveHearts"),
                     plugin.getConfig().getInt("maxRevives"),
                     BYPASS_OPTION.equals(bypassOption) && sender.hasPermission("lifestealz.bypassrevivelimit")
             );
-            plugin.getEliminatedPlayersCache().reloadCache();
+            plugin.getEliminatedPlayersCache().markRevived(revivedPlayers);
+            // Revived players that are online (e.g. with bans on elimination disabled) get their new max health over the next ticks.
+            // Their data is loaded on the storage executor, only setting the max health runs on the main thread.
+            for (UUID uuid : revivedPlayers) {
+                if (plugin.getServer().getPlayer(uuid) == null) continue;
+
+                plugin.getStorage().loadAsync(uuid).thenAccept(playerData -> {
+                    if (playerData == null) return;
+                    final double maxHealth = playerData.getMaxHealth();
+                    plugin.getWorkQueue().submit(uuid, player -> LifeStealZ.setMaxHealth(player, maxHealth));
+                });
+            }
             sender.sendMessage(MessageUtils.getAndFormatMsg(true, "massReviveSuccess",
                     "&7You successfully revived &c%amount% &7player(s)!",
-                    new MessageUtils.Replaceable("%amount%", Integer.toString(revivedPlayers))
+                    new MessageUtils.Replaceable("%amount%", Integer.toString(revivedPlayers.size()))
             ));
             return true;
         } catch (Exception e) {
@@ -152,11 +165,13 @@ public final class ReviveCommand implements CommandExecutor, TabCompleter {
         }
         
         // Standard revive for eliminated players
+        plugin.getHeartLedger().record(UUID.fromString(playerData.getUuid()), playerData.getMaxHealth(), plugin.getConfig().getDouble("reviveHearts") * 2,
+                HeartChangeCause.REVIVE, sender instanceof org.bukkit.entity.Player reviver ? reviver.getUniqueId() : null);
         playerData.setMaxHealth(plugin.getConfig().getDouble("reviveHearts") * 2);
         playerData.setHasBeenRevived(playerData.getHasBeenRevived() + 1);
         playerData.setLifeState(com.zetaplugins.lifestealz.afterlife.LifeState.ALIVE);
         plugin.getStorage().save(playerData);
-        plugin.getEliminatedPlayersCache().removeEliminatedPlayer(targetPlayerName);
+        plugin.getEliminatedPlayersCache().markRevived(UUID.fromString(playerData.getUuid()));
 
         plugin.getWebHookManager().sendWebhookMessage(WebHookManager.WebHookType.REVIVE, targetPlayerName, sender.getName());
     }
@@ -174,9 +189,10 @@ public final class ReviveCommand implements CommandExecutor, TabCompleter {
     @Override
     public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, String[] args) {
         if (args.length == 1) {
-            Set<String> eliminatedPlayers = plugin.getEliminatedPlayersCache().getEliminatedPlayers();
-            eliminatedPlayers.add("*");
-            return new ArrayList<>(eliminatedPlayers);
+            List<String> options = new ArrayList<>();
+            if ("*".startsWith(args[0])) options.add("*");
+            options.addAll(plugin.getEliminatedPlayersCache().getNamesStartingWith(args[0], CommandUtils.TAB_COMPLETION_LIMIT));
+            return options;
         }
         if (args.length == 2 && sender.hasPermission("lifestealz.bypassrevivelimit")) {
             return List.of(BYPASS_OPTION);
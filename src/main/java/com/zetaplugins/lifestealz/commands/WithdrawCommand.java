@@ -18,6 +18,7 @@ import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.EliminationUtil;
 import com.zetaplugins.lifestealz.util.customitems.CustomItemManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 
 import java.util.List;
 
@@ -154,8 +155,17 @@ public final class WithdrawCommand implements CommandExecutor, TabCompleter {
         }
 
 
+        // Only give out hearts if nothing else changed the hearts since they were checked above
         playerdata.setMaxHealth(playerdata.getMaxHealth() - (double) withdrawHearts * 2);
-        plugin.getStorage().save(playerdata);
+        if (!plugin.getStorage().saveIfUnchanged(playerdata)) {
+            sender.sendMessage(MessageUtils.getAndFormatMsg(
+                    false,
+                    "withdrawConflict",
+                    "&cYour hearts changed while withdrawing. Please try again!"
+            ));
+            return false;
+        }
+        plugin.getHeartLedger().record(player.getUniqueId(), -(double) withdrawHearts * 2, HeartChangeCause.WITHDRAW, null);
         LifeStealZ.setMaxHealth(player, playerdata.getMaxHealth());
         player.playSound(player.getLocation(), Sound.ENTITY_PLAYER_HURT, 500.0f, 1.0f);
 
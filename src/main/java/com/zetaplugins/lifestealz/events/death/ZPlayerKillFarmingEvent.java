@@ -0,0 +1,53 @@
+package com.zetaplugins.lifestealz.events.death;
+
+import com.zetaplugins.lifestealz.events.ZPlayerDeathEventBase;
+import com.zetaplugins.lifestealz.util.MessageUtils;
+import lombok.Getter;
+import lombok.Setter;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.bukkit.event.entity.PlayerDeathEvent;
+
+/**
+ * Called when a player killed the same player more often than allowed within one of the kill farming windows
+ */
+public class ZPlayerKillFarmingEvent extends ZPlayerDeathEventBase {
+    @Getter
+    private final Player killer;
+
+    @Getter
+    private final int kills;
+
+    @Getter
+    private final long windowMillis;
+
+    @Getter @Setter
+    private boolean shouldPreventHeartGain;
+
+    @Getter @Setter
+    private boolean shouldLogAttempt;
+
+    @Getter @Setter
+    private boolean shouldSendMessage;
+
+    @Getter @Setter
+    private Component warningMessage;
+
+    public ZPlayerKillFarmingEvent(PlayerDeathEvent originalEvent, Player killer, int kills, long windowMillis) {
+        super(originalEvent);
+        this.killer = killer;
+        this.kills = kills;
+        this.windowMillis = windowMillis;
+        this.shouldPreventHeartGain = true;
+        this.shouldLogAttempt = true;
+        this.shouldSendMessage = true;
+        this.warningMessage = MessageUtils.getAndFormatMsg(
+                false,
+                "killFarming",
+                "&cYou killed %player% too often! You won't gain hearts from killing them for now.",
+                new MessageUtils.Replaceable("%player%", originalEvent.getEntity().getName()),
+                new MessageUtils.Replaceable("%kills%", String.valueOf(kills)),
+                new MessageUtils.Replaceable("%time%", MessageUtils.formatTime(windowMillis / 1000))
+        );
+    }
+}
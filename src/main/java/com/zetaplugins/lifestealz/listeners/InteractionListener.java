@@ -19,6 +19,7 @@ import com.zetaplugins.lifestealz.util.customitems.customitemdata.CustomHeartIte
 import com.zetaplugins.lifestealz.util.customitems.customitemdata.CustomItemData;
 import com.zetaplugins.lifestealz.util.customitems.CustomItemManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 
 import java.util.List;
 
@@ -160,8 +161,7 @@ public final class InteractionListener implements Listener {
             return;
         }
 
-        long heartCooldown = plugin.getConfig().getLong("heartCooldown");
-        if (CooldownManager.lastHeartUse.get(player.getUniqueId()) != null && CooldownManager.lastHeartUse.get(player.getUniqueId()) + heartCooldown > System.currentTimeMillis()) {
+        if (plugin.getCooldownManager().isOnCooldown(CooldownManager.Type.HEART_USE, player.getUniqueId())) {
             player.sendMessage(MessageUtils.getAndFormatMsg(false, "heartconsumeCooldown", "&cYou have to wait before using another heart!"));
             return;
         }
@@ -194,6 +194,7 @@ public final class InteractionListener implements Listener {
             updateItemInHand(player, item, 40);
         }
 
+        plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), newHearts, HeartChangeCause.HEART_USE, null);
         playerData.setMaxHealth(newHearts);
         plugin.getStorage().save(playerData);
         LifeStealZ.setMaxHealth(player, newHearts);
@@ -214,7 +215,7 @@ public final class InteractionListener implements Listener {
         if (plugin.getConfig().getBoolean("playTotemEffect")) playHeartAnimation(player);
 
         player.sendMessage(MessageUtils.getAndFormatMsg(true, "heartconsume", "&7Consumed a heart and got &c%amount% &7hearts!", new MessageUtils.Replaceable("%amount%", savedHeartAmount + "")));
-        CooldownManager.lastHeartUse.put(player.getUniqueId(), System.currentTimeMillis());
+        plugin.getCooldownManager().start(CooldownManager.Type.HEART_USE, player.getUniqueId(), plugin.getConfig().getLong("heartCooldown"));
     }
 
     private void handleReviveItem(ItemStack item, Player player, EquipmentSlot hand, PlayerInteractEvent event) {
@@ -2,6 +2,7 @@ package com.zetaplugins.lifestealz.listeners;
 
 import com.zetaplugins.lifestealz.util.GuiManager;
 import com.zetaplugins.lifestealz.util.MessageUtils;
+import com.zetaplugins.lifestealz.util.TimingWheel;
 import com.zetaplugins.lifestealz.util.revive.ReviveTask;
 import com.zetaplugins.lifestealz.util.WebHookManager;
 import com.zetaplugins.zetacore.annotations.AutoRegisterListener;
@@ -16,13 +17,12 @@ import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.persistence.PersistentDataType;
-import org.bukkit.scheduler.BukkitRunnable;
-import org.bukkit.scheduler.BukkitTask;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.util.commands.CommandUtils;
 import com.zetaplugins.lifestealz.util.customblocks.CustomBlock;
 import com.zetaplugins.lifestealz.util.customitems.CustomItemManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.util.customitems.customitemdata.CustomReviveBeaconItemData;
 
 import java.util.List;
@@ -242,8 +242,11 @@ public final class InventoryClickListener implements Listener {
     /**
      * Modifes the data of the player being revived.
      * @param data The PlayerData of the player being revived.
+     * @param reviver The player who is reviving.
      */
-    private void applyReviveData(PlayerData data) {
+    private void applyReviveData(PlayerData data, Player reviver) {
+        plugin.getHeartLedger().record(UUID.fromString(data.getUuid()), data.getMaxHealth(), plugin.getConfig().getInt("reviveHearts") * 2,
+                HeartChangeCause.REVIVE, reviver.getUniqueId());
         data.setMaxHealth(plugin.getConfig().getInt("reviveHearts") * 2);
         data.setHasBeenRevived(data.getHasBeenRevived() + 1);
         plugin.getStorage().save(data);
@@ -256,7 +259,7 @@ public final class InventoryClickListener implements Listener {
      * @param location The location where the revive took place as a String Array containing the X, Y and Z value, or "null" if not applicable.
      */
     private void executeReviveActions(Player reviver, OfflinePlayer target, String[] location) {
-        plugin.getEliminatedPlayersCache().removeEliminatedPlayer(target.getName());
+        plugin.getEliminatedPlayersCache().markRevived(target.getUniqueId());
 
         reviver.sendMessage(MessageUtils.getAndFormatMsg(
                 true,
@@ -292,7 +295,7 @@ public final class InventoryClickListener implements Listener {
         if (!canRevivePlayer(reviver, target, data)) return;
 
         String[] locationNull = {"null", "null", "null"};
-        applyReviveData(data);
+        applyReviveData(data, reviver);
         executeReviveActions(reviver, target, locationNull);
         removeReviveCrystal(reviver);
         reviver.closeInventory();
@@ -353,19 +356,20 @@ public final class InventoryClickListener implements Listener {
                 itemData.getReviveTime()
         );
 
-        BukkitTask reviveTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                applyReviveData(data);
-                executeReviveActions(reviver, target, location);
+        TimingWheel.Timer reviveTask = plugin.getTimingWheel().schedule(
+                new TimingWheel.Key("reviveBeacon", beaconLocation),
+                itemData.getReviveTime() * 1000L,
+                () -> {
+                    applyReviveData(data, reviver);
+                    executeReviveActions(reviver, target, location);
 
-                plugin.getReviveTaskManager().removeReviveTask(beaconLocation);
+                    plugin.getReviveTaskManager().removeReviveTask(beaconLocation);
 
-                plugin.getReviveBeaconEffectManager().clearAllEffects(beaconLocation);
-                beaconLocation.getBlock().setType(Material.AIR);
-                beaconLocation.getWorld().playSound(beaconLocation, Sound.ENTITY_PLAYER_LEVELUP, 500.0f, 1.0f);
-            }
-        }.runTaskLater(plugin, itemData.getReviveTime() * 20L);
+                    plugin.getReviveBeaconEffectManager().clearAllEffects(beaconLocation);
+                    beaconLocation.getBlock().setType(Material.AIR);
+                    beaconLocation.getWorld().playSound(beaconLocation, Sound.ENTITY_PLAYER_LEVELUP, 500.0f, 1.0f);
+                }
+        );
 
         plugin.getReviveTaskManager().addReviveTask(beaconLocation, new ReviveTask(
                 beaconLocation,
@@ -0,0 +1,38 @@
+package com.zetaplugins.lifestealz.listeners;
+
+import com.zetaplugins.zetacore.annotations.AutoRegisterListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import com.zetaplugins.lifestealz.LifeStealZ;
+
+/**
+ * Keeps the permission limits cache in sync with the online players
+ */
+@AutoRegisterListener
+public final class PermissionLimitsListener implements Listener {
+    private final LifeStealZ plugin;
+
+    public PermissionLimitsListener(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        plugin.getPermissionLimitsCache().refresh(event.getPlayer());
+    }
+
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Permission plugins may grant per-world permissions
+        plugin.getPermissionLimitsCache().invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getPermissionLimitsCache().invalidate(event.getPlayer().getUniqueId());
+    }
+}
@@ -6,6 +6,7 @@ import com.zetaplugins.lifestealz.util.CooldownManager;
 import com.zetaplugins.lifestealz.util.GracePeriodManager;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.WebHookManager;
+import com.zetaplugins.lifestealz.util.killfarming.KillFarmingDetector;
 import com.zetaplugins.lifestealz.events.*;
 import com.zetaplugins.zetacore.annotations.AutoRegisterListener;
 import org.bukkit.Bukkit;
@@ -22,12 +23,12 @@ import org.jetbrains.annotations.Nullable;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.util.customitems.CustomItemManager;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataField;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.util.worldguard.WorldGuardManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextReplacementConfig;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
 import java.util.List;
 import java.util.UUID;
 
@@ -72,16 +73,18 @@ public final class PlayerDeathListener implements Listener {
         // Handle anti-alt logic first
         if (handleAntiAltLogic(event, player, killer)) return;
 
+        final boolean isKillFarming = isDeathByPlayer && handleKillFarming(event, player, killer);
+
         boolean looseHeartsToNature = plugin.getConfig().getBoolean("looseHeartsToNature") || plugin.getConfig().getInt("heartsPerNaturalDeath") <= 0;
         boolean looseHeartsToPlayer = plugin.getConfig().getBoolean("looseHeartsToPlayer") || plugin.getConfig().getInt("heartsPerKill") <= 0;
 
         // Natural death or death by player
         if ((!isDeathByPlayer && looseHeartsToNature) || (isDeathByPlayer && looseHeartsToPlayer)) {
-            handleHeartLoss(event, player, killer, playerData, isDeathByPlayer);
+            handleHeartLoss(event, player, killer, playerData, isDeathByPlayer, isKillFarming);
         }
     }
 
-    private void handleHeartLoss(PlayerDeathEvent event, Player player, Player killer, PlayerData playerData, boolean isDeathByPlayer) {
+    private void handleHeartLoss(PlayerDeathEvent event, Player player, Player killer, PlayerData playerData, boolean isDeathByPlayer, boolean isKillFarming) {
         final double minHearts = plugin.getConfig().getInt("minHearts") * 2;
 
         double healthPerKill = plugin.getConfig().getInt("heartsPerKill") * 2;
@@ -121,8 +124,9 @@ public final class PlayerDeathListener implements Listener {
         }
 
 
-        boolean preventKillerGain = false;
-        boolean droppedAtKiller = false;
+        // Kill farming neither gives the killer hearts nor drops them for the killer to pick up
+        boolean preventKillerGain = isKillFarming;
+        boolean droppedAtKiller = isKillFarming;
 
         if (isDeathByPlayer && !killerInGracePeriod && !killerHasBypass) {
             
@@ -154,13 +158,11 @@ public final class PlayerDeathListener implements Listener {
 
     private boolean handleHeartGainCooldown(PlayerDeathEvent event, Player player, Player killer, double healthGain) {
         final boolean heartGainCooldownEnabled = plugin.getConfig().getBoolean("heartGainCooldown.enabled");
-        final long heartGainCooldown = plugin.getConfig().getLong("heartGainCooldown.cooldown");
+        final long remainingCooldown = plugin.getCooldownManager().remaining(CooldownManager.Type.HEART_GAIN, killer.getUniqueId());
 
-        if (heartGainCooldownEnabled
-                && CooldownManager.lastHeartGain.get(killer.getUniqueId()) != null
-                && CooldownManager.lastHeartGain.get(killer.getUniqueId()) + heartGainCooldown > System.currentTimeMillis()) {
+        if (heartGainCooldownEnabled && remainingCooldown > 0) {
 
-            long timeLeft = (CooldownManager.lastHeartGain.get(killer.getUniqueId()) + heartGainCooldown - System.currentTimeMillis()) / 1000;
+            long timeLeft = remainingCooldown / 1000;
 
             ZPlayerHeartGainCooldownEvent cooldownEvent =
                     new ZPlayerHeartGainCooldownEvent(event, killer, timeLeft);
@@ -216,8 +218,10 @@ public final class PlayerDeathListener implements Listener {
         if (!pvpEvent.isCancelled()) {
             // Victim loses hearts
             if (pvpEvent.getHeartsToLose() > 0) {
-                playerData.setMaxHealth(playerData.getMaxHealth() - pvpEvent.getHeartsToLose());
-                plugin.getStorage().save(playerData);
+                double oldHealth = playerData.getMaxHealth();
+                // Nothing is dropped or given to the killer if the hearts were not removed
+                if (!removeDeathHearts(player, playerData, pvpEvent.getHeartsToLose())) return;
+                plugin.getHeartLedger().record(player.getUniqueId(), oldHealth, playerData.getMaxHealth(), HeartChangeCause.PVP_DEATH, killer.getUniqueId());
                 LifeStealZ.setMaxHealth(player, playerData.getMaxHealth());
             }
 
@@ -225,7 +229,7 @@ public final class PlayerDeathListener implements Listener {
             if (pvpEvent.isShouldDropHearts()) {
                 dropHeartsNaturally(player.getLocation(), (int) (pvpEvent.getHeartsToLose() / 2), CustomItemManager.createKillHeart());
             } else if (pvpEvent.isKillerShouldGainHearts() && pvpEvent.getHeartsKillerGains() > 0) {
-                handleKillerHeartGainDirect(killer, pvpEvent.getHeartsKillerGains());
+                handleKillerHeartGainDirect(killer, player, pvpEvent.getHeartsKillerGains());
             }
 
             if (!pvpEvent.getDeathMessage().equals(event.getDeathMessage())) {
@@ -243,8 +247,10 @@ public final class PlayerDeathListener implements Listener {
         if (!naturalEvent.isCancelled()) {
             // Apply heart loss
             if (naturalEvent.getHeartsToLose() > 0) {
-                playerData.setMaxHealth(playerData.getMaxHealth() - naturalEvent.getHeartsToLose());
-                plugin.getStorage().save(playerData);
+                double oldHealth = playerData.getMaxHealth();
+                // Nothing is dropped if the hearts were not removed
+                if (!removeDeathHearts(player, playerData, naturalEvent.getHeartsToLose())) return;
+                plugin.getHeartLedger().record(player.getUniqueId(), oldHealth, playerData.getMaxHealth(), HeartChangeCause.NATURAL_DEATH, null);
                 LifeStealZ.setMaxHealth(player, playerData.getMaxHealth());
             }
 
@@ -308,7 +314,7 @@ public final class PlayerDeathListener implements Listener {
                             preventedByMax = handleMaxHeartsLimit(event, player, killer, healthToLoose);
                         }
                         if (!preventedByCooldown && !preventedByMax) {
-                            handleKillerHeartGainDirect(killer, healthToLoose);
+                            handleKillerHeartGainDirect(killer, player, healthToLoose);
                         }
                     } else {
                         if (droppedAtKiller || dropHeartsPlayer) {
@@ -327,8 +333,10 @@ public final class PlayerDeathListener implements Listener {
             // Afterlife takes precedence over bans or revive-respawn logic
             if (plugin.getConfig().getBoolean("afterlife.enabled", false)) {
                 // Set player to 0 hearts (eliminated state) before sending to afterlife
+                plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), 0.0, HeartChangeCause.ELIMINATION, killer != null ? killer.getUniqueId() : null);
                 playerData.setMaxHealth(0.0);
                 plugin.getStorage().save(playerData);
+                plugin.getEliminatedPlayersCache().markEliminated(player.getUniqueId(), player.getName());
                 
                 // Send to afterlife instead of banning or respawning
                 Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, () -> plugin.getAfterlifeManager().sendPlayerToAfterlife(player), 1L);
@@ -352,6 +360,7 @@ public final class PlayerDeathListener implements Listener {
             if (!eliminationEvent.isShouldBanPlayer()) {
                 // Respawn with revive hearts instead of elimination
                 double respawnHP = plugin.getConfig().getInt("reviveHearts") * 2;
+                plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), respawnHP, HeartChangeCause.ELIMINATION, killer != null ? killer.getUniqueId() : null);
                 playerData.setMaxHealth(respawnHP);
                 plugin.getStorage().save(playerData);
                 LifeStealZ.setMaxHealth(player, respawnHP);
@@ -375,30 +384,50 @@ public final class PlayerDeathListener implements Listener {
             plugin.getWebHookManager().sendWebhookMessage(WebHookManager.WebHookType.ELIMINATION, player.getName(), killer != null ? killer.getName() : "");
 
             // Set player data to eliminated
+            plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), 0.0, HeartChangeCause.ELIMINATION, killer != null ? killer.getUniqueId() : null);
             playerData.setMaxHealth(0.0);
             plugin.getStorage().save(playerData);
-            plugin.getEliminatedPlayersCache().addEliminatedPlayer(player.getName());
+            plugin.getEliminatedPlayersCache().markEliminated(player.getUniqueId(), player.getName());
         }
     }
 
-    private void handleKillerHeartGainDirect(Player killer, double healthGain) {
+    /**
+     * Removes the hearts a player loses on death, but never below the elimination limit.
+     * The elimination check runs before, so this only clamps if the hearts changed in the meantime (e.g. on another server).
+     * @return True if the hearts were removed, false if the database update failed
+     */
+    private boolean removeDeathHearts(Player player, PlayerData playerData, double healthToLose) {
+        final double minHealth = plugin.getConfig().getInt("minHearts") * 2;
+        if (plugin.getStorage().applyDelta(playerData, PlayerDataField.MAX_HEALTH, -healthToLose, minHealth, Double.MAX_VALUE) != null) return true;
+
+        plugin.getLogger().warning("Failed to remove the hearts of " + player.getName() + " after their death. Their hearts were not changed.");
+        return false;
+    }
+
+    private void handleKillerHeartGainDirect(Player killer, Player victim, double healthGain) {
         PlayerData killerPlayerData = plugin.getStorage().load(killer.getUniqueId());
-        killerPlayerData.setMaxHealth(killerPlayerData.getMaxHealth() + healthGain);
-        plugin.getStorage().save(killerPlayerData);
+        double oldHealth = killerPlayerData.getMaxHealth();
+        if (plugin.getStorage().applyDelta(killerPlayerData, PlayerDataField.MAX_HEALTH, healthGain, 0, Double.MAX_VALUE) == null) {
+            plugin.getLogger().warning("Failed to give " + killer.getName() + " the hearts for killing " + victim.getName() + ".");
+            return;
+        }
+        plugin.getHeartLedger().record(killer.getUniqueId(), oldHealth, killerPlayerData.getMaxHealth(), HeartChangeCause.PVP_KILL, victim.getUniqueId());
         LifeStealZ.setMaxHealth(killer, killerPlayerData.getMaxHealth());
         killer.setHealth(Math.min(killer.getHealth() + healthGain, killerPlayerData.getMaxHealth()));
-        CooldownManager.lastHeartGain.put(killer.getUniqueId(), System.currentTimeMillis());
+        plugin.getCooldownManager().start(CooldownManager.Type.HEART_GAIN, killer.getUniqueId(), plugin.getConfig().getLong("heartGainCooldown.cooldown"));
     }
 
     private boolean handleAntiAltLogic(PlayerDeathEvent event, Player player, @Nullable Player killer) {
         if (killer == null || player.getUniqueId().equals(killer.getUniqueId())) return false;
+        if (!plugin.getConfig().getBoolean("antiAlt.enabled")) return false;
 
-        final String victimIP = getPlayerIP(player);
-        final String killerIP = getPlayerIP(killer);
+        // Looked up in memory, so this never waits for the database
+        final String sharedAddress = plugin.getAddressIndex().findSharedAddress(
+                player.getUniqueId(), killer.getUniqueId(), plugin.getConfig().getBoolean("antiAlt.matchPrefix", false));
 
-        if (victimIP != null && victimIP.equals(killerIP) && plugin.getConfig().getBoolean("antiAlt.enabled")) {
+        if (sharedAddress != null) {
             ZPlayerAltKillEvent altEvent =
-                    new ZPlayerAltKillEvent(event, killer, victimIP);
+                    new ZPlayerAltKillEvent(event, killer, sharedAddress);
             altEvent.setShouldPreventKill(plugin.getConfig().getBoolean("antiAlt.preventKill"));
             altEvent.setShouldLogAttempt(plugin.getConfig().getBoolean("antiAlt.logAttempt"));
             altEvent.setShouldSendMessage(plugin.getConfig().getBoolean("antiAlt.sendMessage"));
@@ -407,7 +436,7 @@ public final class PlayerDeathListener implements Listener {
             if (!altEvent.isCancelled()) {
                 if (altEvent.isShouldLogAttempt()) {
                     plugin.getLogger().info("[ALT WARNING] Player " + killer.getName() + " tried to kill "
-                            + player.getName() + " with the same IP address! (Probably an alt account)");
+                            + player.getName() + " with a recently shared IP address! (Probably an alt account)");
                 }
                 if (altEvent.isShouldSendMessage()) {
                     killer.sendMessage(altEvent.getWarningMessage());
@@ -422,11 +451,39 @@ public final class PlayerDeathListener implements Listener {
         return false;
     }
 
-    private String getPlayerIP(Player player) {
-        InetSocketAddress inetSocketAddress = player.getAddress();
-        if (inetSocketAddress == null) return null;
-        InetAddress address = inetSocketAddress.getAddress();
-        return address.getHostAddress();
+    /**
+     * Records the kill in the kill farming detector and handles a detected kill farming attempt
+     * @return True if the killer should not gain hearts from this kill
+     */
+    private boolean handleKillFarming(PlayerDeathEvent event, Player player, Player killer) {
+        KillFarmingDetector detector = plugin.getKillFarmingDetector();
+        if (!detector.isEnabled()) return false;
+
+        KillFarmingDetector.Violation violation = detector.recordKill(killer.getUniqueId(), player.getUniqueId(), System.currentTimeMillis());
+        if (violation == null) return false;
+
+        ZPlayerKillFarmingEvent killFarmingEvent =
+                new ZPlayerKillFarmingEvent(event, killer, violation.kills(), violation.windowMillis());
+        killFarmingEvent.setShouldPreventHeartGain(plugin.getConfig().getBoolean("killFarming.preventHeartGain", true));
+        killFarmingEvent.setShouldLogAttempt(plugin.getConfig().getBoolean("killFarming.logAttempt", true));
+        killFarmingEvent.setShouldSendMessage(plugin.getConfig().getBoolean("killFarming.sendMessage", true));
+        Bukkit.getPluginManager().callEvent(killFarmingEvent);
+
+        if (killFarmingEvent.isCancelled()) return false;
+
+        if (killFarmingEvent.isShouldLogAttempt()) {
+            plugin.getLogger().info("[KILL FARMING WARNING] Player " + killer.getName() + " killed " + player.getName()
+                    + " " + violation.kills() + " times within " + MessageUtils.formatTime(violation.windowMillis() / 1000)
+                    + " (allowed: " + violation.maxKills() + ")");
+        }
+        if (killFarmingEvent.isShouldSendMessage()) {
+            killer.sendMessage(killFarmingEvent.getWarningMessage());
+        }
+        for (String command : plugin.getConfig().getStringList("killFarming.commands")) {
+            plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(),
+                    command.replace("&player&", killer.getName()).replace("&victim&", player.getName()));
+        }
+        return killFarmingEvent.isShouldPreventHeartGain();
     }
 
     private void dropHeartsNaturally(Location location, int amount, ItemStack itemStack) {
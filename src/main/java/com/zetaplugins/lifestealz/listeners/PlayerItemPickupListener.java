@@ -38,30 +38,25 @@ public final class PlayerItemPickupListener implements Listener {
 
         if (!CustomItemManager.isHeartItem(itemStack)) return;
 
-        if (
-                heartGainCooldownEnabled && heartGainCooldownPreventPickup
-                        && CooldownManager.lastHeartGain.get(player.getUniqueId()) != null
-                        && CooldownManager.lastHeartGain.get(player.getUniqueId()) + heartGainCooldown > System.currentTimeMillis()
-        ) {
+        final CooldownManager cooldownManager = plugin.getCooldownManager();
+        final long remainingCooldown = cooldownManager.remaining(CooldownManager.Type.HEART_GAIN, player.getUniqueId());
+
+        if (heartGainCooldownEnabled && heartGainCooldownPreventPickup && remainingCooldown > 0) {
             event.setCancelled(true);
 
-            if (
-                    CooldownManager.lastHeartPickupMessage.get(player.getUniqueId()) == null
-                            || CooldownManager.lastHeartPickupMessage.get(player.getUniqueId()) + 1000 < System.currentTimeMillis()
-            ) {
-                long timeLeft = (CooldownManager.lastHeartGain.get(player.getUniqueId()) + heartGainCooldown - System.currentTimeMillis()) / 1000;
+            if (cooldownManager.tryAcquire(CooldownManager.Type.HEART_PICKUP_MESSAGE, player.getUniqueId(), 1000)) {
+                long timeLeft = remainingCooldown / 1000;
                 player.sendMessage(MessageUtils.getAndFormatMsg(
                         false,
                         "heartGainCooldown",
                         "&cYou have to wait before gaining another heart!",
                         new MessageUtils.Replaceable("%time%", formatTime(timeLeft))
                 ));
-                CooldownManager.lastHeartPickupMessage.put(player.getUniqueId(), System.currentTimeMillis());
             }
 
             return;
         }
 
-        CooldownManager.lastHeartGain.put(player.getUniqueId(), System.currentTimeMillis());
+        cooldownManager.start(CooldownManager.Type.HEART_GAIN, player.getUniqueId(), heartGainCooldown);
     }
 }
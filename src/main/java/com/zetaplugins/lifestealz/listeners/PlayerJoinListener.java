@@ -10,6 +10,7 @@ import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.util.geysermc.GeyserManager;
 import com.zetaplugins.lifestealz.util.geysermc.GeyserPlayerFile;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.storage.Storage;
 
 @AutoRegisterListener
@@ -38,7 +39,9 @@ public final class PlayerJoinListener implements Listener {
         }
 
         PlayerData playerData = loadOrCreatePlayerData(player, storage, plugin.getConfig().getInt("startHearts", 10));
+        if (playerData == null) return;
         LifeStealZ.setMaxHealth(player, playerData.getMaxHealth());
+        plugin.getGracePeriodManager().scheduleGracePeriodEnd(player, playerData.getFirstJoin());
         
         // Handle afterlife on login
         if (plugin.getConfig().getBoolean("afterlife.enabled", false) && playerData.isAfterlife()) {
@@ -54,6 +57,7 @@ public final class PlayerJoinListener implements Listener {
                     long remainingSeconds = (playerData.getAfterlifeReleaseTime() - System.currentTimeMillis()) / 1000;
                     player.sendMessage("§7You are still in the Afterlife. Remaining time: §e" + formatTime(remainingSeconds));
                 }
+                plugin.getAfterlifeManager().scheduleRelease(player, playerData.getAfterlifeReleaseTime());
             }
         }
 
@@ -76,11 +80,13 @@ public final class PlayerJoinListener implements Listener {
 
     private PlayerData loadOrCreatePlayerData(Player player, Storage storage, int startHearts) {
         PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
+        if (playerData == null && !storage.isAvailable()) return null;
         if (playerData == null) {
             playerData = new PlayerData(player.getName(), player.getUniqueId());
             playerData.setFirstJoin(System.currentTimeMillis());
             playerData.setMaxHealth(startHearts * 2.0);
             storage.save(playerData);
+            plugin.getHeartLedger().record(player.getUniqueId(), startHearts * 2.0, HeartChangeCause.FIRST_JOIN, null);
             plugin.getGracePeriodManager().startGracePeriod(player);
             plugin.getOfflinePlayerCache().addItem(player.getName());
         }
@@ -9,6 +9,7 @@ import org.bukkit.event.player.PlayerLoginEvent;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.util.MessageUtils;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import com.zetaplugins.lifestealz.storage.Storage;
 
 @AutoRegisterListener
@@ -26,18 +27,30 @@ public final class PlayerLoginListener implements Listener {
 
         PlayerData playerData = loadOrCreatePlayerData(player, storage, plugin.getConfig().getInt("startHearts", 10));
 
+        if (playerData == null) {
+            // The database is unavailable and there is no session data, so the player must not start with fresh data
+            event.setResult(PlayerLoginEvent.Result.KICK_OTHER);
+            event.kickMessage(MessageUtils.getAndFormatMsg(false, "storageUnavailable", "&cYour data can't be loaded right now. Please try again in a moment."));
+            return;
+        }
+
         if (shouldKickPlayer(playerData)) {
             kickPlayer(event);
+            return;
         }
+
+        plugin.getAddressIndex().recordLogin(player.getUniqueId(), event.getAddress());
     }
 
     private PlayerData loadOrCreatePlayerData(Player player, Storage storage, int startHearts) {
         PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
+        if (playerData == null && !storage.isAvailable()) return null;
         if (playerData == null) {
             playerData = new PlayerData(player.getName(), player.getUniqueId());
             playerData.setFirstJoin(System.currentTimeMillis());
             playerData.setMaxHealth(startHearts * 2.0);
             storage.save(playerData);
+            plugin.getHeartLedger().record(player.getUniqueId(), startHearts * 2.0, HeartChangeCause.FIRST_JOIN, null);
             plugin.getGracePeriodManager().startGracePeriod(player);
             plugin.getOfflinePlayerCache().addItem(player.getName());
         }
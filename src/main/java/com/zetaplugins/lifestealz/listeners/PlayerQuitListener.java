@@ -0,0 +1,26 @@
+package com.zetaplugins.lifestealz.listeners;
+
+import com.zetaplugins.zetacore.annotations.AutoRegisterListener;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import com.zetaplugins.lifestealz.LifeStealZ;
+
+/**
+ * Drops the cached session data and placeholder snapshots of players that leave
+ */
+@AutoRegisterListener
+public final class PlayerQuitListener implements Listener {
+    private final LifeStealZ plugin;
+
+    public PlayerQuitListener(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getStorage().endSession(event.getPlayer().getUniqueId());
+        plugin.getPlaceholderCache().remove(event.getPlayer().getUniqueId());
+    }
+}
@@ -13,6 +13,7 @@ import java.util.logging.Level;
  */
 public final class MariaDBStorage extends MySQLSyntaxStorage {
     private final MariaDBConnectionPool connectionPool;
+    private final MariaDBConnectionPool replicaConnectionPool;
 
     public MariaDBStorage(LifeStealZ plugin) {
         super(plugin);
@@ -26,6 +27,8 @@ public final class MariaDBStorage extends MySQLSyntaxStorage {
         final String PASSWORD = config.getString("password");
 
         connectionPool = new MariaDBConnectionPool(HOST, PORT, DATABASE, USERNAME, PASSWORD);
+
+        replicaConnectionPool = config.getBoolean("replica.enabled", false) ? createReplicaPool(config, HOST, PORT, DATABASE, USERNAME, PASSWORD) : null;
     }
 
     @Override
@@ -33,6 +36,32 @@ public final class MariaDBStorage extends MySQLSyntaxStorage {
         return connectionPool;
     }
 
+    @Override
+    public ConnectionPool getReplicaConnectionPool() {
+        return replicaConnectionPool;
+    }
+
+    /**
+     * Create the pool for the read replica. Unset replica settings default to the primary settings.
+     * @return The replica pool, or null if it could not be created (the primary is used instead)
+     */
+    private MariaDBConnectionPool createReplicaPool(FileConfiguration config, String host, String port, String database, String username, String password) {
+        try {
+            MariaDBConnectionPool pool = new MariaDBConnectionPool(
+                    config.getString("replica.host", host),
+                    config.getString("replica.port", port),
+                    config.getString("replica.database", database),
+                    config.getString("replica.username", username),
+                    config.getString("replica.password", password)
+            );
+            getPlugin().getLogger().info("Using read replica for read-only queries");
+            return pool;
+        } catch (RuntimeException e) {
+            getPlugin().getLogger().log(Level.WARNING, "Failed to connect to the read replica. Using the primary database for all queries:", e);
+            return null;
+        }
+    }
+
     @Override
     protected void migrateDatabase() {
         try (Connection connection = getConnection(); Statement statement = connection.createStatement()) {
@@ -88,9 +117,24 @@ public final class MariaDBStorage extends MySQLSyntaxStorage {
                     statement.executeUpdate("ALTER TABLE hearts ADD COLUMN prestigeCount SMALLINT UNSIGNED DEFAULT 0");
                 }
             }
+
+            // Check for version column
+            try (ResultSet resultSet = statement.executeQuery(
+                    "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS"
+                            + " WHERE TABLE_SCHEMA = DATABASE()"
+                            + " AND TABLE_NAME = 'hearts'"
+                            + " AND COLUMN_NAME = 'version'"
+            )) {
+                if (!resultSet.next()) {
+                    getPlugin().getLogger().info("Adding 'version' column to 'hearts' table.");
+                    statement.executeUpdate("ALTER TABLE hearts ADD COLUMN version INT UNSIGNED NOT NULL DEFAULT 0");
+                }
+            }
             
         } catch (SQLException e) {
             getPlugin().getLogger().log(Level.SEVERE, "Failed to migrate database: ", e);
         }
+
+        migrateSchema();
     }
 }
@@ -3,8 +3,10 @@ package com.zetaplugins.lifestealz.storage;
 import com.zetaplugins.lifestealz.LifeStealZ;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 
 /**
  * Abstract class for Storage classes that share the same MySQL syntax.
@@ -15,47 +17,85 @@ public abstract class MySQLSyntaxStorage extends SQLStorage {
     }
 
     @Override
-    public void save(PlayerData playerData) {
-        String insertOrUpdateQuery = "INSERT INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
-                "ON DUPLICATE KEY UPDATE " +
-                "name = VALUES(name), " +
-                "maxhp = VALUES(maxhp), " +
-                "hasbeenRevived = VALUES(hasbeenRevived), " +
-                "craftedHearts = VALUES(craftedHearts), " +
-                "craftedRevives = VALUES(craftedRevives), " +
-                "killedOtherPlayers = VALUES(killedOtherPlayers), " +
-                "firstJoin = VALUES(firstJoin)";
+    protected Long getReplicaLagSeconds(Connection connection) {
+        // SHOW REPLICA STATUS exists since MySQL 8.0.22 and MariaDB 10.5.1, older versions only know SHOW SLAVE STATUS
+        for (String sql : new String[] {"SHOW REPLICA STATUS", "SHOW SLAVE STATUS"}) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                if (!resultSet.next()) return null;
 
-        try (Connection connection = getConnection()) {
-            if (connection == null) return;
+                for (String column : new String[] {"Seconds_Behind_Source", "Seconds_Behind_Master"}) {
+                    try {
+                        long lag = resultSet.getLong(column);
+                        return resultSet.wasNull() ? null : lag;
+                    } catch (SQLException ignored) {}
+                }
+                return null;
+            } catch (SQLException ignored) {}
+        }
+        return null;
+    }
 
-            try (PreparedStatement stmt = connection.prepareStatement(insertOrUpdateQuery)) {
+    @Override
+    protected String getBinaryUuidType() {
+        return "BINARY(16)";
+    }
 
-                stmt.setString(1, playerData.getUuid());
-                stmt.setString(2, playerData.getName());
-                stmt.setDouble(3, playerData.getMaxHealth());
-                stmt.setInt(4, playerData.getHasBeenRevived());
-                stmt.setInt(5, playerData.getCraftedHearts());
-                stmt.setInt(6, playerData.getCraftedRevives());
-                stmt.setInt(7, playerData.getKilledOtherPlayers());
-                stmt.setLong(8, playerData.getFirstJoin());
+    @Override
+    protected String[] getSwapHeartsTableStatements() {
+        // MySQL commits DDL implicitly, but a multi table RENAME is atomic
+        return new String[] {"RENAME TABLE hearts TO hearts_v1, hearts_v2 TO hearts"};
+    }
 
-                stmt.executeUpdate();
+    @Override
+    protected String getCreateChangeLogTableStatement() {
+        return "CREATE TABLE IF NOT EXISTS hearts_changes ("
+                + "seq BIGINT UNSIGNED AUTO_INCREMENT PRIMARY KEY, "
+                + "uuid CHAR(36) NOT NULL, "
+                + "fields VARCHAR(255) NOT NULL, "
+                + "serverId CHAR(36) NOT NULL, "
+                + "changedAt BIGINT NOT NULL, "
+                + "INDEX idx_changedAt (changedAt)"
+                + ")";
+    }
 
-                playerData.clearModifiedFields();
-            } catch (SQLException e) {
-                getPlugin().getLogger().severe("Failed to save player data to database: " + e.getMessage());
-            }
-        } catch (SQLException e) {
-            getPlugin().getLogger().severe("Failed to save player data to database: " + e.getMessage());
-        }
+    @Override
+    protected List<String> getCreateHeartLedgerStatements() {
+        // ts is part of the primary key, so the table can be partitioned by RANGE (ts) later on
+        return List.of("CREATE TABLE IF NOT EXISTS heart_ledger ("
+                + "id BIGINT UNSIGNED AUTO_INCREMENT, "
+                + "ts BIGINT NOT NULL, "
+                + "uuid BINARY(16) NOT NULL, "
+                + "delta DOUBLE NOT NULL, "
+                + "cause VARCHAR(32) NOT NULL, "
+                + "counterparty BINARY(16) NULL, "
+                + "PRIMARY KEY (id, ts), "
+                + "INDEX idx_heart_ledger_ts (ts), "
+                + "INDEX idx_heart_ledger_uuid_ts (uuid, ts)"
+                + ")");
+    }
+
+    @Override
+    protected List<String> getCreatePlayerAddressStatements() {
+        return List.of("CREATE TABLE IF NOT EXISTS player_addresses ("
+                + "uuid BINARY(16) NOT NULL, "
+                + "address VARBINARY(16) NOT NULL, "
+                + "lastSeen BIGINT NOT NULL, "
+                + "PRIMARY KEY (uuid, address), "
+                + "INDEX idx_player_addresses_lastSeen (lastSeen)"
+                + ")");
+    }
+
+    @Override
+    protected String getUpsertPlayerAddressStatement() {
+        return "INSERT INTO player_addresses (uuid, address, lastSeen) VALUES (?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE lastSeen = VALUES(lastSeen)";
     }
 
     @Override
     protected String getInserOrReplaceStatement() {
-        return "INSERT INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        return "INSERT INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
                 "ON DUPLICATE KEY UPDATE " +
                 "name = VALUES(name), " +
                 "maxhp = VALUES(maxhp), " +
@@ -63,6 +103,8 @@ public abstract class MySQLSyntaxStorage extends SQLStorage {
                 "craftedHearts = VALUES(craftedHearts), " +
                 "craftedRevives = VALUES(craftedRevives), " +
                 "killedOtherPlayers = VALUES(killedOtherPlayers), " +
-                "firstJoin = VALUES(firstJoin)";
+                "firstJoin = VALUES(firstJoin), " +
+                "lifeState = VALUES(lifeState), " +
+                "afterlifeReleaseTime = VALUES(afterlifeReleaseTime)";
     }
 }
@@ -0,0 +1,11 @@
+package com.zetaplugins.lifestealz.storage;
+
+import java.util.UUID;
+
+/**
+ * An address a player has logged in from
+ * @param uuid The UUID of the player
+ * @param address The raw address (4 bytes for IPv4, 16 bytes for IPv6)
+ * @param lastSeen The time of the last login from this address
+ */
+public record PlayerAddress(UUID uuid, byte[] address, long lastSeen) {}
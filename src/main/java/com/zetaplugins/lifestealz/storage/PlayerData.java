@@ -2,11 +2,29 @@ package com.zetaplugins.lifestealz.storage;
 
 import com.zetaplugins.lifestealz.afterlife.LifeState;
 
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
 public class PlayerData {
+    // Bits of the modified fields mask. The order matches COLUMNS.
+    static final int MAX_HEALTH = 1;
+    static final int HAS_BEEN_REVIVED = 1 << 1;
+    static final int CRAFTED_HEARTS = 1 << 2;
+    static final int CRAFTED_REVIVES = 1 << 3;
+    static final int KILLED_OTHER_PLAYERS = 1 << 4;
+    static final int FIRST_JOIN = 1 << 5;
+    static final int LIFE_STATE = 1 << 6;
+    static final int AFTERLIFE_RELEASE_TIME = 1 << 7;
+    static final int PRESTIGE_COUNT = 1 << 8;
+
+    /**
+     * The database columns of the tracked fields, indexed by bit position
+     */
+    static final String[] COLUMNS = Arrays.stream(PlayerDataField.values()).map(PlayerDataField::getColumn).toArray(String[]::new);
+    static final int FIELD_COUNT = COLUMNS.length;
+
     private final String name;
     private final String uuid;
     private double maxHealth = 20;
@@ -18,8 +36,9 @@ public class PlayerData {
     private LifeState lifeState = LifeState.ALIVE;
     private long afterlifeReleaseTime = 0L;
     private int prestigeCount = 0;
+    private long version = 0L;
 
-    private final Set<String> modifiedFields = new HashSet<>(); // Track modified fields
+    private int modifiedFields = 0; // Bitmask of modified fields
 
     public PlayerData(String name, UUID uuid) {
         this.name = name;
@@ -41,7 +60,7 @@ public class PlayerData {
     public void setMaxHealth(double maxHealth) {
         if (this.maxHealth != maxHealth) {
             this.maxHealth = maxHealth;
-            modifiedFields.add("maxhp");
+            modifiedFields |= MAX_HEALTH;
         }
     }
 
@@ -52,7 +71,7 @@ public class PlayerData {
     public void setCraftedHearts(int craftedHearts) {
         if (this.craftedHearts != craftedHearts) {
             this.craftedHearts = craftedHearts;
-            modifiedFields.add("craftedHearts");
+            modifiedFields |= CRAFTED_HEARTS;
         }
     }
 
@@ -63,7 +82,7 @@ public class PlayerData {
     public void setCraftedRevives(int craftedRevives) {
         if (this.craftedRevives != craftedRevives) {
             this.craftedRevives = craftedRevives;
-            modifiedFields.add("craftedRevives");
+            modifiedFields |= CRAFTED_REVIVES;
         }
     }
 
@@ -74,7 +93,7 @@ public class PlayerData {
     public void setHasBeenRevived(int hasBeenRevived) {
         if (this.hasBeenRevived != hasBeenRevived) {
             this.hasBeenRevived = hasBeenRevived;
-            modifiedFields.add("hasbeenRevived");
+            modifiedFields |= HAS_BEEN_REVIVED;
         }
     }
 
@@ -85,7 +104,7 @@ public class PlayerData {
     public void setKilledOtherPlayers(int killedOtherPlayers) {
         if (this.killedOtherPlayers != killedOtherPlayers) {
             this.killedOtherPlayers = killedOtherPlayers;
-            modifiedFields.add("killedOtherPlayers");
+            modifiedFields |= KILLED_OTHER_PLAYERS;
         }
     }
 
@@ -96,7 +115,7 @@ public class PlayerData {
     public void setFirstJoin(long firstJoin) {
         if (this.firstJoin != firstJoin) {
             this.firstJoin = firstJoin;
-            modifiedFields.add("firstJoin");
+            modifiedFields |= FIRST_JOIN;
         }
     }
 
@@ -107,7 +126,7 @@ public class PlayerData {
     public void setLifeState(LifeState lifeState) {
         if (this.lifeState != lifeState) {
             this.lifeState = lifeState;
-            modifiedFields.add("lifeState");
+            modifiedFields |= LIFE_STATE;
         }
     }
 
@@ -118,7 +137,7 @@ public class PlayerData {
     public void setAfterlifeReleaseTime(long afterlifeReleaseTime) {
         if (this.afterlifeReleaseTime != afterlifeReleaseTime) {
             this.afterlifeReleaseTime = afterlifeReleaseTime;
-            modifiedFields.add("afterlifeReleaseTime");
+            modifiedFields |= AFTERLIFE_RELEASE_TIME;
         }
     }
 
@@ -141,19 +160,112 @@ public class PlayerData {
     public void setPrestigeCount(int prestigeCount) {
         if (this.prestigeCount != prestigeCount) {
             this.prestigeCount = prestigeCount;
-            modifiedFields.add("prestigeCount");
+            modifiedFields |= PRESTIGE_COUNT;
+        }
+    }
+
+    /**
+     * The row version this data was loaded with. It is increased on every save and used for optimistic locking.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets a numeric field that {@link Storage#applyDelta} can change
+     * @param field The field
+     * @return The value of the field
+     */
+    double getStoredValue(PlayerDataField field) {
+        return switch (field) {
+            case MAX_HEALTH -> maxHealth;
+            case HAS_BEEN_REVIVED -> hasBeenRevived;
+            case CRAFTED_HEARTS -> craftedHearts;
+            case CRAFTED_REVIVES -> craftedRevives;
+            case KILLED_OTHER_PLAYERS -> killedOtherPlayers;
+            case PRESTIGE_COUNT -> prestigeCount;
+            default -> throw new IllegalArgumentException("Invalid numeric field: " + field);
+        };
+    }
+
+    /**
+     * Sets a numeric field to the value that is stored in the database, without marking it as modified
+     * @param field The field
+     * @param value The stored value
+     */
+    void setStoredValue(PlayerDataField field, double value) {
+        switch (field) {
+            case MAX_HEALTH -> maxHealth = value;
+            case HAS_BEEN_REVIVED -> hasBeenRevived = (int) value;
+            case CRAFTED_HEARTS -> craftedHearts = (int) value;
+            case CRAFTED_REVIVES -> craftedRevives = (int) value;
+            case KILLED_OTHER_PLAYERS -> killedOtherPlayers = (int) value;
+            case PRESTIGE_COUNT -> prestigeCount = (int) value;
+            default -> throw new IllegalArgumentException("Invalid numeric field: " + field);
         }
     }
 
     public boolean hasChanges() {
-        return !modifiedFields.isEmpty();
+        return modifiedFields != 0;
+    }
+
+    /**
+     * @return The bitmask of modified fields (see the field constants)
+     */
+    int getModifiedMask() {
+        return modifiedFields;
     }
 
     public Set<String> getModifiedFields() {
-        return new HashSet<>(modifiedFields);
+        return getColumnNames(modifiedFields);
     }
 
     public void clearModifiedFields() {
-        modifiedFields.clear();
+        modifiedFields = 0;
+    }
+
+    /**
+     * Overwrite the modified fields mask, e.g. when a journaled write is replayed
+     * @param mask The bitmask of modified fields
+     */
+    void setModifiedMask(int mask) {
+        modifiedFields = mask;
+    }
+
+    /**
+     * Create an independent copy of this player data, including the modified fields and the version
+     * @return The copy
+     */
+    PlayerData copy() {
+        PlayerData copy = new PlayerData(name, UUID.fromString(uuid));
+        copy.maxHealth = maxHealth;
+        copy.craftedHearts = craftedHearts;
+        copy.craftedRevives = craftedRevives;
+        copy.hasBeenRevived = hasBeenRevived;
+        copy.killedOtherPlayers = killedOtherPlayers;
+        copy.firstJoin = firstJoin;
+        copy.lifeState = lifeState;
+        copy.afterlifeReleaseTime = afterlifeReleaseTime;
+        copy.prestigeCount = prestigeCount;
+        copy.version = version;
+        copy.modifiedFields = modifiedFields;
+        return copy;
+    }
+
+    /**
+     * Get the column names of the fields in a modified fields mask
+     * @param mask The bitmask of fields
+     * @return A new set with the column names
+     */
+    static Set<String> getColumnNames(int mask) {
+        Set<String> columns = new HashSet<>();
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if ((mask & (1 << i)) != 0) columns.add(COLUMNS[i]);
+        }
+        return columns;
     }
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.zetaplugins.lifestealz.storage;
+
+/**
+ * The stored fields of {@link PlayerData} that can be read on their own with {@link Storage#loadLong} and {@link Storage#loadDouble}.
+ * The order matches the bits of the modified fields mask in {@link PlayerData}.
+ */
+public enum PlayerDataField {
+    MAX_HEALTH("maxhp"),
+    HAS_BEEN_REVIVED("hasbeenRevived"),
+    CRAFTED_HEARTS("craftedHearts"),
+    CRAFTED_REVIVES("craftedRevives"),
+    KILLED_OTHER_PLAYERS("killedOtherPlayers"),
+    FIRST_JOIN("firstJoin"),
+    LIFE_STATE("lifeState"),
+    AFTERLIFE_RELEASE_TIME("afterlifeReleaseTime"),
+    PRESTIGE_COUNT("prestigeCount");
+
+    private final String column;
+
+    PlayerDataField(String column) {
+        this.column = column;
+    }
+
+    /**
+     * @return The name of the database column
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * @return True if the field is stored as a number
+     */
+    public boolean isNumeric() {
+        return this != LIFE_STATE;
+    }
+
+    /**
+     * @return True if the field is a counter that {@link Storage#applyDelta} can change
+     */
+    public boolean isDeltaField() {
+        return this == MAX_HEALTH || this == HAS_BEEN_REVIVED || this == CRAFTED_HEARTS
+                || this == CRAFTED_REVIVES || this == KILLED_OTHER_PLAYERS || this == PRESTIGE_COUNT;
+    }
+
+    /**
+     * @return True if players can be ranked by the field. The database keeps an index on these columns.
+     */
+    public boolean isRanked() {
+        return this == MAX_HEALTH || this == HAS_BEEN_REVIVED || this == KILLED_OTHER_PLAYERS || this == PRESTIGE_COUNT;
+    }
+}
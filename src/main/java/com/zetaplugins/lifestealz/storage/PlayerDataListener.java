@@ -0,0 +1,26 @@
+package com.zetaplugins.lifestealz.storage;
+
+import java.util.UUID;
+
+/**
+ * Gets notified when player data is loaded from or written to a {@link Storage}, so caches can stay up to date
+ * without querying the database themselves. The methods may be called from any thread.
+ */
+public interface PlayerDataListener {
+    /**
+     * Called with data that matches the stored data, after it was loaded or saved
+     * @param playerData The current data of the player. It must not be modified.
+     */
+    void onPlayerDataChanged(PlayerData playerData);
+
+    /**
+     * Called when a player was changed in the database without the full data being known (e.g. an atomic delta)
+     * @param uuid The UUID of the player
+     */
+    void onPlayerDataInvalidated(UUID uuid);
+
+    /**
+     * Called when many players were changed at once (e.g. bulk updates, imports)
+     */
+    void onAllPlayerDataInvalidated();
+}
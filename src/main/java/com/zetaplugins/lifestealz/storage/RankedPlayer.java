@@ -0,0 +1,11 @@
+package com.zetaplugins.lifestealz.storage;
+
+import java.util.UUID;
+
+/**
+ * A player with the value of the field they are ranked by
+ * @param uuid The UUID of the player
+ * @param name The name of the player (may be null if unknown)
+ * @param value The value of the ranked field
+ */
+public record RankedPlayer(UUID uuid, String name, double value) {}
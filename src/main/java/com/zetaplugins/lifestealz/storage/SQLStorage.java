@@ -3,18 +3,94 @@ package com.zetaplugins.lifestealz.storage;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.afterlife.LifeState;
 import com.zetaplugins.lifestealz.storage.connectionPool.ConnectionPool;
+import com.zetaplugins.lifestealz.storage.connectionPool.PoolStatus;
+import com.zetaplugins.lifestealz.storage.failover.CircuitBreaker;
+import com.zetaplugins.lifestealz.storage.failover.WriteJournal;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
+import com.zetaplugins.lifestealz.storage.ledger.HeartTransaction;
+import com.zetaplugins.lifestealz.storage.sync.ChangeLogEntry;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 
 public abstract class SQLStorage extends Storage {
     private static final String CSV_SEPARATOR = ",";
 
+    private static final int CIRCUIT_BREAKER_FAILURE_THRESHOLD = 2;
+    private static final long CIRCUIT_BREAKER_OPEN_MILLIS = 10_000L;
+    private static final long JOURNAL_REPLAY_INTERVAL_TICKS = 100L;
+    private static final String JOURNAL_SEPARATOR = "\t";
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(CIRCUIT_BREAKER_FAILURE_THRESHOLD, CIRCUIT_BREAKER_OPEN_MILLIS);
+    private final AtomicBoolean replayingJournal = new AtomicBoolean(false);
+    /**
+     * Copies of the data of online players, and of players with journaled writes, used while the database is unavailable
+     */
+    private final Map<UUID, PlayerData> sessionCache = new ConcurrentHashMap<>();
+    /**
+     * Guards read-modify-write changes of the session cache while writes are journaled
+     */
+    private final Object journalLock = new Object();
+    private WriteJournal journal;
+
+    /**
+     * How long the replica is skipped after it failed to hand out a connection
+     */
+    private static final long REPLICA_RETRY_DELAY_MILLIS = 30_000L;
+    private volatile long replicaRetryAt = 0L;
+
+    /**
+     * The newest version of the hearts table schema (see {@link #migrateSchema()})
+     */
+    private static final int SCHEMA_VERSION = 2;
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+
+    /**
+     * Only the columns that are mapped to PlayerData, so added columns (and the uuid) are not transferred on every load
+     */
+    private static final String LOAD_STATEMENT = "SELECT name, " + String.join(", ", PlayerData.COLUMNS) + ", version FROM hearts WHERE uuid = ?";
+
+    /**
+     * SELECT statements for a single column, indexed by field ordinal
+     */
+    private static final String[] FIELD_STATEMENTS = Arrays.stream(PlayerDataField.values())
+            .map(field -> "SELECT " + field.getColumn() + " FROM hearts WHERE uuid = ?")
+            .toArray(String[]::new);
+
+    /**
+     * UPDATE statements per combination of modified fields and version check, built on first use
+     */
+    private static final String[] UPDATE_STATEMENTS = new String[1 << (PlayerData.FIELD_COUNT + 1)];
+
+    /**
+     * The id of this server in the change log, or null if the change log is disabled
+     */
+    private volatile String changeLogServerId = null;
+
+    /**
+     * If bulk operations record their max health changes in the heart ledger
+     */
+    private volatile boolean heartLedgerEnabled = false;
+    private volatile boolean addressTableCreated = false;
+
     public SQLStorage(LifeStealZ plugin) {
         super(plugin);
     }
@@ -24,45 +100,427 @@ public abstract class SQLStorage extends Storage {
         try (Connection connection = getConnection()) {
             if (connection == null) return;
             try (Statement statement = connection.createStatement()) {
-                StringBuilder sql = new StringBuilder();
-                sql.append("CREATE TABLE IF NOT EXISTS hearts (")
-                        .append("uuid CHAR(36) PRIMARY KEY, ")
-                        .append("name VARCHAR(64) NOT NULL, ")
-                        .append("maxhp FLOAT NOT NULL DEFAULT 20.0, ")
-                        .append("hasbeenRevived SMALLINT NOT NULL DEFAULT 0, ")
-                        .append("craftedHearts SMALLINT UNSIGNED NOT NULL DEFAULT 0, ")
-                        .append("craftedRevives SMALLINT UNSIGNED NOT NULL DEFAULT 0, ")
-                        .append("killedOtherPlayers MEDIUMINT UNSIGNED NOT NULL DEFAULT 0, ")
-                        .append("firstJoin BIGINT UNSIGNED NOT NULL, ")
-                        .append("lifeState VARCHAR(16) NOT NULL DEFAULT 'ALIVE', ")
-                        .append("afterlifeReleaseTime BIGINT NOT NULL DEFAULT 0, ")
-                        .append("prestigeCount SMALLINT UNSIGNED NOT NULL DEFAULT 0")
-                        .append(");");                statement.executeUpdate(sql.toString());
+                // Must be checked before the table is created, to tell new databases from old ones without a schema version
+                final boolean isNewDatabase = !tableExists(connection, "hearts");
+
+                statement.executeUpdate(getCreateHeartsTableStatement("hearts"));
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS schema_version (version INTEGER NOT NULL, migrationCursor CHAR(36))");
+
+                if (getSchemaVersion(connection) == 0) {
+                    setSchemaVersion(connection, isNewDatabase ? SCHEMA_VERSION : 1);
+                }
 
                 migrateDatabase();
+                createRankingIndexes(connection);
             } catch (SQLException e) {
                 getPlugin().getLogger().log(Level.SEVERE, "Failed to initialize SQL database:", e);
             }
         } catch (SQLException e) {
             getPlugin().getLogger().log(Level.SEVERE, "Failed to initialize SQL database:", e);
         }
+
+        openJournal();
+    }
+
+    private void openJournal() {
+        try {
+            journal = new WriteJournal(getPlugin().getDataFolder().toPath().resolve("storage-journal.log"), getPlugin().getLogger());
+            if (!journal.isEmpty()) {
+                getPlugin().getLogger().info("Found " + journal.size() + " journaled player data writes from the last run. They will be replayed once the database is reachable.");
+            }
+        } catch (IOException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to open the storage journal. Writes are lost while the database is unavailable:", e);
+            return;
+        }
+
+        getPlugin().getAsyncTaskManager().addTask(Bukkit.getScheduler().runTaskTimerAsynchronously(
+                getPlugin(), this::replayJournal, JOURNAL_REPLAY_INTERVAL_TICKS, JOURNAL_REPLAY_INTERVAL_TICKS
+        ));
+    }
+
+    /**
+     * Get the CREATE TABLE statement for the current (v2) hearts schema
+     * @param tableName The name of the table to create
+     * @return The CREATE TABLE statement
+     */
+    private String getCreateHeartsTableStatement(String tableName) {
+        return "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                "uuid " + getBinaryUuidType() + " PRIMARY KEY, " +
+                "name VARCHAR(64) NOT NULL, " +
+                "maxhp FLOAT NOT NULL DEFAULT 20.0, " +
+                "hasbeenRevived SMALLINT NOT NULL DEFAULT 0, " +
+                "craftedHearts SMALLINT UNSIGNED NOT NULL DEFAULT 0, " +
+                "craftedRevives SMALLINT UNSIGNED NOT NULL DEFAULT 0, " +
+                "killedOtherPlayers MEDIUMINT UNSIGNED NOT NULL DEFAULT 0, " +
+                "firstJoin BIGINT UNSIGNED NOT NULL, " +
+                "lifeState TINYINT NOT NULL DEFAULT 0, " +
+                "afterlifeReleaseTime BIGINT NOT NULL DEFAULT 0, " +
+                "prestigeCount SMALLINT UNSIGNED NOT NULL DEFAULT 0, " +
+                "version INTEGER NOT NULL DEFAULT 0" +
+                ")";
+    }
+
+    /**
+     * Get the column type for 16 byte UUIDs, because the binary types differ between databases
+     * @return The column type, e.g. BINARY(16)
+     */
+    protected abstract String getBinaryUuidType();
+
+    /**
+     * Get the statements that replace the hearts table with hearts_v2 and keep the old table as hearts_v1.
+     * They are executed in one transaction. Databases without transactional DDL should return a single atomic statement.
+     * @return The statements to execute
+     */
+    protected String[] getSwapHeartsTableStatements() {
+        return new String[] {
+                "ALTER TABLE hearts RENAME TO hearts_v1",
+                "ALTER TABLE hearts_v2 RENAME TO hearts"
+        };
+    }
+
+    /**
+     * Migrate the hearts table to the newest schema version. Called at the end of {@link #migrateDatabase()},
+     * after the dialect specific column migrations.
+     *
+     * <p>Schema v2 stores UUIDs as 16 bytes instead of 36 characters and the life state as TINYINT.
+     * The rows are copied into a new table in batches. Every batch is committed together with its position,
+     * so an interrupted migration continues where it stopped on the next start.</p>
+     *
+     * @throws IllegalStateException If the migration fails. The storage can't be used then.
+     */
+    protected void migrateSchema() {
+        try (Connection connection = getConnection()) {
+            if (connection == null) return;
+            if (getSchemaVersion(connection) >= SCHEMA_VERSION) return;
+
+            // The tables were swapped, but the server stopped before the version was written
+            if (tableExists(connection, "hearts_v1")) {
+                setSchemaVersion(connection, SCHEMA_VERSION);
+                return;
+            }
+
+            getPlugin().getLogger().info("Migrating 'hearts' table to schema version " + SCHEMA_VERSION + " (binary UUIDs). This may take a while on large databases...");
+            final long startTime = System.currentTimeMillis();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(getCreateHeartsTableStatement("hearts_v2"));
+            }
+
+            String cursor = getMigrationCursor(connection);
+            int migratedRows = 0;
+            while (true) {
+                List<Object[]> rows = readV1Batch(connection, cursor);
+                if (rows.isEmpty()) break;
+
+                cursor = (String) rows.get(rows.size() - 1)[0];
+                writeV2Batch(connection, rows, cursor);
+                migratedRows += rows.size();
+                getPlugin().getLogger().info("Migrated " + migratedRows + " player data entries...");
+            }
+
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : getSwapHeartsTableStatements()) {
+                    statement.executeUpdate(sql);
+                }
+                statement.executeUpdate("UPDATE schema_version SET version = " + SCHEMA_VERSION + ", migrationCursor = NULL");
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+            getPlugin().getLogger().info("Migrated " + migratedRows + " player data entries to schema version " + SCHEMA_VERSION
+                    + " in " + (System.currentTimeMillis() - startTime) + "ms. The old table was kept as 'hearts_v1'.");
+        } catch (SQLException e) {
+            // Continuing would read and write the old table with the new schema's statements
+            throw new IllegalStateException("Failed to migrate database to schema version " + SCHEMA_VERSION, e);
+        }
+    }
+
+    private List<Object[]> readV1Batch(Connection connection, String cursor) throws SQLException {
+        final String sql = "SELECT uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime, prestigeCount, version " +
+                "FROM hearts" + (cursor == null ? "" : " WHERE uuid > ?") + " ORDER BY uuid LIMIT " + MIGRATION_BATCH_SIZE;
+
+        List<Object[]> rows = new ArrayList<>(MIGRATION_BATCH_SIZE);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            if (cursor != null) pstmt.setString(1, cursor);
+
+            try (ResultSet resultSet = pstmt.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(new Object[] {
+                            resultSet.getString("uuid"),
+                            resultSet.getString("name"),
+                            resultSet.getDouble("maxhp"),
+                            resultSet.getInt("hasbeenRevived"),
+                            resultSet.getInt("craftedHearts"),
+                            resultSet.getInt("craftedRevives"),
+                            resultSet.getInt("killedOtherPlayers"),
+                            resultSet.getLong("firstJoin"),
+                            parseLifeState(resultSet.getString("lifeState")).getId(),
+                            resultSet.getLong("afterlifeReleaseTime"),
+                            resultSet.getInt("prestigeCount"),
+                            resultSet.getLong("version")
+                    });
+                }
+            }
+        }
+        return rows;
+    }
+
+    private void writeV2Batch(Connection connection, List<Object[]> rows, String cursor) throws SQLException {
+        final String sql = "INSERT INTO hearts_v2 (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime, prestigeCount, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        connection.setAutoCommit(false);
+        try (
+                PreparedStatement insertStmt = connection.prepareStatement(sql);
+                PreparedStatement cursorStmt = connection.prepareStatement("UPDATE schema_version SET migrationCursor = ?")
+        ) {
+            for (Object[] row : rows) {
+                try {
+                    insertStmt.setBytes(1, uuidToBytes((String) row[0]));
+                } catch (IllegalArgumentException e) {
+                    getPlugin().getLogger().warning("Skipping player data entry with invalid UUID '" + row[0] + "' during migration.");
+                    continue;
+                }
+                insertStmt.setString(2, (String) row[1]);
+                insertStmt.setDouble(3, (double) row[2]);
+                insertStmt.setInt(4, (int) row[3]);
+                insertStmt.setInt(5, (int) row[4]);
+                insertStmt.setInt(6, (int) row[5]);
+                insertStmt.setInt(7, (int) row[6]);
+                insertStmt.setLong(8, (long) row[7]);
+                insertStmt.setInt(9, (int) row[8]);
+                insertStmt.setLong(10, (long) row[9]);
+                insertStmt.setInt(11, (int) row[10]);
+                insertStmt.setLong(12, (long) row[11]);
+                insertStmt.addBatch();
+            }
+            insertStmt.executeBatch();
+
+            cursorStmt.setString(1, cursor);
+            cursorStmt.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private boolean tableExists(Connection connection, String tableName) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getTables(connection.getCatalog(), null, tableName, new String[] {"TABLE"})) {
+            return resultSet.next();
+        }
+    }
+
+    /**
+     * Create the (column, uuid) indexes that leaderboard pages and rank counts read, if they don't exist yet.
+     * The uuid is part of the index so ties can be paged through in index order as well.
+     */
+    private void createRankingIndexes(Connection connection) throws SQLException {
+        Set<String> existingIndexes = new HashSet<>();
+        try (ResultSet resultSet = connection.getMetaData().getIndexInfo(connection.getCatalog(), null, "hearts", false, true)) {
+            while (resultSet.next()) {
+                String indexName = resultSet.getString("INDEX_NAME");
+                if (indexName != null) existingIndexes.add(indexName.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (PlayerDataField field : PlayerDataField.values()) {
+                if (!field.isRanked()) continue;
+
+                String indexName = "idx_hearts_" + field.getColumn().toLowerCase(Locale.ROOT);
+                if (existingIndexes.contains(indexName)) continue;
+
+                statement.executeUpdate("CREATE INDEX " + indexName + " ON hearts (" + field.getColumn() + ", uuid)");
+            }
+        }
+    }
+
+    private int getSchemaVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version FROM schema_version")) {
+            return resultSet.next() ? resultSet.getInt("version") : 0;
+        }
+    }
+
+    private void setSchemaVersion(Connection connection, int version) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (statement.executeUpdate("UPDATE schema_version SET version = " + version) == 0) {
+                statement.executeUpdate("INSERT INTO schema_version (version) VALUES (" + version + ")");
+            }
+        }
+    }
+
+    private String getMigrationCursor(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT migrationCursor FROM schema_version")) {
+            return resultSet.next() ? resultSet.getString("migrationCursor") : null;
+        }
+    }
+
+    /**
+     * Convert a UUID to the 16 bytes that are stored in the database (most significant bits first,
+     * so the binary order matches the order of the string form)
+     */
+    static byte[] uuidToBytes(UUID uuid) {
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    static byte[] uuidToBytes(String uuid) {
+        return uuidToBytes(UUID.fromString(uuid));
+    }
+
+    static UUID uuidFromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * Parse a life state name (as stored in schema v1 and in CSV exports)
+     * @return The life state, or ALIVE if the name is null or unknown
+     */
+    private static LifeState parseLifeState(String name) {
+        if (name == null) return LifeState.ALIVE;
+        try {
+            return LifeState.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            return LifeState.ALIVE;
+        }
     }
 
     public abstract ConnectionPool getConnectionPool();
 
+    @Override
+    protected int getMaxConcurrency() {
+        return getConnectionPool().getMaximumPoolSize();
+    }
+
+    /**
+     * Get the pool of the read replica
+     * @return The replica pool, or null if no replica is configured
+     */
+    public ConnectionPool getReplicaConnectionPool() {
+        return null;
+    }
+
+    /**
+     * Get a connection to the primary database. Fails immediately while the circuit breaker is open.
+     * @return A connection to the primary database
+     * @throws SQLException If the database is unavailable
+     */
     public Connection getConnection() throws SQLException {
-        return getConnectionPool().getConnection();
+        if (!circuitBreaker.allowRequest()) throw new SQLException("The database is unavailable (circuit breaker is open)");
+
+        try {
+            Connection connection = getConnectionPool().getConnection();
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                getPlugin().getLogger().info("The database is reachable again.");
+            }
+            circuitBreaker.recordSuccess();
+            return connection;
+        } catch (SQLException e) {
+            if (circuitBreaker.recordFailure()) {
+                getPlugin().getLogger().warning("The database is unreachable. Player data is saved to a local journal until it recovers: " + e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+
+    /**
+     * Get a connection for read-only queries that can tolerate replication lag.
+     * Uses the read replica if one is configured and reachable, otherwise the primary database.
+     * @return A connection to the replica or the primary database
+     * @throws SQLException If no connection to the primary database could be opened
+     */
+    public Connection getReadConnection() throws SQLException {
+        ConnectionPool replicaPool = getReplicaConnectionPool();
+        if (replicaPool != null && System.currentTimeMillis() >= replicaRetryAt) {
+            try {
+                return replicaPool.getConnection();
+            } catch (SQLException e) {
+                replicaRetryAt = System.currentTimeMillis() + REPLICA_RETRY_DELAY_MILLIS;
+                getPlugin().getLogger().warning("Read replica is unavailable, using the primary database for the next "
+                        + (REPLICA_RETRY_DELAY_MILLIS / 1000) + " seconds: " + e.getMessage());
+            }
+        }
+        return getConnection();
+    }
+
+    @Override
+    public List<PoolStatus> getPoolStatus() {
+        List<PoolStatus> statuses = new ArrayList<>();
+        statuses.add(measurePool("primary", getConnectionPool(), false));
+
+        ConnectionPool replicaPool = getReplicaConnectionPool();
+        if (replicaPool != null) statuses.add(measurePool("replica", replicaPool, true));
+
+        return statuses;
+    }
+
+    private PoolStatus measurePool(String name, ConnectionPool pool, boolean isReplica) {
+        try (Connection connection = pool.getConnection()) {
+            final long start = System.nanoTime();
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+                resultSet.next();
+            }
+            final double latencyMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            return new PoolStatus(name, true, latencyMillis, isReplica ? getReplicaLagSeconds(connection) : null);
+        } catch (SQLException e) {
+            return new PoolStatus(name, false, -1, null);
+        }
+    }
+
+    /**
+     * Get how far the replica behind the given connection is behind its primary
+     * @param connection A connection to the replica
+     * @return The lag in seconds, or null if it is unknown (e.g. missing privileges)
+     */
+    protected Long getReplicaLagSeconds(Connection connection) {
+        return null;
     }
 
     @Override
     public PlayerData load(UUID uuid) {
-        final String sql = "SELECT * FROM hearts WHERE uuid = ?";
+        final String sql = LOAD_STATEMENT;
 
-        try (Connection connection = getConnection()) {
+        // The database does not contain the journaled writes yet
+        if (isJournaling()) {
+            PlayerData sessionData = sessionCache.get(uuid);
+            if (sessionData != null) return sessionData.copy();
+        }
+
+        Connection connection;
+        try {
+            connection = getConnection();
+        } catch (SQLException e) {
+            PlayerData sessionData = sessionCache.get(uuid);
+            if (sessionData != null) return sessionData.copy();
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load player data from SQL database:", e);
+            return null;
+        }
+
+        try (connection) {
             if (connection == null) return null;
 
             try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                statement.setString(1, uuid.toString());
+                statement.setBytes(1, uuidToBytes(uuid));
                 statement.setQueryTimeout(30);
 
                 try (ResultSet resultSet = statement.executeQuery()) {
@@ -75,7 +533,9 @@ public abstract class SQLStorage extends Storage {
                         return newPlayerData;
                     }
 
-                    return mapResultSetToPlayerData(resultSet, uuid);
+                    PlayerData playerData = mapResultSetToPlayerData(resultSet, uuid);
+                    updateSession(playerData);
+                    return playerData;
                 } catch (SQLException e) {
                     getPlugin().getLogger().log(Level.SEVERE, "Failed to load player data from SQL database:", e);
                     return null;
@@ -98,381 +558,1352 @@ public abstract class SQLStorage extends Storage {
         playerData.setCraftedRevives(resultSet.getInt("craftedRevives"));
         playerData.setKilledOtherPlayers(resultSet.getInt("killedOtherPlayers"));
         playerData.setFirstJoin(resultSet.getLong("firstJoin"));
-        
-        // Load afterlife fields
-        try {
-            String lifeStateStr = resultSet.getString("lifeState");
-            playerData.setLifeState(com.zetaplugins.lifestealz.afterlife.LifeState.valueOf(lifeStateStr));
-        } catch (Exception e) {
-            playerData.setLifeState(com.zetaplugins.lifestealz.afterlife.LifeState.ALIVE);
+
+        playerData.setLifeState(LifeState.fromId(resultSet.getInt("lifeState")));
+        playerData.setAfterlifeReleaseTime(resultSet.getLong("afterlifeReleaseTime"));
+        playerData.setPrestigeCount(resultSet.getInt("prestigeCount"));
+        playerData.setVersion(resultSet.getLong("version"));
+
+        playerData.clearModifiedFields();
+        return playerData;
+    }
+
+    @Override
+    public OptionalLong loadLong(UUID uuid, PlayerDataField field) {
+        if (!field.isNumeric()) throw new IllegalArgumentException("Field is not numeric: " + field);
+
+        try (Connection connection = getConnection()) {
+            if (connection == null) return OptionalLong.empty();
+
+            try (PreparedStatement statement = connection.prepareStatement(FIELD_STATEMENTS[field.ordinal()])) {
+                statement.setBytes(1, uuidToBytes(uuid));
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? OptionalLong.of(resultSet.getLong(1)) : OptionalLong.empty();
+                }
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load " + field.getColumn() + " from SQL database:", e);
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public OptionalDouble loadDouble(UUID uuid, PlayerDataField field) {
+        if (!field.isNumeric()) throw new IllegalArgumentException("Field is not numeric: " + field);
+
+        try (Connection connection = getConnection()) {
+            if (connection == null) return OptionalDouble.empty();
+
+            try (PreparedStatement statement = connection.prepareStatement(FIELD_STATEMENTS[field.ordinal()])) {
+                statement.setBytes(1, uuidToBytes(uuid));
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? OptionalDouble.of(resultSet.getDouble(1)) : OptionalDouble.empty();
+                }
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load " + field.getColumn() + " from SQL database:", e);
+            return OptionalDouble.empty();
+        }
+    }
+
+    @Override
+    public void save(PlayerData playerData) {
+        // This uses standard SQL syntax to work with all SQL databases, but may not be optimal for all (e.g. H2 or MySQL)
+        if (!playerData.hasChanges()) return;
+
+        // Writes are journaled while older journaled writes are pending, so they are applied in order
+        if (isJournaling()) {
+            journalWrite(playerData);
+            return;
         }
+
+        Connection connection;
         try {
-            playerData.setAfterlifeReleaseTime(resultSet.getLong("afterlifeReleaseTime"));
-        } catch (Exception e) {
-            playerData.setAfterlifeReleaseTime(0L);
+            connection = getConnection();
+        } catch (SQLException e) {
+            journalWrite(playerData);
+            return;
         }
+
+        try (connection) {
+            boolean exists = checkIfEntryExists(connection, playerData.getUuid());
+
+            boolean saved = exists ? updatePlayerData(connection, playerData) : insertPlayerData(connection, playerData);
+            if (saved) updateSession(playerData);
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to save player data:", e);
+        }
+    }
+
+    @Override
+    public void shutdownExecutor(long timeoutMillis) {
+        super.shutdownExecutor(timeoutMillis);
+        if (journal == null) return;
+
         try {
-            playerData.setPrestigeCount(resultSet.getInt("prestigeCount"));
-        } catch (Exception e) {
-            playerData.setPrestigeCount(0);
+            journal.close(timeoutMillis);
+        } catch (IOException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to close the storage journal:", e);
         }
-        
-        playerData.clearModifiedFields();
-        return playerData;
     }
 
     @Override
-    public void save(PlayerData playerData) {
-        // This uses standard SQL syntax to work with all SQL databases, but may not be optimal for all (e.g. H2 or MySQL)
-        if (!playerData.hasChanges()) return;
+    public void endSession(UUID uuid) {
+        // Keep the data while the database is unavailable, so the player can rejoin
+        if (isJournaling()) return;
+        sessionCache.remove(uuid);
+    }
+
+    /**
+     * Store a copy of the player data in the session cache if the player is online or already cached,
+     * and notify the listeners about the current data
+     */
+    private void updateSession(PlayerData playerData) {
+        UUID uuid = UUID.fromString(playerData.getUuid());
+        PlayerData sessionData = playerData.copy();
+        sessionData.clearModifiedFields();
+
+        if (sessionCache.containsKey(uuid) || Bukkit.getPlayer(uuid) != null) sessionCache.put(uuid, sessionData);
+        notifyPlayerDataChanged(sessionData);
+    }
+
+    /**
+     * Drop the cached data of a player that was changed in the database directly
+     */
+    private void invalidateSession(UUID uuid) {
+        if (!hasPendingWrites()) sessionCache.remove(uuid);
+        notifyPlayerDataInvalidated(uuid);
+    }
+
+    /**
+     * Drop the cached data of all players after a bulk change in the database
+     */
+    private void invalidateAllSessions() {
+        if (!hasPendingWrites()) sessionCache.clear();
+        notifyAllPlayerDataInvalidated();
+    }
+
+    private boolean hasPendingWrites() {
+        return journal != null && !journal.isEmpty();
+    }
+
+    /**
+     * Check if writes have to go to the journal. While journaled writes are pending, later writes are journaled too,
+     * so they never overtake journaled ones (a replayed journal entry would overwrite them with older values).
+     * @return True if the database is unavailable or journaled writes are still pending
+     */
+    private boolean isJournaling() {
+        return hasPendingWrites() || !isAvailable();
+    }
+
+    /**
+     * Write the modified fields of a player to the local journal instead of the database.
+     * The data is kept in the session cache until the journal is replayed, so loads see the journaled values.
+     * @return True if the write was journaled
+     */
+    private boolean journalWrite(PlayerData playerData) {
+        if (journal == null) {
+            getPlugin().getLogger().severe("Failed to save player data of " + playerData.getName() + ": the database is unavailable and the journal is not open.");
+            return false;
+        }
+
+        final UUID uuid = UUID.fromString(playerData.getUuid());
+        final PlayerData sessionData;
+        synchronized (journalLock) {
+            try {
+                journal.append(toJournalEntry(playerData));
+            } catch (IOException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to write player data to the journal:", e);
+                return false;
+            }
+
+            // Journaled saves count as a new version as well, so optimistic saves of older data fail
+            PlayerData previousData = sessionCache.get(uuid);
+            playerData.setVersion(Math.max(playerData.getVersion(), previousData != null ? previousData.getVersion() : 0) + 1);
+            sessionData = playerData.copy();
+            sessionData.clearModifiedFields();
+            sessionCache.put(uuid, sessionData);
+            playerData.clearModifiedFields();
+        }
+        notifyPlayerDataChanged(sessionData);
+        return true;
+    }
+
+    /**
+     * Get the current data of a player while writes are journaled: the session copy if there is one, otherwise the stored data
+     * @return A copy of the data, or null if the player is not cached and the database is unavailable
+     */
+    private PlayerData loadForJournal(UUID uuid) {
+        PlayerData sessionData = sessionCache.get(uuid);
+        if (sessionData != null) return sessionData.copy();
+        return isAvailable() ? load(uuid) : null;
+    }
+
+    /**
+     * Apply a delta to the session copy of a player and journal the result, while the database can't be written directly
+     */
+    private Double applyJournaledDelta(UUID uuid, PlayerDataField field, double delta, double min, double max) {
+        synchronized (journalLock) {
+            PlayerData playerData = loadForJournal(uuid);
+            if (playerData == null) {
+                getPlugin().getLogger().warning("Failed to change " + field.getColumn() + " of " + uuid + ": the database is unavailable and the player is not cached.");
+                return null;
+            }
+
+            double newValue = Math.max(min, Math.min(max, playerData.getStoredValue(field) + delta));
+            playerData.setStoredValue(field, newValue);
+            playerData.setModifiedMask(playerData.getModifiedMask() | (1 << field.ordinal()));
+            return journalWrite(playerData) ? newValue : null;
+        }
+    }
+
+    /**
+     * Journal an optimistic save if the player was not changed since the data was loaded, while the database can't be written directly
+     */
+    private boolean saveJournaledIfUnchanged(PlayerData playerData) {
+        synchronized (journalLock) {
+            PlayerData sessionData = sessionCache.get(UUID.fromString(playerData.getUuid()));
+            if (sessionData != null && sessionData.getVersion() != playerData.getVersion()) return false;
+            return journalWrite(playerData);
+        }
+    }
+
+    /**
+     * Replay the journaled writes in order. Stops at the first write that fails and continues on the next call.
+     */
+    private void replayJournal() {
+        if (!hasPendingWrites() || !replayingJournal.compareAndSet(false, true)) return;
+
+        try (Connection connection = getConnection()) {
+            int replayed = 0;
+            String entry;
+            while ((entry = journal.peek()) != null) {
+                PlayerData playerData = fromJournalEntry(entry);
+                if (playerData != null) {
+                    boolean exists = checkIfEntryExists(connection, playerData.getUuid());
+                    boolean saved = exists ? updatePlayerData(connection, playerData) : insertPlayerData(connection, playerData);
+                    if (!saved) break;
+                    replayed++;
+                } else {
+                    getPlugin().getLogger().warning("Skipping invalid journal entry: " + entry);
+                }
+                journal.remove();
+            }
+
+            if (replayed > 0) {
+                getPlugin().getLogger().info("Replayed " + replayed + " journaled player data writes. " + journal.size() + " remaining.");
+            }
+            // Journaled data of offline players was only kept until it reached the database
+            if (!hasPendingWrites()) sessionCache.keySet().removeIf(uuid -> Bukkit.getPlayer(uuid) == null);
+        } catch (SQLException e) {
+            // Still unavailable, try again on the next run
+        } catch (IOException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to update the journal:", e);
+        } finally {
+            replayingJournal.set(false);
+        }
+    }
+
+    private static String toJournalEntry(PlayerData playerData) {
+        return String.join(JOURNAL_SEPARATOR,
+                playerData.getUuid(),
+                playerData.getName(),
+                String.valueOf(playerData.getModifiedMask()),
+                String.valueOf(playerData.getMaxHealth()),
+                String.valueOf(playerData.getHasBeenRevived()),
+                String.valueOf(playerData.getCraftedHearts()),
+                String.valueOf(playerData.getCraftedRevives()),
+                String.valueOf(playerData.getKilledOtherPlayers()),
+                String.valueOf(playerData.getFirstJoin()),
+                String.valueOf(playerData.getLifeState().getId()),
+                String.valueOf(playerData.getAfterlifeReleaseTime()),
+                String.valueOf(playerData.getPrestigeCount())
+        );
+    }
+
+    /**
+     * @return The player data with the journaled fields marked as modified, or null if the entry is invalid
+     */
+    private static PlayerData fromJournalEntry(String entry) {
+        String[] data = entry.split(JOURNAL_SEPARATOR);
+        if (data.length != 12) return null;
+
+        try {
+            PlayerData playerData = new PlayerData(data[1], UUID.fromString(data[0]));
+            playerData.setMaxHealth(Double.parseDouble(data[3]));
+            playerData.setHasBeenRevived(Integer.parseInt(data[4]));
+            playerData.setCraftedHearts(Integer.parseInt(data[5]));
+            playerData.setCraftedRevives(Integer.parseInt(data[6]));
+            playerData.setKilledOtherPlayers(Integer.parseInt(data[7]));
+            playerData.setFirstJoin(Long.parseLong(data[8]));
+            playerData.setLifeState(LifeState.fromId(Integer.parseInt(data[9])));
+            playerData.setAfterlifeReleaseTime(Long.parseLong(data[10]));
+            playerData.setPrestigeCount(Integer.parseInt(data[11]));
+            // The setters only mark fields that differ from the defaults, so restore the journaled mask
+            playerData.setModifiedMask(Integer.parseInt(data[2]));
+            return playerData;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public boolean saveIfUnchanged(PlayerData playerData) {
+        if (!playerData.hasChanges()) return true;
+        if (isJournaling()) return saveJournaledIfUnchanged(playerData);
+
+        Connection connection;
+        try {
+            connection = getConnection();
+        } catch (SQLException e) {
+            return saveJournaledIfUnchanged(playerData);
+        }
+
+        try (connection) {
+            if (connection == null) return false;
+
+            boolean saved = checkIfEntryExists(connection, playerData.getUuid())
+                    ? updatePlayerData(connection, playerData, true)
+                    : insertPlayerData(connection, playerData);
+            if (saved) updateSession(playerData);
+            return saved;
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to save player data:", e);
+            return false;
+        }
+    }
+
+    @Override
+    public Double applyDelta(UUID uuid, PlayerDataField field, double delta, double min, double max) {
+        if (!field.isDeltaField()) throw new IllegalArgumentException("Invalid numeric field: " + field);
+
+        final String column = field.getColumn();
+        final String updateQuery = "UPDATE hearts SET " + column + " = CASE"
+                + " WHEN " + column + " + ? < ? THEN ?"
+                + " WHEN " + column + " + ? > ? THEN ?"
+                + " ELSE " + column + " + ? END, version = version + 1 WHERE uuid = ?";
+        final String selectQuery = "SELECT " + column + " FROM hearts WHERE uuid = ?";
+
+        if (isJournaling()) return applyJournaledDelta(uuid, field, delta, min, max);
+
+        Connection connection;
+        try {
+            connection = getConnection();
+        } catch (SQLException e) {
+            return applyJournaledDelta(uuid, field, delta, min, max);
+        }
+
+        try (connection) {
+            if (connection == null) return null;
+
+            // The row lock of the update is held until the commit, so the select reads exactly the value written by this update
+            connection.setAutoCommit(false);
+            try (
+                    PreparedStatement updateStmt = connection.prepareStatement(updateQuery);
+                    PreparedStatement selectStmt = connection.prepareStatement(selectQuery)
+            ) {
+                updateStmt.setDouble(1, delta);
+                updateStmt.setDouble(2, min);
+                updateStmt.setDouble(3, min);
+                updateStmt.setDouble(4, delta);
+                updateStmt.setDouble(5, max);
+                updateStmt.setDouble(6, max);
+                updateStmt.setDouble(7, delta);
+                updateStmt.setBytes(8, uuidToBytes(uuid));
+
+                if (updateStmt.executeUpdate() == 0) {
+                    connection.rollback();
+                    return null;
+                }
+
+                selectStmt.setBytes(1, uuidToBytes(uuid));
+                Double newValue = null;
+                try (ResultSet resultSet = selectStmt.executeQuery()) {
+                    if (resultSet.next()) newValue = resultSet.getDouble(1);
+                }
+
+                logChange(connection, uuid.toString(), List.of(column));
+                connection.commit();
+                invalidateSession(uuid);
+                return newValue;
+            } catch (SQLException e) {
+                connection.rollback();
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to apply delta to player data:", e);
+                return null;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to apply delta to player data:", e);
+            return null;
+        }
+    }
+
+    /**
+     * Check if a player entry exists in the database
+     * @param connection Connection to the database
+     * @param uuid UUID of the player to check
+     * @return True if the player entry exists, false otherwise
+     */
+    private boolean checkIfEntryExists(Connection connection, String uuid) {
+        final String selectQuery = "SELECT 1 FROM hearts WHERE uuid = ?";
+
+        try (PreparedStatement selectStmt = connection.prepareStatement(selectQuery);) {
+            selectStmt.setBytes(1, uuidToBytes(uuid));
+            try (ResultSet resultSet = selectStmt.executeQuery()) {
+                return resultSet.next();
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to check if player entry exists:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Insert player data into the database
+     * @param connection Connection to the database
+     * @param playerData Player data to insert
+     * @return True if the insert was successful, false otherwise
+     */
+    private boolean insertPlayerData(Connection connection, PlayerData playerData) {
+        final String insertQuery = "INSERT INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime, prestigeCount) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement insertStmt = connection.prepareStatement(insertQuery)) {
+            insertStmt.setBytes(1, uuidToBytes(playerData.getUuid()));
+            insertStmt.setString(2, playerData.getName());
+            insertStmt.setDouble(3, playerData.getMaxHealth());
+            insertStmt.setInt(4, playerData.getHasBeenRevived());
+            insertStmt.setInt(5, playerData.getCraftedHearts());
+            insertStmt.setInt(6, playerData.getCraftedRevives());
+            insertStmt.setInt(7, playerData.getKilledOtherPlayers());
+            insertStmt.setLong(8, playerData.getFirstJoin());
+            insertStmt.setInt(9, playerData.getLifeState().getId());
+            insertStmt.setLong(10, playerData.getAfterlifeReleaseTime());
+            insertStmt.setInt(11, playerData.getPrestigeCount());
+            writeWithChangeLog(connection, () -> {
+                insertStmt.executeUpdate();
+                logChange(connection, playerData.getUuid(), List.of(ChangeLogEntry.INSERTED));
+                return true;
+            });
+            playerData.clearModifiedFields();
+
+            return true;
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to insert player data:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Update player data in the database
+     * @param connection Connection to the database
+     * @param playerData Player data to update
+     * @return True if the update was successful, false otherwise
+     */
+    private boolean updatePlayerData(Connection connection, PlayerData playerData) {
+        return updatePlayerData(connection, playerData, false);
+    }
+
+    /**
+     * Update player data in the database
+     * @param connection Connection to the database
+     * @param playerData Player data to update
+     * @param checkVersion If true, the row is only updated if its version still matches the loaded version
+     * @return True if the row was updated, false otherwise
+     */
+    private boolean updatePlayerData(Connection connection, PlayerData playerData, boolean checkVersion) {
+        final int modifiedMask = playerData.getModifiedMask();
+
+        try (PreparedStatement updateStmt = connection.prepareStatement(getUpdateStatement(modifiedMask, checkVersion))) {
+            int index = bindModifiedFields(updateStmt, playerData, modifiedMask);
+            updateStmt.setBytes(index++, uuidToBytes(playerData.getUuid()));
+            if (checkVersion) updateStmt.setLong(index, playerData.getVersion());
+
+            boolean updated = writeWithChangeLog(connection, () -> {
+                if (updateStmt.executeUpdate() == 0) return false;
+                logChange(connection, playerData.getUuid(), PlayerData.getColumnNames(modifiedMask));
+                return true;
+            });
+            if (!updated) return false;
+
+            playerData.clearModifiedFields();
+            playerData.setVersion(playerData.getVersion() + 1);
+            return true;
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to update player data:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Get the UPDATE statement for a combination of modified fields. The statements are built once and then reused,
+     * so the same SQL string is passed to the driver (and its statement cache) for the same combination.
+     * @param modifiedMask The bitmask of modified fields
+     * @param checkVersion If the statement should only update the row if its version matches
+     * @return The UPDATE statement
+     */
+    static String getUpdateStatement(int modifiedMask, boolean checkVersion) {
+        final int key = (modifiedMask << 1) | (checkVersion ? 1 : 0);
+        String sql = UPDATE_STATEMENTS[key];
+        if (sql != null) return sql;
+
+        StringBuilder updateQuery = new StringBuilder("UPDATE hearts SET ");
+        for (int bit = 0; bit < PlayerData.FIELD_COUNT; bit++) {
+            if ((modifiedMask & (1 << bit)) != 0) updateQuery.append(PlayerData.COLUMNS[bit]).append(" = ?, ");
+        }
+        updateQuery.append("version = version + 1 WHERE uuid = ?");
+        if (checkVersion) updateQuery.append(" AND version = ?");
+
+        // Racing threads build the same string, so an unsynchronized write is fine
+        sql = updateQuery.toString();
+        UPDATE_STATEMENTS[key] = sql;
+        return sql;
+    }
+
+    /**
+     * Bind the values of the modified fields to an UPDATE statement from {@link #getUpdateStatement(int, boolean)}
+     * @param statement The statement to bind the values to
+     * @param playerData The player data to read the values from
+     * @param modifiedMask The bitmask of modified fields
+     * @return The index of the next parameter (the uuid)
+     * @throws SQLException If a value can't be bound
+     */
+    static int bindModifiedFields(PreparedStatement statement, PlayerData playerData, int modifiedMask) throws SQLException {
+        int index = 1;
+        for (int bit = 0; bit < PlayerData.FIELD_COUNT; bit++) {
+            int field = 1 << bit;
+            if ((modifiedMask & field) == 0) continue;
+
+            switch (field) {
+                case PlayerData.MAX_HEALTH -> statement.setDouble(index++, playerData.getMaxHealth());
+                case PlayerData.HAS_BEEN_REVIVED -> statement.setInt(index++, playerData.getHasBeenRevived());
+                case PlayerData.CRAFTED_HEARTS -> statement.setInt(index++, playerData.getCraftedHearts());
+                case PlayerData.CRAFTED_REVIVES -> statement.setInt(index++, playerData.getCraftedRevives());
+                case PlayerData.KILLED_OTHER_PLAYERS -> statement.setInt(index++, playerData.getKilledOtherPlayers());
+                case PlayerData.FIRST_JOIN -> statement.setLong(index++, playerData.getFirstJoin());
+                case PlayerData.LIFE_STATE -> statement.setInt(index++, playerData.getLifeState().getId());
+                case PlayerData.AFTERLIFE_RELEASE_TIME -> statement.setLong(index++, playerData.getAfterlifeReleaseTime());
+                case PlayerData.PRESTIGE_COUNT -> statement.setInt(index++, playerData.getPrestigeCount());
+                default -> throw new IllegalStateException("Unknown field bit: " + field);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public PlayerData load(String uuid) {
+        return load(UUID.fromString(uuid));
+    }
+
+    @Override
+    public List<UUID> getEliminatedPlayers() {
+        List<UUID> eliminatedPlayers = new ArrayList<>();
+
+        int minHearts = getPlugin().getConfig().getInt("minHearts");
+
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return eliminatedPlayers;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(30);
+
+                ResultSet resultSet = statement.executeQuery("SELECT uuid FROM hearts WHERE maxhp <= " + minHearts * 2 + ".0");
+
+                while (resultSet.next()) {
+                    eliminatedPlayers.add(uuidFromBytes(resultSet.getBytes("uuid")));
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+        }
+
+        return eliminatedPlayers;
+    }
+
+
+    @Override
+    public String export(String fileName) {
+        String filePath = getPlugin().getDataFolder().getPath() + "/" + fileName + ".csv";
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return null;
+
+            try (Statement statement = connection.createStatement()) {
+                ResultSet resultSet = statement.executeQuery("SELECT * FROM hearts");
+
+                try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+                    while (resultSet.next()) {
+                        String line = uuidFromBytes(resultSet.getBytes("uuid")) + CSV_SEPARATOR +
+                                resultSet.getString("name") + CSV_SEPARATOR +
+                                resultSet.getDouble("maxhp") + CSV_SEPARATOR +
+                                resultSet.getInt("hasbeenRevived") + CSV_SEPARATOR +
+                                resultSet.getInt("craftedHearts") + CSV_SEPARATOR +
+                                resultSet.getInt("craftedRevives") + CSV_SEPARATOR +
+                                resultSet.getInt("killedOtherPlayers") + CSV_SEPARATOR +
+                                resultSet.getLong("firstJoin") + CSV_SEPARATOR +
+                                LifeState.fromId(resultSet.getInt("lifeState")).name() + CSV_SEPARATOR +
+                                resultSet.getLong("afterlifeReleaseTime");
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+            } catch (SQLException | IOException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to export player data to CSV file:", e);
+                return null;
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to export player data to CSV file:", e);
+            return null;
+        }
+        return filePath;
+    }
+
+    protected abstract String getInserOrReplaceStatement();
+
+    @Override
+    public void importData(String fileName) {
+        String filePath = getPlugin().getDataFolder().getPath() + "/" + fileName;
+        long startTime = System.currentTimeMillis();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(filePath));
+             Connection connection = getConnection()) {
+
+            if (connection == null) return;
+
+            // We are disabling auto-commit to insert all data in a single transaction to improve performance
+            connection.setAutoCommit(false);
+
+            String sql = getInserOrReplaceStatement();// use db specific insert or replace statement
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                String line;
+                int batchSize = 0;
+                int totalRows = 0;
+                while ((line = reader.readLine()) != null) {
+                    String[] data = line.split(CSV_SEPARATOR);
+
+                    if (data.length != 10) {
+                        getPlugin().getLogger().severe("Invalid CSV format. Expected 10 columns, but got " + data.length);
+                        continue;
+                    }
+
+                    totalRows++;
+
+                    statement.setBytes(1, uuidToBytes(data[0]));  // uuid
+                    statement.setString(2, data[1]);  // name
+                    statement.setDouble(3, Double.parseDouble(data[2])); // maxhp
+                    statement.setInt(4, Integer.parseInt(data[3])); // hasbeenRevived
+                    statement.setInt(5, Integer.parseInt(data[4])); // craftedHearts
+                    statement.setInt(6, Integer.parseInt(data[5])); // craftedRevives
+                    statement.setInt(7, Integer.parseInt(data[6])); // killedOtherPlayers
+                    statement.setLong(8, Long.parseLong(data[7])); // firstJoin
+                    statement.setInt(9, parseLifeState(data[8]).getId()); // lifeState
+                    statement.setLong(10, Long.parseLong(data[9])); // afterlifeReleaseTime
+
+                    statement.addBatch();
+                    batchSize++;
+
+                    // Execute batch every 500 inserts
+                    if (batchSize % 500 == 0) {
+                        getPlugin().getLogger().info("Imported " + totalRows + " player data entries. Committing batch...");
+                        statement.executeBatch();
+                    }
+                }
+                statement.executeBatch();
+
+                logChange(connection, ChangeLogEntry.ALL_PLAYERS, List.of(ChangeLogEntry.ALL_PLAYERS));
+                connection.commit();
+                invalidateAllSessions();
+
+                long endTime = System.currentTimeMillis();
+                getPlugin().getLogger().info("Imported " + totalRows + " player data entries in " + (endTime - startTime) + "ms");
+
+            } catch (SQLException e) {
+                connection.rollback();
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to import player data:", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+
+        } catch (IOException | SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to read CSV file:", e);
+        }
+    }
+
+    @Override
+    public List<UUID> reviveAllPlayers(int minHearts, int reviveHearts, int maxRevives, boolean bypassReviveLimit) {
+        List<UUID> revivedPlayers = new ArrayList<>();
+
+        final boolean checkReviveLimit = !bypassReviveLimit && maxRevives >= 0;
+
+        String selectSql = "SELECT uuid, maxhp FROM hearts WHERE maxhp <= ? AND (hasbeenRevived < ?)";
+        String updateSql = "UPDATE hearts SET maxhp = ?, hasbeenRevived = hasbeenRevived + 1 WHERE uuid = ? AND maxhp <= ? AND (hasbeenRevived < ?)";
+
+        if (!checkReviveLimit) {
+            selectSql = "SELECT uuid, maxhp FROM hearts WHERE maxhp <= ?";
+            updateSql = "UPDATE hearts SET maxhp = ?, hasbeenRevived = hasbeenRevived + 1 WHERE uuid = ? AND maxhp <= ?";
+        }
+
+        try (Connection connection = getConnection()) {
+            if (connection == null) return revivedPlayers;
+
+            List<UUID> candidates = new ArrayList<>();
+            List<Double> candidateHealth = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+                pstmt.setDouble(1, minHearts * 2);
+                if (checkReviveLimit) pstmt.setInt(2, maxRevives);
+
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        candidates.add(uuidFromBytes(resultSet.getBytes("uuid")));
+                        candidateHealth.add(resultSet.getDouble("maxhp"));
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) return revivedPlayers;
+
+            // The conditions are checked again per row, so players that changed in the meantime are skipped
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = connection.prepareStatement(updateSql)) {
+                for (UUID uuid : candidates) {
+                    pstmt.setDouble(1, reviveHearts * 2);
+                    pstmt.setBytes(2, uuidToBytes(uuid));
+                    pstmt.setDouble(3, minHearts * 2);
+                    if (checkReviveLimit) pstmt.setInt(4, maxRevives);
+                    pstmt.addBatch();
+                }
+
+                int[] results = pstmt.executeBatch();
+
+                List<HeartTransaction> transactions = new ArrayList<>();
+                final long now = System.currentTimeMillis();
+                for (int i = 0; i < results.length; i++) {
+                    // SUCCESS_NO_INFO means the driver doesn't report the count, so the row is assumed to be updated
+                    if (results[i] > 0 || results[i] == Statement.SUCCESS_NO_INFO) {
+                        revivedPlayers.add(candidates.get(i));
+                        transactions.add(new HeartTransaction(now, candidates.get(i), reviveHearts * 2 - candidateHealth.get(i), HeartChangeCause.REVIVE, null));
+                    }
+                }
+                if (heartLedgerEnabled) insertHeartTransactions(connection, transactions);
+
+                for (UUID uuid : revivedPlayers) {
+                    logChange(connection, uuid.toString(), List.of("maxhp", "hasbeenRevived"));
+                }
+                connection.commit();
+                revivedPlayers.forEach(this::invalidateSession);
+            } catch (SQLException e) {
+                connection.rollback();
+                revivedPlayers.clear();
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to revive all players in SQL database:", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to revive all players in SQL database:", e);
+        }
+
+        return revivedPlayers;
+    }
+
+    @Override
+    public List<String> getPlayerNames() {
+        List<String> playerNames = new ArrayList<>();
+
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return playerNames;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(30);
+
+                ResultSet resultSet = statement.executeQuery("SELECT name FROM hearts");
+
+                while (resultSet.next()) {
+                    playerNames.add(resultSet.getString("name"));
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to load player names from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load player names from SQL database:", e);
+        }
+
+        return playerNames;
+    }
+
+    @Override
+    public List<String> getEliminatedPlayerNames() {
+        List<String> eliminatedPlayerNames = new ArrayList<>();
+
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return eliminatedPlayerNames;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(30);
+
+                ResultSet resultSet = statement.executeQuery("SELECT name FROM hearts WHERE maxhp <= 0.0");
+
+                while (resultSet.next()) {
+                    eliminatedPlayerNames.add(resultSet.getString("name"));
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+        }
+
+        return eliminatedPlayerNames;
+    }
+
+    @Override
+    public Map<UUID, String> getEliminatedPlayersWithNames() {
+        Map<UUID, String> eliminatedPlayers = new LinkedHashMap<>();
+
+        int minHearts = getPlugin().getConfig().getInt("minHearts");
+
+        try (Connection connection = getConnection()) {
+            if (connection == null) return eliminatedPlayers;
+
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT uuid, name FROM hearts WHERE maxhp <= ?")) {
+                pstmt.setQueryTimeout(30);
+                pstmt.setDouble(1, minHearts * 2);
+
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        eliminatedPlayers.put(uuidFromBytes(resultSet.getBytes("uuid")), resultSet.getString("name"));
+                    }
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+        }
+
+        return eliminatedPlayers;
+    }
+
+    @Override
+    public int updateAllHearts(HeartsOperation operation, double health, double eliminatedHealth, double maxHealth) {
+        final boolean capped = maxHealth > 0;
+        final List<Double> parameters = new ArrayList<>();
+        final String newValue;
+        // Only players above this max health are changed
+        double floor = eliminatedHealth;
+
+        // CASE instead of LEAST/GREATEST (MySQL) or MIN/MAX (SQLite), so this works for every dialect
+        switch (operation) {
+            case ADD:
+                if (capped) {
+                    // Players that are already above the limit keep their hearts
+                    newValue = "CASE WHEN maxhp >= ? THEN maxhp WHEN maxhp + ? > ? THEN ? ELSE maxhp + ? END";
+                    parameters.addAll(List.of(maxHealth, health, maxHealth, maxHealth, health));
+                } else {
+                    newValue = "maxhp + ?";
+                    parameters.add(health);
+                }
+                break;
+            case SET:
+                if (capped && health > maxHealth) throw new IllegalArgumentException("Health is above the limit: " + health);
+                newValue = "?";
+                parameters.add(health);
+                break;
+            case REMOVE:
+                // Never eliminate a player through this, keep at least one heart above the elimination threshold
+                double minHealth = eliminatedHealth + 2;
+                newValue = "CASE WHEN maxhp - ? < ? THEN ? ELSE maxhp - ? END";
+                parameters.addAll(List.of(health, minHealth, minHealth, health));
+                // Players that are already below the minimum keep their hearts instead of being raised to it
+                floor = minHealth;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid operation: " + operation);
+        }
+        parameters.add(floor);
+
+        final String sql = "UPDATE hearts SET maxhp = " + newValue + " WHERE maxhp > ?";
+
+        // A bulk update can't be journaled, and journaled writes replayed after it would overwrite it with older values
+        if (hasPendingWrites() && isAvailable()) replayJournal();
+        if (isJournaling()) {
+            getPlugin().getLogger().warning("Failed to update hearts in SQL database: the database is unavailable or journaled writes are still pending.");
+            return -1;
+        }
+
+        try (Connection connection = getConnection()) {
+            if (connection == null) return 0;
+
+            connection.setAutoCommit(false);
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                if (heartLedgerEnabled) recordBulkHeartChanges(connection, newValue, parameters);
+
+                for (int i = 0; i < parameters.size(); i++) {
+                    pstmt.setDouble(i + 1, parameters.get(i));
+                }
+                int affectedPlayers = pstmt.executeUpdate();
+                logChange(connection, ChangeLogEntry.ALL_PLAYERS, List.of("maxhp"));
+                connection.commit();
+                invalidateAllSessions();
+                return affectedPlayers;
+            } catch (SQLException e) {
+                connection.rollback();
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to update hearts in SQL database:", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to update hearts in SQL database:", e);
+        }
+
+        return 0;
+    }
+
+    /**
+     * Write a ledger entry for every player that a bulk hearts update changes, computed by the database before the update
+     * @param newValue The SQL expression of the new max health
+     * @param parameters The parameters of the new value expression, followed by the max health that players must be above to be changed
+     */
+    private void recordBulkHeartChanges(Connection connection, String newValue, List<Double> parameters) throws SQLException {
+        final List<Double> newValueParameters = parameters.subList(0, parameters.size() - 1);
+        final String sql = "INSERT INTO heart_ledger (ts, uuid, delta, cause, counterparty) "
+                + "SELECT ?, uuid, (" + newValue + ") - maxhp, ?, NULL FROM hearts WHERE maxhp > ? AND (" + newValue + ") <> maxhp";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setLong(index++, System.currentTimeMillis());
+            for (double parameter : newValueParameters) pstmt.setDouble(index++, parameter);
+            pstmt.setString(index++, HeartChangeCause.ADMIN.name());
+            pstmt.setDouble(index++, parameters.get(parameters.size() - 1));
+            for (double parameter : newValueParameters) pstmt.setDouble(index++, parameter);
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Override
+    public Map<UUID, Integer> getPrestigeCountsPage(String afterUuid, int limit) {
+        Map<UUID, Integer> prestigeCounts = new LinkedHashMap<>();
+
+        // Binary UUIDs sort in the same order as their string form
+        final String sql = afterUuid == null
+                ? "SELECT uuid, prestigeCount FROM hearts WHERE prestigeCount > 0 ORDER BY uuid LIMIT ?"
+                : "SELECT uuid, prestigeCount FROM hearts WHERE prestigeCount > 0 AND uuid > ? ORDER BY uuid LIMIT ?";
+
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return prestigeCounts;
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (afterUuid != null) statement.setBytes(index++, uuidToBytes(afterUuid));
+                statement.setInt(index, limit);
+                statement.setQueryTimeout(30);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        prestigeCounts.put(uuidFromBytes(resultSet.getBytes("uuid")), resultSet.getInt("prestigeCount"));
+                    }
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to load prestige counts from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load prestige counts from SQL database:", e);
+        }
+
+        return prestigeCounts;
+    }
+
+    @Override
+    public List<RankedPlayer> getRankedPlayersPage(PlayerDataField field, RankedPlayer after, int limit) {
+        if (!field.isRanked()) throw new IllegalArgumentException("Players cannot be ranked by " + field);
+        List<RankedPlayer> players = new ArrayList<>(limit);
+
+        final String column = field.getColumn();
+        // The redundant "column <= ?" turns the keyset condition into an index range
+        final String sql = after == null
+                ? "SELECT uuid, name, " + column + " FROM hearts ORDER BY " + column + " DESC, uuid DESC LIMIT ?"
+                : "SELECT uuid, name, " + column + " FROM hearts WHERE " + column + " <= ? AND (" + column + " < ? OR uuid < ?) "
+                        + "ORDER BY " + column + " DESC, uuid DESC LIMIT ?";
+
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return players;
+
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int index = 1;
+                if (after != null) {
+                    statement.setDouble(index++, after.value());
+                    statement.setDouble(index++, after.value());
+                    statement.setBytes(index++, uuidToBytes(after.uuid()));
+                }
+                statement.setInt(index, limit);
+                statement.setQueryTimeout(30);
+
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        players.add(new RankedPlayer(
+                                uuidFromBytes(resultSet.getBytes("uuid")),
+                                resultSet.getString("name"),
+                                resultSet.getDouble(column)
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to load ranked players from SQL database:", e);
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load ranked players from SQL database:", e);
+        }
+
+        return players;
+    }
+
+    @Override
+    public long countPlayersAbove(PlayerDataField field, double value) {
+        if (!field.isRanked()) throw new IllegalArgumentException("Players cannot be ranked by " + field);
 
-        try (Connection connection = getConnection()) {
-            if (connection == null) return;
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return -1;
 
-            boolean exists = checkIfEntryExists(connection, playerData.getUuid());
+            try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM hearts WHERE " + field.getColumn() + " > ?")) {
+                statement.setDouble(1, value);
+                statement.setQueryTimeout(30);
 
-            if (exists) {
-                updatePlayerData(connection, playerData);
-            } else {
-                insertPlayerData(connection, playerData);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            } catch (SQLException e) {
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to count ranked players in SQL database:", e);
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to save player data:", e);
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to count ranked players in SQL database:", e);
         }
+
+        return -1;
     }
 
     /**
-     * Check if a player entry exists in the database
-     * @param connection Connection to the database
-     * @param uuid UUID of the player to check
-     * @return True if the player entry exists, false otherwise
+     * Get the statement that creates the change log table, because auto increment columns differ between databases
+     * @return The CREATE TABLE statement for the hearts_changes table
      */
-    private boolean checkIfEntryExists(Connection connection, String uuid) {
-        final String selectQuery = "SELECT 1 FROM hearts WHERE uuid = ?";
+    protected abstract String getCreateChangeLogTableStatement();
 
-        try (PreparedStatement selectStmt = connection.prepareStatement(selectQuery);) {
-            selectStmt.setString(1, uuid);
-            try (ResultSet resultSet = selectStmt.executeQuery()) {
-                return resultSet.next();
+    @Override
+    public void enableChangeLog(String serverId) {
+        try (Connection connection = getConnection()) {
+            if (connection == null) return;
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(getCreateChangeLogTableStatement());
+                changeLogServerId = serverId;
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to check if player entry exists:", e);
-            return false;
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to create change log table:", e);
         }
     }
 
     /**
-     * Insert player data into the database
-     * @param connection Connection to the database
-     * @param playerData Player data to insert
-     * @return True if the insert was successful, false otherwise
+     * Get the statements that create the heart ledger table and its indexes, because auto increment columns
+     * and index syntax differ between databases
+     * @return The statements to execute in order
      */
-    private boolean insertPlayerData(Connection connection, PlayerData playerData) {
-        final String insertQuery = "INSERT INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime, prestigeCount) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
-        try (PreparedStatement insertStmt = connection.prepareStatement(insertQuery)) {
-            insertStmt.setString(1, playerData.getUuid());
-            insertStmt.setString(2, playerData.getName());
-            insertStmt.setDouble(3, playerData.getMaxHealth());
-            insertStmt.setInt(4, playerData.getHasBeenRevived());
-            insertStmt.setInt(5, playerData.getCraftedHearts());
-            insertStmt.setInt(6, playerData.getCraftedRevives());
-            insertStmt.setInt(7, playerData.getKilledOtherPlayers());
-            insertStmt.setLong(8, playerData.getFirstJoin());
-            insertStmt.setString(9, playerData.getLifeState().name());
-            insertStmt.setLong(10, playerData.getAfterlifeReleaseTime());
-            insertStmt.setInt(11, playerData.getPrestigeCount());
-            insertStmt.executeUpdate();
+    protected abstract List<String> getCreateHeartLedgerStatements();
 
-            playerData.clearModifiedFields();
+    @Override
+    public void enableHeartLedger() {
+        try (Connection connection = getConnection()) {
+            if (connection == null) return;
 
-            return true;
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : getCreateHeartLedgerStatements()) {
+                    statement.executeUpdate(sql);
+                }
+                heartLedgerEnabled = true;
+            }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to insert player data:", e);
-            return false;
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to create heart ledger table:", e);
         }
     }
 
-    /**
-     * Update player data in the database
-     * @param connection Connection to the database
-     * @param playerData Player data to update
-     * @return True if the update was successful, false otherwise
-     */
-    private boolean updatePlayerData(Connection connection, PlayerData playerData) {
-        StringBuilder updateQuery = new StringBuilder("UPDATE hearts SET ");
-        List<Object> params = new ArrayList<>();
+    @Override
+    public boolean insertHeartTransactions(List<HeartTransaction> transactions) {
+        if (transactions.isEmpty()) return true;
 
-        for (String field : playerData.getModifiedFields()) {
-            updateQuery.append(field).append(" = ?, ");
-            switch (field) {
-                case "maxhp":
-                    params.add(playerData.getMaxHealth());
-                    break;
-                case "hasbeenRevived":
-                    params.add(playerData.getHasBeenRevived());
-                    break;
-                case "craftedHearts":
-                    params.add(playerData.getCraftedHearts());
-                    break;
-                case "craftedRevives":
-                    params.add(playerData.getCraftedRevives());
-                    break;
-                case "killedOtherPlayers":
-                    params.add(playerData.getKilledOtherPlayers());
-                    break;
-                case "firstJoin":
-                    params.add(playerData.getFirstJoin());
-                    break;
-                case "lifeState":
-                    params.add(playerData.getLifeState().name());
-                    break;
-                case "afterlifeReleaseTime":
-                    params.add(playerData.getAfterlifeReleaseTime());
-                    break;
-                case "prestigeCount":
-                    params.add(playerData.getPrestigeCount());
-                    break;
-            }
-        }
-
-        updateQuery.setLength(updateQuery.length() - 2); // Remove the last comma and space
-        updateQuery.append(" WHERE uuid = ?");
-        params.add(playerData.getUuid());
-
-        try (PreparedStatement updateStmt = connection.prepareStatement(updateQuery.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                updateStmt.setObject(i + 1, params.get(i));
-            }
-            updateStmt.executeUpdate();
+        try (Connection connection = getConnection()) {
+            if (connection == null) return false;
 
-            playerData.clearModifiedFields();
-            return true;
+            connection.setAutoCommit(false);
+            try {
+                insertHeartTransactions(connection, transactions);
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                getPlugin().getLogger().log(Level.SEVERE, "Failed to write heart ledger entries to SQL database:", e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to update player data:", e);
-            return false;
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to write heart ledger entries to SQL database:", e);
         }
+        return false;
     }
 
-    @Override
-    public PlayerData load(String uuid) {
-        return load(UUID.fromString(uuid));
+    private void insertHeartTransactions(Connection connection, List<HeartTransaction> transactions) throws SQLException {
+        if (transactions.isEmpty()) return;
+
+        final String sql = "INSERT INTO heart_ledger (ts, uuid, delta, cause, counterparty) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (HeartTransaction transaction : transactions) {
+                pstmt.setLong(1, transaction.timestamp());
+                pstmt.setBytes(2, uuidToBytes(transaction.uuid()));
+                pstmt.setDouble(3, transaction.delta());
+                pstmt.setString(4, transaction.cause().name());
+                if (transaction.counterparty() != null) pstmt.setBytes(5, uuidToBytes(transaction.counterparty()));
+                else pstmt.setNull(5, Types.BINARY);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
     }
 
     @Override
-    public List<UUID> getEliminatedPlayers() {
-        List<UUID> eliminatedPlayers = new ArrayList<>();
-
-        int minHearts = getPlugin().getConfig().getInt("minHearts");
-
+    public int pruneHeartTransactions(long olderThan) {
         try (Connection connection = getConnection()) {
-            if (connection == null) return eliminatedPlayers;
-
-            try (Statement statement = connection.createStatement()) {
-                statement.setQueryTimeout(30);
-
-                ResultSet resultSet = statement.executeQuery("SELECT uuid FROM hearts WHERE maxhp <= " + minHearts * 2 + ".0");
+            if (connection == null) return 0;
 
-                while (resultSet.next()) {
-                    eliminatedPlayers.add(UUID.fromString(resultSet.getString("uuid")));
-                }
-            } catch (SQLException e) {
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM heart_ledger WHERE ts < ?")) {
+                pstmt.setLong(1, olderThan);
+                return pstmt.executeUpdate();
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to prune heart ledger in SQL database:", e);
         }
-
-        return eliminatedPlayers;
+        return 0;
     }
 
+    /**
+     * Get the statements that create the player address table and its indexes, because binary column types
+     * and index syntax differ between databases
+     * @return The statements to execute in order
+     */
+    protected abstract List<String> getCreatePlayerAddressStatements();
+
+    /**
+     * Get the statement that inserts a player address or updates its last login if it exists.
+     * Parameters: uuid, address, lastSeen
+     * @return The upsert statement
+     */
+    protected abstract String getUpsertPlayerAddressStatement();
 
     @Override
-    public String export(String fileName) {
-        String filePath = getPlugin().getDataFolder().getPath() + "/" + fileName + ".csv";
+    public void enableAddressHistory() {
         try (Connection connection = getConnection()) {
-            if (connection == null) return null;
+            if (connection == null) return;
 
             try (Statement statement = connection.createStatement()) {
-                ResultSet resultSet = statement.executeQuery("SELECT * FROM hearts");
-
-                try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-                    while (resultSet.next()) {
-                        String line = resultSet.getString("uuid") + CSV_SEPARATOR +
-                                resultSet.getString("name") + CSV_SEPARATOR +
-                                resultSet.getDouble("maxhp") + CSV_SEPARATOR +
-                                resultSet.getInt("hasbeenRevived") + CSV_SEPARATOR +
-                                resultSet.getInt("craftedHearts") + CSV_SEPARATOR +
-                                resultSet.getInt("craftedRevives") + CSV_SEPARATOR +
-                                resultSet.getInt("killedOtherPlayers") + CSV_SEPARATOR +
-                                resultSet.getLong("firstJoin") + CSV_SEPARATOR +
-                                resultSet.getString("lifeState") + CSV_SEPARATOR +
-                                resultSet.getLong("afterlifeReleaseTime");
-                        writer.write(line);
-                        writer.newLine();
-                    }
+                for (String sql : getCreatePlayerAddressStatements()) {
+                    statement.executeUpdate(sql);
                 }
-            } catch (SQLException | IOException e) {
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to export player data to CSV file:", e);
-                return null;
+                addressTableCreated = true;
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to export player data to CSV file:", e);
-            return null;
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to create player address table:", e);
         }
-        return filePath;
     }
 
-    protected abstract String getInserOrReplaceStatement();
-
     @Override
-    public void importData(String fileName) {
-        String filePath = getPlugin().getDataFolder().getPath() + "/" + fileName;
-        long startTime = System.currentTimeMillis();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath));
-             Connection connection = getConnection()) {
+    public void savePlayerAddress(PlayerAddress address, int maxAddresses) {
+        if (!addressTableCreated) return;
 
+        try (Connection connection = getConnection()) {
             if (connection == null) return;
 
-            // We are disabling auto-commit to insert all data in a single transaction to improve performance
-            connection.setAutoCommit(false);
-
-            String sql = getInserOrReplaceStatement();// use db specific insert or replace statement
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                String line;
-                int batchSize = 0;
-                int totalRows = 0;
-                while ((line = reader.readLine()) != null) {
-                    String[] data = line.split(CSV_SEPARATOR);
+            final byte[] uuidBytes = uuidToBytes(address.uuid());
+            try (PreparedStatement pstmt = connection.prepareStatement(getUpsertPlayerAddressStatement())) {
+                pstmt.setBytes(1, uuidBytes);
+                pstmt.setBytes(2, address.address());
+                pstmt.setLong(3, address.lastSeen());
+                pstmt.executeUpdate();
+            }
 
-                    if (data.length != 10) {
-                        getPlugin().getLogger().severe("Invalid CSV format. Expected 10 columns, but got " + data.length);
-                        continue;
-                    }
+            // Keep only the most recent addresses: find the last login of the oldest one to keep and delete everything before it
+            final String oldestKeptSql = "SELECT lastSeen FROM player_addresses WHERE uuid = ? ORDER BY lastSeen DESC LIMIT 1 OFFSET ?";
+            long oldestKept = -1;
+            try (PreparedStatement pstmt = connection.prepareStatement(oldestKeptSql)) {
+                pstmt.setBytes(1, uuidBytes);
+                pstmt.setInt(2, Math.max(0, maxAddresses - 1));
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    if (resultSet.next()) oldestKept = resultSet.getLong("lastSeen");
+                }
+            }
+            if (oldestKept < 0) return;
 
-                    totalRows++;
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM player_addresses WHERE uuid = ? AND lastSeen < ?")) {
+                pstmt.setBytes(1, uuidBytes);
+                pstmt.setLong(2, oldestKept);
+                pstmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to save player address to SQL database:", e);
+        }
+    }
 
-                    statement.setString(1, data[0]);  // uuid
-                    statement.setString(2, data[1]);  // name
-                    statement.setDouble(3, Double.parseDouble(data[2])); // maxhp
-                    statement.setInt(4, Integer.parseInt(data[3])); // hasbeenRevived
-                    statement.setInt(5, Integer.parseInt(data[4])); // craftedHearts
-                    statement.setInt(6, Integer.parseInt(data[5])); // craftedRevives
-                    statement.setInt(7, Integer.parseInt(data[6])); // killedOtherPlayers
-                    statement.setLong(8, Long.parseLong(data[7])); // firstJoin
-                    statement.setString(9, data[8]); // lifeState
-                    statement.setLong(10, Long.parseLong(data[9])); // afterlifeReleaseTime
+    @Override
+    public List<PlayerAddress> loadPlayerAddresses(long seenSince) {
+        List<PlayerAddress> addresses = new ArrayList<>();
+        if (!addressTableCreated) return addresses;
 
-                    statement.addBatch();
-                    batchSize++;
+        try (Connection connection = getReadConnection()) {
+            if (connection == null) return addresses;
 
-                    // Execute batch every 500 inserts
-                    if (batchSize % 500 == 0) {
-                        getPlugin().getLogger().info("Imported " + totalRows + " player data entries. Committing batch...");
-                        statement.executeBatch();
+            try (PreparedStatement pstmt = connection.prepareStatement("SELECT uuid, address, lastSeen FROM player_addresses WHERE lastSeen >= ?")) {
+                pstmt.setLong(1, seenSince);
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        addresses.add(new PlayerAddress(
+                                uuidFromBytes(resultSet.getBytes("uuid")),
+                                resultSet.getBytes("address"),
+                                resultSet.getLong("lastSeen")
+                        ));
                     }
                 }
-                statement.executeBatch();
+            }
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to load player addresses from SQL database:", e);
+        }
+        return addresses;
+    }
 
-                connection.commit();
+    @Override
+    public int prunePlayerAddresses(long olderThan) {
+        if (!addressTableCreated) return 0;
 
-                long endTime = System.currentTimeMillis();
-                getPlugin().getLogger().info("Imported " + totalRows + " player data entries in " + (endTime - startTime) + "ms");
+        try (Connection connection = getConnection()) {
+            if (connection == null) return 0;
 
-            } catch (SQLException e) {
-                connection.rollback();
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to import player data:", e);
-            } finally {
-                connection.setAutoCommit(true);
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM player_addresses WHERE lastSeen < ?")) {
+                pstmt.setLong(1, olderThan);
+                return pstmt.executeUpdate();
             }
-
-        } catch (IOException | SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to read CSV file:", e);
+        } catch (SQLException e) {
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to prune player addresses in SQL database:", e);
         }
+        return 0;
     }
 
-    @Override
-    public int reviveAllPlayers(int minHearts, int reviveHearts, int maxRevives, boolean bypassReviveLimit) {
-        int affectedPlayers = 0;
+    /**
+     * Append a change to the change log (if it is enabled). Uses the given connection, so it is part of the same transaction.
+     * @param connection Connection to the database
+     * @param uuid UUID of the changed player or {@link ChangeLogEntry#ALL_PLAYERS}
+     * @param fields The changed columns
+     * @throws SQLException If the entry could not be written. The change must be rolled back then, or other servers miss it.
+     */
+    private void logChange(Connection connection, String uuid, Collection<String> fields) throws SQLException {
+        final String serverId = changeLogServerId;
+        if (serverId == null) return;
+
+        final String sql = "INSERT INTO hearts_changes (uuid, fields, serverId, changedAt) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, uuid);
+            pstmt.setString(2, String.join(",", fields));
+            pstmt.setString(3, serverId);
+            pstmt.setLong(4, System.currentTimeMillis());
+            pstmt.executeUpdate();
+        }
+    }
 
-        String sql = "UPDATE hearts SET maxhp = ?, hasbeenRevived = hasbeenRevived + 1 WHERE maxhp <= ? AND (hasbeenRevived < ?)";
+    /**
+     * Run a write and its change log entry in one transaction, so a change is never committed without its entry.
+     * Runs the write as is if the change log is disabled or the connection is already in a transaction.
+     * @param connection Connection to the database
+     * @param write The write, including the {@link #logChange} call
+     * @return The result of the write
+     * @throws SQLException If the write failed. It was rolled back then.
+     */
+    private boolean writeWithChangeLog(Connection connection, SQLWrite write) throws SQLException {
+        if (changeLogServerId == null || !connection.getAutoCommit()) return write.run();
 
-        if (bypassReviveLimit || maxRevives < 0) {
-            sql = "UPDATE hearts SET maxhp = ?, hasbeenRevived = hasbeenRevived + 1 WHERE maxhp <= ?";
+        connection.setAutoCommit(false);
+        try {
+            boolean written = write.run();
+            connection.commit();
+            return written;
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
         }
+    }
 
-        try (Connection connection = getConnection()) {
-            if (connection == null) return affectedPlayers;
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-                pstmt.setDouble(1, reviveHearts * 2);
-                pstmt.setDouble(2, minHearts * 2);
+    @FunctionalInterface
+    private interface SQLWrite {
+        boolean run() throws SQLException;
+    }
 
-                if (!bypassReviveLimit && maxRevives >= 0) {
-                    pstmt.setInt(3, maxRevives);
-                }
+    @Override
+    public long getLatestChangeSequence() {
+        try (Connection connection = getConnection()) {
+            if (connection == null) return 0L;
 
-                affectedPlayers = pstmt.executeUpdate();
-            } catch (SQLException e) {
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to revive all players in SQL database:", e);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT MAX(seq) FROM hearts_changes")) {
+                return resultSet.next() ? resultSet.getLong(1) : 0L;
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to revive all players in SQL database:", e);
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to read change log:", e);
+            return 0L;
         }
-
-        return affectedPlayers;
     }
 
     @Override
-    public List<String> getPlayerNames() {
-        List<String> playerNames = new ArrayList<>();
+    public List<ChangeLogEntry> getChanges(long afterSequence, long changedSince, int limit) {
+        List<ChangeLogEntry> changes = new ArrayList<>();
 
-        try (Connection connection = getConnection()) {
-            if (connection == null) return playerNames;
+        final String sql = "SELECT seq, uuid, fields, serverId, changedAt FROM hearts_changes WHERE seq > ? AND changedAt >= ? ORDER BY seq LIMIT ?";
 
-            try (Statement statement = connection.createStatement()) {
-                statement.setQueryTimeout(30);
+        try (Connection connection = getConnection()) {
+            if (connection == null) return changes;
 
-                ResultSet resultSet = statement.executeQuery("SELECT name FROM hearts");
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setLong(1, afterSequence);
+                pstmt.setLong(2, changedSince);
+                pstmt.setInt(3, limit);
 
-                while (resultSet.next()) {
-                    playerNames.add(resultSet.getString("name"));
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        changes.add(new ChangeLogEntry(
+                                resultSet.getLong("seq"),
+                                resultSet.getString("uuid"),
+                                new HashSet<>(Arrays.asList(resultSet.getString("fields").split(","))),
+                                resultSet.getString("serverId"),
+                                resultSet.getLong("changedAt")
+                        ));
+                    }
                 }
-            } catch (SQLException e) {
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to load player names from SQL database:", e);
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to load player names from SQL database:", e);
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to read change log:", e);
         }
 
-        return playerNames;
+        return changes;
     }
 
     @Override
-    public List<String> getEliminatedPlayerNames() {
-        List<String> eliminatedPlayerNames = new ArrayList<>();
-
+    public void pruneChanges(long olderThan) {
         try (Connection connection = getConnection()) {
-            if (connection == null) return eliminatedPlayerNames;
-
-            try (Statement statement = connection.createStatement()) {
-                statement.setQueryTimeout(30);
-
-                ResultSet resultSet = statement.executeQuery("SELECT name FROM hearts WHERE maxhp <= 0.0");
+            if (connection == null) return;
 
-                while (resultSet.next()) {
-                    eliminatedPlayerNames.add(resultSet.getString("name"));
-                }
-            } catch (SQLException e) {
-                getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM hearts_changes WHERE changedAt < ?")) {
+                pstmt.setLong(1, olderThan);
+                pstmt.executeUpdate();
             }
         } catch (SQLException e) {
-            getPlugin().getLogger().log(Level.SEVERE, "Failed to get eliminated players from SQL database:", e);
+            getPlugin().getLogger().log(Level.SEVERE, "Failed to prune change log:", e);
         }
-
-        return eliminatedPlayerNames;
     }
 
     @Override
@@ -481,7 +1912,12 @@ public abstract class SQLStorage extends Storage {
             if (connection == null) return;
 
             try (Statement statement = connection.createStatement()) {
-                statement.executeUpdate("DELETE FROM hearts");
+                writeWithChangeLog(connection, () -> {
+                    statement.executeUpdate("DELETE FROM hearts");
+                    logChange(connection, ChangeLogEntry.ALL_PLAYERS, List.of(ChangeLogEntry.ALL_PLAYERS));
+                    return true;
+                });
+                invalidateAllSessions();
             } catch (SQLException e) {
                 getPlugin().getLogger().log(Level.SEVERE, "Failed to clear SQL database:", e);
             }
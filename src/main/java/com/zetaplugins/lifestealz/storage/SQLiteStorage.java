@@ -4,13 +4,30 @@ import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.storage.connectionPool.ConnectionPool;
 import com.zetaplugins.lifestealz.storage.connectionPool.SQLiteConnectionPool;
 
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
 public final class SQLiteStorage extends SQLStorage {
+    private static final int BACKUP_BUSY_SLEEP_MILLIS = 100;
+    private static final int BACKUP_BUSY_RETRIES = 50;
+    /**
+     * After this many restarts the backup stops pausing between steps, so it can finish on a busy server
+     */
+    private static final int BACKUP_MAX_THROTTLED_RESTARTS = 3;
+
     private final SQLiteConnectionPool connectionPool;
 
     public SQLiteStorage(LifeStealZ plugin) {
@@ -29,6 +46,7 @@ public final class SQLiteStorage extends SQLStorage {
             boolean hasLifeState = false;
             boolean hasAfterlifeReleaseTime = false;
             boolean hasPrestigeCount = false;
+            boolean hasVersion = false;
 
             while (resultSet.next()) {
                 String columnName = resultSet.getString("name");
@@ -40,6 +58,8 @@ public final class SQLiteStorage extends SQLStorage {
                     hasAfterlifeReleaseTime = true;
                 } else if ("prestigeCount".equalsIgnoreCase(columnName)) {
                     hasPrestigeCount = true;
+                } else if ("version".equalsIgnoreCase(columnName)) {
+                    hasVersion = true;
                 }
             }
 
@@ -62,9 +82,71 @@ public final class SQLiteStorage extends SQLStorage {
                 getPlugin().getLogger().info("Adding 'prestigeCount' column to 'hearts' table.");
                 statement.executeUpdate("ALTER TABLE hearts ADD COLUMN prestigeCount INTEGER DEFAULT 0");
             }
+
+            if (!hasVersion) {
+                getPlugin().getLogger().info("Adding 'version' column to 'hearts' table.");
+                statement.executeUpdate("ALTER TABLE hearts ADD COLUMN version INTEGER NOT NULL DEFAULT 0");
+            }
         } catch (SQLException e) {
             getPlugin().getLogger().log(Level.SEVERE, "Failed to migrate database: ", e);
         }
+
+        migrateSchema();
+    }
+
+    /**
+     * Copy the database to a file with SQLite's online backup API. The copy is a consistent snapshot,
+     * and writes from the server can continue between the steps.
+     * Every write through another connection (i.e. every storage call) restarts the copy, so the pauses between steps
+     * are dropped after {@value #BACKUP_MAX_THROTTLED_RESTARTS} restarts. If the online backup fails,
+     * the snapshot is made with VACUUM INTO instead, which blocks writes for the duration of the copy.
+     * @param destination The file to write the backup to
+     * @param pagesPerStep How many pages are copied per step
+     * @param stepDelayMillis How long to pause between steps, so gameplay writes are not starved
+     * @throws SQLException If the backup failed
+     */
+    public void backup(Path destination, int pagesPerStep, long stepDelayMillis) throws SQLException {
+        try (Connection connection = getConnection()) {
+            SQLiteConnection sqliteConnection = connection.unwrap(SQLiteConnection.class);
+            final AtomicInteger restarts = new AtomicInteger();
+            final AtomicInteger lastRemaining = new AtomicInteger(Integer.MAX_VALUE);
+            DB.ProgressObserver throttle = (remaining, pageCount) -> {
+                // The remaining pages only go up if the source was written and the copy started over
+                if (remaining > lastRemaining.getAndSet(remaining)) restarts.incrementAndGet();
+                if (remaining <= 0 || stepDelayMillis <= 0 || restarts.get() >= BACKUP_MAX_THROTTLED_RESTARTS) return;
+                try {
+                    Thread.sleep(stepDelayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+
+            int result = sqliteConnection.getDatabase().backup(
+                    "main", destination.toString(), throttle, BACKUP_BUSY_SLEEP_MILLIS, BACKUP_BUSY_RETRIES, Math.max(1, pagesPerStep)
+            );
+            if (result == SQLiteErrorCode.SQLITE_OK.code) {
+                getPlugin().getLogger().info("SQLite online backup finished after " + restarts.get() + " restart(s) caused by concurrent writes.");
+                return;
+            }
+
+            getPlugin().getLogger().warning("SQLite online backup failed with error code " + result + " after " + restarts.get()
+                    + " restart(s). Falling back to VACUUM INTO.");
+            vacuumInto(connection, destination);
+        }
+    }
+
+    private void vacuumInto(Connection connection, Path destination) throws SQLException {
+        try {
+            // VACUUM INTO fails if the file exists, e.g. a partial copy of the online backup
+            Files.deleteIfExists(destination);
+        } catch (IOException e) {
+            throw new SQLException("Failed to delete the partial backup " + destination, e);
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("VACUUM INTO ?")) {
+            statement.setString(1, destination.toString());
+            statement.executeUpdate();
+        }
     }
 
     @Override
@@ -72,6 +154,56 @@ public final class SQLiteStorage extends SQLStorage {
         return connectionPool;
     }
 
+    @Override
+    protected String getBinaryUuidType() {
+        return "BLOB";
+    }
+
+    @Override
+    protected String getCreateChangeLogTableStatement() {
+        return "CREATE TABLE IF NOT EXISTS hearts_changes ("
+                + "seq INTEGER PRIMARY KEY AUTOINCREMENT, "
+                + "uuid CHAR(36) NOT NULL, "
+                + "fields VARCHAR(255) NOT NULL, "
+                + "serverId CHAR(36) NOT NULL, "
+                + "changedAt BIGINT NOT NULL"
+                + ")";
+    }
+
+    @Override
+    protected List<String> getCreateHeartLedgerStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS heart_ledger ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "ts BIGINT NOT NULL, "
+                        + "uuid BLOB NOT NULL, "
+                        + "delta DOUBLE NOT NULL, "
+                        + "cause VARCHAR(32) NOT NULL, "
+                        + "counterparty BLOB"
+                        + ")",
+                "CREATE INDEX IF NOT EXISTS idx_heart_ledger_ts ON heart_ledger (ts)",
+                "CREATE INDEX IF NOT EXISTS idx_heart_ledger_uuid_ts ON heart_ledger (uuid, ts)"
+        );
+    }
+
+    @Override
+    protected List<String> getCreatePlayerAddressStatements() {
+        return List.of(
+                "CREATE TABLE IF NOT EXISTS player_addresses ("
+                        + "uuid BLOB NOT NULL, "
+                        + "address BLOB NOT NULL, "
+                        + "lastSeen BIGINT NOT NULL, "
+                        + "PRIMARY KEY (uuid, address)"
+                        + ")",
+                "CREATE INDEX IF NOT EXISTS idx_player_addresses_lastSeen ON player_addresses (lastSeen)"
+        );
+    }
+
+    @Override
+    protected String getUpsertPlayerAddressStatement() {
+        return "INSERT OR REPLACE INTO player_addresses (uuid, address, lastSeen) VALUES (?, ?, ?)";
+    }
+
     @Override
     protected String getInserOrReplaceStatement() {
         return "INSERT OR REPLACE INTO hearts (uuid, name, maxhp, hasbeenRevived, craftedHearts, craftedRevives, killedOtherPlayers, firstJoin, lifeState, afterlifeReleaseTime) " +
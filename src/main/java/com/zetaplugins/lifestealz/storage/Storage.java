@@ -1,15 +1,30 @@
 package com.zetaplugins.lifestealz.storage;
 
 import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.connectionPool.PoolStatus;
+import com.zetaplugins.lifestealz.storage.ledger.HeartLedger;
+import com.zetaplugins.lifestealz.storage.ledger.HeartTransaction;
+import com.zetaplugins.lifestealz.storage.sync.ChangeLogEntry;
 
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public abstract class Storage {
+    private static final int MAX_UPDATE_ATTEMPTS = 5;
+
+    private final List<PlayerDataListener> listeners = new CopyOnWriteArrayList<>();
 
     // Private field to store the Plugin instance
     private final LifeStealZ plugin;
 
+    private StorageExecutor executor;
+
     // Constructor to initialize the Plugin instance
     public Storage(LifeStealZ plugin) {
         this.plugin = plugin;
@@ -22,6 +37,7 @@ public abstract class Storage {
 
     /**
      * Initializes the storage system.
+     * @throws IllegalStateException If the stored data can't be used safely, e.g. because a schema migration failed
      */
     public abstract void init();
 
@@ -48,6 +64,25 @@ public abstract class Storage {
      */
     public abstract PlayerData load(UUID uuid);
 
+    /**
+     * Load a single numeric field of a player, without loading the rest of the player data.
+     * Int columns are widened to long.
+     *
+     * @param uuid The UUID of the player
+     * @param field The field to load (must be numeric)
+     * @return The stored value, or empty if the player has no stored data
+     */
+    public abstract OptionalLong loadLong(UUID uuid, PlayerDataField field);
+
+    /**
+     * Load a single numeric field of a player as double, without loading the rest of the player data.
+     *
+     * @param uuid The UUID of the player
+     * @param field The field to load (must be numeric)
+     * @return The stored value, or empty if the player has no stored data
+     */
+    public abstract OptionalDouble loadDouble(UUID uuid, PlayerDataField field);
+
     /**
      * Get a list of all eliminated players.
      */
@@ -68,9 +103,9 @@ public abstract class Storage {
      * @param reviveHearts The amount of hearts to set for every eliminated player.
      * @param maxRevives The maximum amount of revives a player can have.
      * @param bypassReviveLimit Whether the revive limit should be bypassed.
-     * @return The amount of players that were affected.
+     * @return The UUIDs of the players that were revived.
      */
-    public abstract int reviveAllPlayers(int minHearts, int reviveHearts, int maxRevives, boolean bypassReviveLimit);
+    public abstract List<UUID> reviveAllPlayers(int minHearts, int reviveHearts, int maxRevives, boolean bypassReviveLimit);
 
     /**
      * Import the player data from a file.
@@ -86,6 +121,321 @@ public abstract class Storage {
 
     public abstract List<String> getEliminatedPlayerNames();
 
+    /**
+     * Get all eliminated players with their names, used to build the eliminated players index.
+     *
+     * @return A map of the UUIDs of all eliminated players to their names (the name may be null).
+     */
+    public abstract Map<UUID, String> getEliminatedPlayersWithNames();
+
+    /**
+     * Get a page of players that have prestiged at least once, ordered by UUID.
+     * Pages are keyset-based, so iterating over all players never holds a connection between pages.
+     *
+     * @param afterUuid The last UUID of the previous page, or null to start at the beginning.
+     * @param limit The maximum amount of players to return.
+     * @return An ordered map of player UUIDs to their prestige count.
+     */
+    public abstract Map<UUID, Integer> getPrestigeCountsPage(String afterUuid, int limit);
+
+    /**
+     * Get a page of players ordered by a ranked field, highest first (ties are ordered by UUID).
+     * Pages are keyset-based and read the index of the field, so no page scans the whole table.
+     *
+     * @param field The field to rank by. It must be {@link PlayerDataField#isRanked() ranked}.
+     * @param after The last player of the previous page, or null to start at the top.
+     * @param limit The maximum amount of players to return.
+     * @return The players of the page in order.
+     */
+    public abstract List<RankedPlayer> getRankedPlayersPage(PlayerDataField field, RankedPlayer after, int limit);
+
+    /**
+     * Count the players with a higher value in a ranked field, i.e. the rank of a value minus one.
+     *
+     * @param field The field to rank by. It must be {@link PlayerDataField#isRanked() ranked}.
+     * @param value The value to compare with.
+     * @return The amount of players with a higher value, or -1 if it could not be counted.
+     */
+    public abstract long countPlayersAbove(PlayerDataField field, double value);
+
+    /**
+     * Atomically add a delta to a numeric field of a player and clamp the result, without reading the old value first.
+     * Use this instead of load, set and save, so concurrent changes (e.g. from other servers) are not lost.
+     *
+     * @param uuid The UUID of the player.
+     * @param field The field to change. It must be a {@link PlayerDataField#isDeltaField() delta field}.
+     * @param delta The amount to add (negative to subtract).
+     * @param min The minimum value of the field after the change.
+     * @param max The maximum value of the field after the change.
+     * @return The new value of the field, or null if the player does not exist or the update failed.
+     */
+    public abstract Double applyDelta(UUID uuid, PlayerDataField field, double delta, double min, double max);
+
+    /**
+     * Atomically add a delta to a numeric field of a player and update the given player data with the new value.
+     *
+     * @see #applyDelta(UUID, PlayerDataField, double, double, double)
+     * @param playerData The player data to update.
+     * @return The new value of the field, or null if the player does not exist or the update failed.
+     */
+    public Double applyDelta(PlayerData playerData, PlayerDataField field, double delta, double min, double max) {
+        Double newValue = applyDelta(UUID.fromString(playerData.getUuid()), field, delta, min, max);
+        if (newValue != null) playerData.setStoredValue(field, newValue);
+        return newValue;
+    }
+
+    /**
+     * Save the modified fields of a player, but only if the player was not changed since the data was loaded
+     * (optimistic locking). Use this for changes to multiple fields that depend on each other.
+     *
+     * @param playerData The player data to save.
+     * @return True if the data was saved, false if the player was changed in the meantime and has to be reloaded.
+     */
+    public abstract boolean saveIfUnchanged(PlayerData playerData);
+
+    /**
+     * Load a player, apply the modifier and save it with optimistic locking, retrying if the player was changed in the meantime.
+     *
+     * @param uuid The UUID of the player.
+     * @param modifier The changes to apply. It may be called multiple times, so it must not have side effects.
+     * @return The saved player data, or null if the player does not exist or the data could not be saved.
+     */
+    public PlayerData update(UUID uuid, Consumer<PlayerData> modifier) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            PlayerData playerData = load(uuid);
+            if (playerData == null) return null;
+
+            modifier.accept(playerData);
+            if (!playerData.hasChanges() || saveIfUnchanged(playerData)) return playerData;
+        }
+
+        getPlugin().getLogger().warning("Failed to update player data of " + uuid + " after " + MAX_UPDATE_ATTEMPTS + " attempts because of concurrent changes.");
+        return null;
+    }
+
+    /**
+     * Get the maximum amount of storage operations that should run at the same time, e.g. the size of the connection pool.
+     *
+     * @return The maximum amount of concurrent operations.
+     */
+    protected abstract int getMaxConcurrency();
+
+    /**
+     * Get the executor that runs the asynchronous storage operations. It is created on first use, after the storage was initialized.
+     *
+     * @return The executor.
+     */
+    public synchronized StorageExecutor getExecutor() {
+        if (executor == null) executor = new StorageExecutor(getMaxConcurrency());
+        return executor;
+    }
+
+    /**
+     * Stop the executor and wait for the submitted operations to finish.
+     *
+     * @param timeoutMillis The maximum time to wait.
+     */
+    public synchronized void shutdownExecutor(long timeoutMillis) {
+        if (executor == null) return;
+        if (!executor.shutdown(timeoutMillis)) {
+            plugin.getLogger().warning("Not all storage operations finished within " + timeoutMillis + "ms.");
+        }
+    }
+
+    /**
+     * Load the player data asynchronously, after all operations that were submitted for the player before.
+     *
+     * @param uuid The UUID of the player to load.
+     * @return A future with the player data, or null if the player does not exist.
+     */
+    public CompletableFuture<PlayerData> loadAsync(UUID uuid) {
+        return getExecutor().submit(uuid, () -> load(uuid));
+    }
+
+    /**
+     * Save the player data asynchronously. Saves of the same player are written in the order they were submitted.
+     * The player data must not be changed until the future completed.
+     *
+     * @param playerData The player data to save.
+     * @return A future that completes when the data was saved.
+     */
+    public CompletableFuture<Void> saveAsync(PlayerData playerData) {
+        return getExecutor().submit(UUID.fromString(playerData.getUuid()), () -> {
+            save(playerData);
+            return null;
+        });
+    }
+
+    /**
+     * Run {@link #update(UUID, Consumer)} asynchronously, after all operations that were submitted for the player before.
+     *
+     * @param uuid The UUID of the player.
+     * @param modifier The changes to apply. It may be called multiple times, so it must not have side effects.
+     * @return A future with the saved player data, or null if the player does not exist or the data could not be saved.
+     */
+    public CompletableFuture<PlayerData> updateAsync(UUID uuid, Consumer<PlayerData> modifier) {
+        return getExecutor().submit(uuid, () -> update(uuid, modifier));
+    }
+
+    /**
+     * Atomically add a delta to a numeric field of a player asynchronously, after all operations that were submitted for the player before.
+     *
+     * @see #applyDelta(UUID, PlayerDataField, double, double, double)
+     * @return A future with the new value, or null if the player does not exist or the database could not be reached.
+     */
+    public CompletableFuture<Double> applyDeltaAsync(UUID uuid, PlayerDataField field, double delta, double min, double max) {
+        return getExecutor().submit(uuid, () -> applyDelta(uuid, field, delta, min, max));
+    }
+
+    /**
+     * Change the max health of every player that is not eliminated in a single update.
+     *
+     * @param operation How the given health should be applied.
+     * @param health The amount of health (not hearts) to add, set or remove.
+     * @param eliminatedHealth Players with this max health or less are eliminated and won't be changed.
+     *                         Removing health never brings a player below one heart above this value,
+     *                         and players that are already below that are not changed.
+     * @param maxHealth The max health players can be given, or 0 or less for no limit. This is a global limit,
+     *                  per-player permission limits are not applied. Adding health stops at the limit,
+     *                  setting health above it is rejected.
+     * @return The amount of players that were affected, or -1 if the database is unavailable or journaled writes are still pending.
+     */
+    public abstract int updateAllHearts(HeartsOperation operation, double health, double eliminatedHealth, double maxHealth);
+
+    /**
+     * Start writing every change to a change log, so other servers that share the database can update their caches.
+     *
+     * @param serverId The id of this server, used to skip own changes when reading the log.
+     */
+    public abstract void enableChangeLog(String serverId);
+
+    /**
+     * Get the sequence number of the latest change in the change log.
+     *
+     * @return The latest sequence number, or 0 if the change log is empty.
+     */
+    public abstract long getLatestChangeSequence();
+
+    /**
+     * Get changes from the change log, ordered by sequence number.
+     *
+     * @param afterSequence Only return changes with a higher sequence number.
+     * @param changedSince Only return changes that were made at or after this time, or 0 for all changes.
+     * @param limit The maximum amount of changes to return.
+     * @return The matching changes.
+     */
+    public abstract List<ChangeLogEntry> getChanges(long afterSequence, long changedSince, int limit);
+
+    /**
+     * Delete old changes from the change log.
+     *
+     * @param olderThan Changes made before this time are deleted.
+     */
+    public abstract void pruneChanges(long olderThan);
+
+    /**
+     * Create the heart ledger table and start recording the max health changes of bulk operations
+     * (e.g. reviving all players) in it. Single changes are recorded through the {@link HeartLedger}.
+     */
+    public abstract void enableHeartLedger();
+
+    /**
+     * Insert heart ledger entries with a single batched insert.
+     *
+     * @param transactions The entries to insert.
+     * @return True if the entries were written, false if the database could not be reached or the insert failed.
+     */
+    public abstract boolean insertHeartTransactions(List<HeartTransaction> transactions);
+
+    /**
+     * Delete old entries from the heart ledger.
+     *
+     * @param olderThan Entries recorded before this time are deleted.
+     * @return The amount of deleted entries.
+     */
+    public abstract int pruneHeartTransactions(long olderThan);
+
+    /**
+     * Create the table that stores the addresses players logged in from, which the anti alt system uses
+     * to find accounts that shared an address. Called on every start, also if anti alt is disabled,
+     * so it can be enabled with a reload.
+     */
+    public abstract void enableAddressHistory();
+
+    /**
+     * Store that a player logged in from an address. Only the most recent addresses of every player are kept.
+     *
+     * @param address The address of the player.
+     * @param maxAddresses The maximum amount of addresses to keep for the player.
+     */
+    public abstract void savePlayerAddress(PlayerAddress address, int maxAddresses);
+
+    /**
+     * Load all stored addresses that were used recently.
+     *
+     * @param seenSince Only addresses used after this time are loaded.
+     * @return The addresses, or an empty list if the database could not be reached.
+     */
+    public abstract List<PlayerAddress> loadPlayerAddresses(long seenSince);
+
+    /**
+     * Delete addresses that were not used for a long time.
+     *
+     * @param olderThan Addresses last used before this time are deleted.
+     * @return The amount of deleted addresses.
+     */
+    public abstract int prunePlayerAddresses(long olderThan);
+
+    /**
+     * Register a listener that is notified when player data is loaded, saved or changed in the storage.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(PlayerDataListener listener) {
+        listeners.add(listener);
+    }
+
+    protected void notifyPlayerDataChanged(PlayerData playerData) {
+        for (PlayerDataListener listener : listeners) {
+            listener.onPlayerDataChanged(playerData);
+        }
+    }
+
+    protected void notifyPlayerDataInvalidated(UUID uuid) {
+        for (PlayerDataListener listener : listeners) {
+            listener.onPlayerDataInvalidated(uuid);
+        }
+    }
+
+    protected void notifyAllPlayerDataInvalidated() {
+        for (PlayerDataListener listener : listeners) {
+            listener.onAllPlayerDataInvalidated();
+        }
+    }
+
+    /**
+     * Check if the database is reachable. While it is not, saves are journaled locally and loads are served
+     * from the session cache of online players.
+     *
+     * @return True if the database is reachable.
+     */
+    public abstract boolean isAvailable();
+
+    /**
+     * Drop the cached session data of a player that left the server.
+     *
+     * @param uuid The UUID of the player.
+     */
+    public abstract void endSession(UUID uuid);
+
+    /**
+     * Measure the latency (and replication lag for replicas) of the database connection pools.
+     * This runs queries, so it should not be called on the main thread.
+     *
+     * @return The status of every pool, the primary first.
+     */
+    public abstract List<PoolStatus> getPoolStatus();
+
     /**
      * Clear all player data from the storage system.
      */
@@ -95,4 +445,13 @@ public abstract class Storage {
      * Migrate the database to the latest version.
      */
     protected abstract void migrateDatabase();
+
+    /**
+     * Operations for bulk heart updates
+     */
+    public enum HeartsOperation {
+        ADD,
+        SET,
+        REMOVE
+    }
 }
\ No newline at end of file
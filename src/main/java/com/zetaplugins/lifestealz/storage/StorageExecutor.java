@@ -0,0 +1,147 @@
+package com.zetaplugins.lifestealz.storage;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs storage operations on virtual threads.
+ *
+ * <p>Every operation gets its own virtual thread, but at most as many operations run at the same time as the
+ * connection pool has connections, so waiting operations don't hold a connection or starve the pool.
+ * Operations submitted for the same player run one after another in submission order, so two saves of one
+ * player never overtake each other. Operations of different players run concurrently.</p>
+ */
+public final class StorageExecutor {
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("LifeStealZ-Storage-", 0).factory()
+    );
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Map<UUID, CompletableFuture<Void>> playerTails = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConcurrency The maximum amount of operations that run at the same time
+     */
+    public StorageExecutor(int maxConcurrency) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+    }
+
+    /**
+     * Run an operation that is not bound to a player
+     * @param operation The operation to run
+     * @return A future that completes with the result of the operation, or exceptionally if it threw or the executor was shut down
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(() -> runWithPermit(operation), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Run an operation for a player after all operations that were submitted for the player before
+     * @param uuid The UUID of the player
+     * @param operation The operation to run
+     * @return A future that completes with the result of the operation, or exceptionally if it threw or the executor was shut down
+     */
+    public <T> CompletableFuture<T> submit(UUID uuid, Supplier<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        CompletableFuture<Void> next = playerTails.compute(uuid, (key, tail) -> {
+            CompletableFuture<Void> previous = tail != null ? tail : DONE;
+            // A failed operation must not stop the ones after it
+            return previous.exceptionally(e -> null).thenRunAsync(() -> {
+                try {
+                    result.complete(runWithPermit(operation));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }, executor);
+        });
+        // Registered outside of compute, because it runs right away if the operation already finished
+        next.whenComplete((ignored, e) -> {
+            playerTails.remove(uuid, next);
+            // The operation itself never fails the tail, so this means it was rejected because the executor was shut down
+            if (e != null) result.completeExceptionally(e);
+        });
+
+        return result;
+    }
+
+    /**
+     * @return The maximum amount of operations that run at the same time
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return The amount of operations that are running right now
+     */
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /**
+     * @return The amount of operations that wait for a free connection
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Wait for the submitted operations to finish and stop accepting operations
+     * @param timeoutMillis The maximum time to wait
+     * @return True if all operations finished in time
+     */
+    public boolean shutdown(long timeoutMillis) {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        // Operations chained behind another operation of the same player are only handed to the executor
+        // once the one before them finished, so they are waited for while the executor still accepts them
+        while (!playerTails.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+
+            try {
+                CompletableFuture.allOf(playerTails.values().toArray(new CompletableFuture[0])).get(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException e) {
+                // The loop checks what is left
+            }
+        }
+
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) && playerTails.isEmpty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> T runWithPermit(Supplier<T> operation) {
+        permits.acquireUninterruptibly();
+        try {
+            return operation.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
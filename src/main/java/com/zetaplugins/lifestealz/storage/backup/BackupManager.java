@@ -0,0 +1,155 @@
+package com.zetaplugins.lifestealz.storage.backup;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.SQLiteStorage;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Creates compressed, rotating snapshots of the SQLite database while the server is running.
+ */
+public final class BackupManager {
+    private static final String FILE_PREFIX = "userData-";
+    private static final String FILE_SUFFIX = ".db.gz";
+
+    private final LifeStealZ plugin;
+    private final SQLiteStorage storage;
+    private final Path backupFolder;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public BackupManager(LifeStealZ plugin, SQLiteStorage storage) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.backupFolder = plugin.getDataFolder().toPath().resolve("backups");
+    }
+
+    /**
+     * Schedule automatic backups if they are enabled in storage.yml
+     */
+    public void scheduleBackups() {
+        FileConfiguration config = getConfig();
+        if (!config.getBoolean("backup.enabled", false)) return;
+
+        long intervalTicks = TimeUnit.MINUTES.toSeconds(Math.max(1, config.getLong("backup.interval", 360))) * 20;
+        plugin.getAsyncTaskManager().addTask(plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            BackupResult result = createBackup();
+            if (result != null) {
+                plugin.getLogger().info("Created scheduled backup " + result.file().getFileName() + " (" + result.formatSize() + ") in " + result.durationMillis() + "ms");
+            }
+        }, intervalTicks, intervalTicks));
+    }
+
+    /**
+     * Create a backup on a background thread
+     * @return A future with the result, or null as result if the backup failed or another backup is running
+     */
+    public CompletableFuture<BackupResult> createBackupAsync() {
+        CompletableFuture<BackupResult> future = new CompletableFuture<>();
+        plugin.getAsyncTaskManager().addTask(plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
+                () -> future.complete(createBackup())));
+        return future;
+    }
+
+    /**
+     * @return True if a backup is being created right now
+     */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Create a backup on the calling thread. Must not be called on the main thread.
+     * @return The result, or null if the backup failed or another backup is running
+     */
+    public BackupResult createBackup() {
+        if (!running.compareAndSet(false, true)) return null;
+
+        final long startTime = System.currentTimeMillis();
+        final FileConfiguration config = getConfig();
+        Path snapshot = null;
+
+        try {
+            Files.createDirectories(backupFolder);
+
+            String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(startTime));
+            snapshot = backupFolder.resolve(FILE_PREFIX + timestamp + ".db.tmp");
+            Path compressed = backupFolder.resolve(FILE_PREFIX + timestamp + FILE_SUFFIX);
+
+            storage.backup(snapshot, config.getInt("backup.pagesPerStep", 100), config.getLong("backup.stepDelay", 10));
+            compress(snapshot, compressed);
+
+            rotateBackups(Math.max(1, config.getInt("backup.keep", 7)));
+
+            return new BackupResult(compressed, Files.size(compressed), System.currentTimeMillis() - startTime);
+        } catch (SQLException | IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to create database backup:", e);
+            return null;
+        } finally {
+            if (snapshot != null) {
+                try {
+                    Files.deleteIfExists(snapshot);
+                } catch (IOException e) {
+                    plugin.getLogger().warning("Failed to delete temporary backup file " + snapshot + ": " + e.getMessage());
+                }
+            }
+            running.set(false);
+        }
+    }
+
+    private void compress(Path source, Path target) throws IOException {
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(target), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    /**
+     * Delete the oldest backups, so only the newest ones are kept
+     * @param keep The amount of backups to keep
+     */
+    private void rotateBackups(int keep) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(backupFolder, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(backups::add);
+        }
+
+        // The timestamp in the name sorts chronologically
+        backups.sort(null);
+        for (int i = 0; i < backups.size() - keep; i++) {
+            Files.deleteIfExists(backups.get(i));
+        }
+    }
+
+    private FileConfiguration getConfig() {
+        return plugin.getConfigManager().getStorageConfig();
+    }
+
+    /**
+     * @param file The compressed backup file
+     * @param sizeBytes The size of the compressed backup
+     * @param durationMillis How long the backup took, including compression
+     */
+    public record BackupResult(Path file, long sizeBytes, long durationMillis) {
+        public String formatSize() {
+            if (sizeBytes < 1024) return sizeBytes + " B";
+            if (sizeBytes < 1024 * 1024) return String.format("%.1f KiB", sizeBytes / 1024.0);
+            return String.format("%.1f MiB", sizeBytes / (1024.0 * 1024.0));
+        }
+    }
+}
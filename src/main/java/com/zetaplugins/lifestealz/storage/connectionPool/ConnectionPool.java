@@ -21,6 +21,12 @@ public interface ConnectionPool {
      */
     void releaseConnection(Connection connection) throws SQLException;
 
+    /**
+     * Returns the maximum amount of connections the pool hands out at the same time.
+     * @return the maximum amount of connections
+     */
+    int getMaximumPoolSize();
+
     /**
      * Shuts down the connection pool.
      * @throws SQLException if an error occurs while shutting down the connection pool
@@ -59,6 +59,15 @@ public final class MariaDBConnectionPool implements ConnectionPool {
         }
     }
 
+    /**
+     * Returns the maximum amount of connections of the MariaDB connection pool.
+     * @return the maximum pool size
+     */
+    @Override
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
     /**
      * Shuts down the MariaDB connection pool and releases all resources.
      */
@@ -59,6 +59,15 @@ public final class MySQLConnectionPool implements ConnectionPool {
         }
     }
 
+    /**
+     * Returns the maximum amount of connections of the MySQL connection pool.
+     * @return the maximum pool size
+     */
+    @Override
+    public int getMaximumPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
     /**
      * Shuts down the MySQL connection pool and releases all resources.
      */
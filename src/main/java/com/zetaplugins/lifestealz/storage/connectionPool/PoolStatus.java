@@ -0,0 +1,10 @@
+package com.zetaplugins.lifestealz.storage.connectionPool;
+
+/**
+ * A snapshot of the health of a connection pool, used by the debug command.
+ * @param name The name of the pool (e.g. primary or replica)
+ * @param reachable Whether a connection could be opened and a query executed
+ * @param latencyMillis The round trip time of a trivial query in milliseconds, or -1 if the pool is not reachable
+ * @param replicaLagSeconds How far the replica is behind the primary in seconds, or null if unknown or not a replica
+ */
+public record PoolStatus(String name, boolean reachable, double latencyMillis, Long replicaLagSeconds) {}
@@ -35,6 +35,15 @@ public final class SQLiteConnectionPool implements ConnectionPool {
     @Override
     public void releaseConnection(Connection connection) {}
 
+    /**
+     * SQLite only allows one writer at a time, so operations are not run in parallel.
+     * @return always 1
+     */
+    @Override
+    public int getMaximumPoolSize() {
+        return 1;
+    }
+
     /**
      * This method does nothing, because SQLite does not support connection pooling.
      */
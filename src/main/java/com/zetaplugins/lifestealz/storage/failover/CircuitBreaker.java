@@ -0,0 +1,75 @@
+package com.zetaplugins.lifestealz.storage.failover;
+
+/**
+ * A circuit breaker for the database connection. After a number of consecutive failures it opens,
+ * so callers fail immediately instead of waiting for the pool timeout on every request.
+ * After a cooldown a single request is let through to probe if the database is back.
+ */
+public final class CircuitBreaker {
+    public enum State {
+        /**
+         * The database is reachable, all requests are allowed
+         */
+        CLOSED,
+        /**
+         * The database is unreachable, requests fail immediately
+         */
+        OPEN,
+        /**
+         * The cooldown is over and one probe request is running
+         */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0L;
+
+    /**
+     * @param failureThreshold The amount of consecutive failures after which the breaker opens
+     * @param openMillis How long the breaker stays open before a probe request is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Check if a request may be sent to the database. If the cooldown is over, this lets exactly one probe request through.
+     * @return True if the request may be sent
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Record a failed request
+     * @return True if the breaker was closed before and is open now
+     */
+    public synchronized boolean recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            boolean opened = state == State.CLOSED;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            return opened;
+        }
+        return false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
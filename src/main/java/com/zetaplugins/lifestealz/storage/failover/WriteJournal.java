@@ -0,0 +1,126 @@
+package com.zetaplugins.lifestealz.storage.failover;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An append-only journal of writes that could not be sent to the database.
+ * Every entry is one line and is written to the file before {@link #append(String)} returns, so journaled writes
+ * survive a server crash. Forcing the file to disk is done by a background thread and coalesced, because appends
+ * happen on the main thread. The entries are kept in memory in order for the replay.
+ */
+public final class WriteJournal {
+    private final FileChannel channel;
+    private final Deque<String> entries = new ArrayDeque<>();
+    private final Logger logger;
+    private final ExecutorService forceExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("LifeStealZ-Journal").daemon().factory()
+    );
+    private final AtomicBoolean forcePending = new AtomicBoolean(false);
+
+    /**
+     * Open the journal file, creating it if it doesn't exist. Entries left from a previous run are loaded.
+     * @param file The journal file
+     * @param logger The logger to report failed forces to
+     * @throws IOException If the file can't be read or opened
+     */
+    public WriteJournal(Path file, Logger logger) throws IOException {
+        this.logger = logger;
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) entries.addLast(line);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Append an entry. It is forced to disk in the background shortly after.
+     * @param entry The entry, must not contain line breaks
+     * @throws IOException If the entry could not be written
+     */
+    public synchronized void append(String entry) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((entry + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        entries.addLast(entry);
+        requestForce();
+    }
+
+    /**
+     * Force the file to disk on the background thread, unless a force is already waiting to run (it covers this append too)
+     */
+    private void requestForce() {
+        if (!forcePending.compareAndSet(false, true)) return;
+        forceExecutor.execute(() -> {
+            forcePending.set(false);
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Failed to force the storage journal to disk:", e);
+            }
+        });
+    }
+
+    /**
+     * @return The oldest entry, or null if the journal is empty
+     */
+    public synchronized String peek() {
+        return entries.peekFirst();
+    }
+
+    /**
+     * Remove the oldest entry after it was replayed. The file is truncated once all entries are replayed.
+     * Until then, replayed entries stay in the file, so they are replayed again after a crash
+     * (entries contain absolute values, so replaying them twice in order gives the same result).
+     * @throws IOException If the file could not be truncated
+     */
+    public synchronized void remove() throws IOException {
+        entries.pollFirst();
+        if (entries.isEmpty()) {
+            channel.truncate(0);
+            channel.force(false);
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Wait for the background force, force the file one last time and close it
+     * @param timeoutMillis The maximum time to wait for the background force
+     * @throws IOException If the file could not be forced or closed
+     */
+    public void close(long timeoutMillis) throws IOException {
+        forceExecutor.shutdown();
+        try {
+            forceExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+}
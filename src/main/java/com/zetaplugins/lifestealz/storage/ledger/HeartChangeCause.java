@@ -0,0 +1,47 @@
+package com.zetaplugins.lifestealz.storage.ledger;
+
+/**
+ * The reason a player's max health changed, stored in the heart ledger
+ */
+public enum HeartChangeCause {
+    /**
+     * The start hearts of a new player
+     */
+    FIRST_JOIN,
+    /**
+     * Hearts gained by killing another player (the counterparty is the victim)
+     */
+    PVP_KILL,
+    /**
+     * Hearts lost by being killed by another player (the counterparty is the killer)
+     */
+    PVP_DEATH,
+    NATURAL_DEATH,
+    /**
+     * The player was eliminated, or respawned with the revive hearts instead (the counterparty is the killer, if any)
+     */
+    ELIMINATION,
+    /**
+     * Hearts withdrawn into heart items
+     */
+    WITHDRAW,
+    /**
+     * A heart item was used
+     */
+    HEART_USE,
+    /**
+     * The player was revived (the counterparty is the reviving player, if any)
+     */
+    REVIVE,
+    AFTERLIFE_ENTER,
+    AFTERLIFE_RELEASE,
+    PRESTIGE,
+    /**
+     * Changed by an admin command (the counterparty is the admin, if it was a player)
+     */
+    ADMIN,
+    /**
+     * Changed by another plugin through the API
+     */
+    API
+}
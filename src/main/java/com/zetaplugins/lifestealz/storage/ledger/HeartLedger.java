@@ -0,0 +1,156 @@
+package com.zetaplugins.lifestealz.storage.ledger;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.Storage;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every change of a player's max health in the heart_ledger table.
+ *
+ * <p>Recording only puts the transaction into a lock-free queue, so the death path never waits for the database.
+ * A background thread writes the queue in batched inserts and old entries are pruned periodically.
+ * A disabled ledger ignores everything that is recorded.</p>
+ */
+public final class HeartLedger {
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long PRUNE_INTERVAL_TICKS = 20L * 60 * 60;
+
+    private final LifeStealZ plugin;
+    private final Storage storage;
+    private final Queue<HeartTransaction> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * @param plugin The plugin instance
+     * @param storage The storage to write to. The ledger table must already be created with {@link Storage#enableHeartLedger()}.
+     * @param enabled If the ledger should record anything. No thread is started for a disabled ledger.
+     * @param capacity The maximum amount of transactions that can be waiting to be written
+     * @param batchSize The maximum amount of transactions per insert
+     * @param flushIntervalMillis How long transactions may wait before they are written, if the batch is not full
+     */
+    public HeartLedger(LifeStealZ plugin, Storage storage, boolean enabled, int capacity, int batchSize, long flushIntervalMillis) {
+        this.plugin = plugin;
+        this.storage = storage;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.running = enabled;
+        this.writerThread = new Thread(this::run, "LifeStealZ-HeartLedger");
+        this.writerThread.setDaemon(true);
+        if (enabled) this.writerThread.start();
+    }
+
+    /**
+     * @return True if changes are recorded
+     */
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Delete ledger entries older than the retention every hour
+     * @param retentionMillis How long entries are kept
+     */
+    public void schedulePruning(long retentionMillis) {
+        plugin.getAsyncTaskManager().addTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            int deleted = storage.pruneHeartTransactions(System.currentTimeMillis() - retentionMillis);
+            if (deleted > 0) plugin.getLogger().fine("Pruned " + deleted + " heart ledger entries.");
+        }, PRUNE_INTERVAL_TICKS, PRUNE_INTERVAL_TICKS));
+    }
+
+    /**
+     * Record a change of a player's max health. This never blocks.
+     * @param uuid The UUID of the player
+     * @param oldHealth The max health before the change
+     * @param newHealth The max health after the change
+     * @param cause The reason of the change
+     * @param counterparty The other player involved, or null
+     */
+    public void record(UUID uuid, double oldHealth, double newHealth, HeartChangeCause cause, UUID counterparty) {
+        record(uuid, newHealth - oldHealth, cause, counterparty);
+    }
+
+    /**
+     * Record a change of a player's max health. This never blocks. Changes of 0 are ignored.
+     * @param uuid The UUID of the player
+     * @param delta The change of the max health in health points
+     * @param cause The reason of the change
+     * @param counterparty The other player involved, or null
+     */
+    public void record(UUID uuid, double delta, HeartChangeCause cause, UUID counterparty) {
+        if (delta == 0 || !running) return;
+
+        if (queuedCount.incrementAndGet() > capacity) {
+            queuedCount.decrementAndGet();
+            plugin.getLogger().warning("Heart ledger queue is full. Dropping " + cause + " entry of " + uuid);
+            return;
+        }
+
+        queue.offer(new HeartTransaction(System.currentTimeMillis(), uuid, delta, cause, counterparty));
+        if (queuedCount.get() >= batchSize) LockSupport.unpark(writerThread);
+    }
+
+    /**
+     * @return The amount of transactions that are waiting to be written
+     */
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    /**
+     * Stop accepting new transactions and wait for the queued ones to be written
+     * @param timeoutMillis The maximum time to wait for the queue to drain
+     */
+    public void shutdown(long timeoutMillis) {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            plugin.getLogger().warning("Discarded " + queuedCount.get() + " heart ledger entries on shutdown.");
+            queue.clear();
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            if (running && queuedCount.get() < batchSize) LockSupport.parkNanos(this, flushIntervalNanos);
+
+            List<HeartTransaction> batch = new ArrayList<>(batchSize);
+            HeartTransaction transaction;
+            while (batch.size() < batchSize && (transaction = queue.poll()) != null) {
+                batch.add(transaction);
+            }
+            if (batch.isEmpty()) continue;
+            queuedCount.addAndGet(-batch.size());
+
+            write(batch);
+        }
+    }
+
+    private void write(List<HeartTransaction> batch) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            if (storage.insertHeartTransactions(batch)) return;
+            if (attempt < MAX_ATTEMPTS) LockSupport.parkNanos(this, TimeUnit.SECONDS.toNanos(attempt));
+        }
+        plugin.getLogger().severe("Failed to write " + batch.size() + " heart ledger entries after " + MAX_ATTEMPTS + " attempts. They are lost.");
+    }
+}
@@ -0,0 +1,13 @@
+package com.zetaplugins.lifestealz.storage.ledger;
+
+import java.util.UUID;
+
+/**
+ * A single entry of the heart ledger
+ * @param timestamp The time of the change in milliseconds
+ * @param uuid The UUID of the player whose max health changed
+ * @param delta The change of the max health in health points (2 per heart)
+ * @param cause The reason of the change
+ * @param counterparty The other player involved (e.g. the killer), or null
+ */
+public record HeartTransaction(long timestamp, UUID uuid, double delta, HeartChangeCause cause, UUID counterparty) {}
@@ -0,0 +1,46 @@
+package com.zetaplugins.lifestealz.storage.sync;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * A single entry of the hearts_changes table
+ * @param sequence The sequence number of the change
+ * @param uuid The UUID of the changed player, or {@link #ALL_PLAYERS} if the change affected all players
+ * @param fields The changed columns, or {@link #INSERTED} if the player was created
+ * @param serverId The id of the server that made the change
+ * @param changedAt The time the change was made at
+ */
+public record ChangeLogEntry(long sequence, String uuid, Set<String> fields, String serverId, long changedAt) {
+    public static final String ALL_PLAYERS = "*";
+    public static final String INSERTED = "+";
+
+    /**
+     * @return True if the change affected all players (e.g. a bulk update, an import or clearing the database)
+     */
+    public boolean isGlobal() {
+        return ALL_PLAYERS.equals(uuid);
+    }
+
+    /**
+     * @return True if the player was newly created
+     */
+    public boolean isInsert() {
+        return fields.contains(INSERTED);
+    }
+
+    /**
+     * @param field The column to check
+     * @return True if the column was changed
+     */
+    public boolean affects(String field) {
+        return fields.contains(field) || fields.contains(ALL_PLAYERS) || isInsert();
+    }
+
+    /**
+     * @return The UUID of the changed player, or null if the change affected all players
+     */
+    public UUID getPlayerUuid() {
+        return isGlobal() ? null : UUID.fromString(uuid);
+    }
+}
@@ -0,0 +1,167 @@
+package com.zetaplugins.lifestealz.storage.sync;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.Storage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Polls the hearts_changes table for changes made by other servers that share the same database
+ * and passes them to a handler, so this server can update its caches.
+ */
+public final class ChangeLogPoller {
+    static final int BATCH_SIZE = 1000;
+
+    /**
+     * Changes are re-read for this long, because a transaction with a lower sequence number can commit after a higher one
+     */
+    private static final long LATE_COMMIT_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final long PRUNE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final LifeStealZ plugin;
+    private final Logger logger;
+    private final ChangeSource changes;
+    private final String serverId;
+    private final Consumer<ChangeLogEntry> handler;
+    private final long retentionMillis;
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+    private final Map<Long, Long> recentlyProcessed = new HashMap<>();
+    private long lastSequence;
+    private long lastPrune = 0L;
+
+    /**
+     * @param plugin The plugin instance
+     * @param storage The storage to poll
+     * @param serverId The id of this server. Changes made by this server are skipped.
+     * @param handler Handler for changes made by other servers. It is called asynchronously.
+     * @param retentionMillis How long changes are kept in the database before they are pruned
+     */
+    public ChangeLogPoller(LifeStealZ plugin, Storage storage, String serverId, Consumer<ChangeLogEntry> handler, long retentionMillis) {
+        this(plugin, plugin.getLogger(), ChangeSource.of(storage), serverId, handler, retentionMillis);
+    }
+
+    /**
+     * Create a poller that can only be polled manually, because {@link #start(long)} needs the plugin
+     * @param logger The logger for failed handler calls
+     * @param changes The change log to poll
+     * @param serverId The id of this server. Changes made by this server are skipped.
+     * @param handler Handler for changes made by other servers
+     * @param retentionMillis How long changes are kept in the database before they are pruned
+     */
+    ChangeLogPoller(Logger logger, ChangeSource changes, String serverId, Consumer<ChangeLogEntry> handler, long retentionMillis) {
+        this(null, logger, changes, serverId, handler, retentionMillis);
+    }
+
+    private ChangeLogPoller(LifeStealZ plugin, Logger logger, ChangeSource changes, String serverId, Consumer<ChangeLogEntry> handler, long retentionMillis) {
+        this.plugin = plugin;
+        this.logger = logger;
+        this.changes = changes;
+        this.serverId = serverId;
+        this.handler = handler;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /**
+     * Start polling. Only changes made after this call are handled.
+     * @param intervalTicks The interval between polls in ticks
+     */
+    public void start(long intervalTicks) {
+        lastSequence = changes.getLatestChangeSequence();
+        plugin.getAsyncTaskManager().addTask(
+                plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::poll, intervalTicks, intervalTicks)
+        );
+    }
+
+    /**
+     * Read and handle all new changes. Overlapping calls are skipped.
+     */
+    public void poll() {
+        if (!polling.compareAndSet(false, true)) return;
+
+        try {
+            final long now = System.currentTimeMillis();
+            final long windowStart = now - LATE_COMMIT_WINDOW_MILLIS;
+            recentlyProcessed.values().removeIf(changedAt -> changedAt < windowStart);
+
+            // Re-scan the late commit window for changes below the last sequence that committed after the last poll
+            final long scannedUpTo = lastSequence;
+            long cursor = 0L;
+            while (cursor < scannedUpTo) {
+                List<ChangeLogEntry> batch = changes.getChanges(cursor, windowStart, BATCH_SIZE);
+                for (ChangeLogEntry change : batch) {
+                    if (change.sequence() <= scannedUpTo) handle(change);
+                }
+                if (batch.size() < BATCH_SIZE) break;
+                cursor = batch.get(batch.size() - 1).sequence();
+            }
+
+            // Read the changes after the last sequence
+            while (true) {
+                List<ChangeLogEntry> batch = changes.getChanges(lastSequence, 0L, BATCH_SIZE);
+                for (ChangeLogEntry change : batch) {
+                    handle(change);
+                    lastSequence = Math.max(lastSequence, change.sequence());
+                }
+                if (batch.size() < BATCH_SIZE) break;
+            }
+
+            if (now - lastPrune >= PRUNE_INTERVAL_MILLIS) {
+                lastPrune = now;
+                changes.pruneChanges(now - retentionMillis);
+            }
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    /**
+     * Pass a change to the handler, unless it was already handled or was made by this server
+     */
+    private void handle(ChangeLogEntry change) {
+        if (recentlyProcessed.putIfAbsent(change.sequence(), change.changedAt()) != null) return;
+        if (serverId.equals(change.serverId())) return;
+
+        try {
+            handler.accept(change);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Failed to handle change of player " + change.uuid() + ":", e);
+        }
+    }
+
+    /**
+     * The change log reads of {@link Storage} that the poller needs
+     */
+    interface ChangeSource {
+        long getLatestChangeSequence();
+
+        List<ChangeLogEntry> getChanges(long afterSequence, long changedSince, int limit);
+
+        void pruneChanges(long olderThan);
+
+        static ChangeSource of(Storage storage) {
+            return new ChangeSource() {
+                @Override
+                public long getLatestChangeSequence() {
+                    return storage.getLatestChangeSequence();
+                }
+
+                @Override
+                public List<ChangeLogEntry> getChanges(long afterSequence, long changedSince, int limit) {
+                    return storage.getChanges(afterSequence, changedSince, limit);
+                }
+
+                @Override
+                public void pruneChanges(long olderThan) {
+                    storage.pruneChanges(olderThan);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.zetaplugins.lifestealz.storage.sync;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.storage.PlayerData;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Applies changes that other servers made to the shared database to the caches
+ * and online players of this server
+ */
+public final class RemoteChangeHandler implements Consumer<ChangeLogEntry> {
+    private final LifeStealZ plugin;
+
+    public RemoteChangeHandler(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void accept(ChangeLogEntry change) {
+        if (change.isGlobal()) {
+            plugin.getEliminatedPlayersCache().reloadCache();
+            plugin.getOfflinePlayerCache().reloadCache();
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                refreshOnlinePlayer(player.getUniqueId(), plugin.getStorage().load(player.getUniqueId()));
+            }
+            return;
+        }
+
+        UUID uuid = change.getPlayerUuid();
+        PlayerData playerData = plugin.getStorage().load(uuid);
+        if (playerData == null) {
+            plugin.getEliminatedPlayersCache().markRevived(uuid);
+            return;
+        }
+
+        if (change.isInsert() && playerData.getName() != null) {
+            plugin.getOfflinePlayerCache().addItem(playerData.getName());
+        }
+
+        if (change.affects("maxhp")) {
+            if (playerData.getMaxHealth() <= plugin.getConfig().getInt("minHearts") * 2) {
+                plugin.getEliminatedPlayersCache().markEliminated(uuid, playerData.getName());
+            } else {
+                plugin.getEliminatedPlayersCache().markRevived(uuid);
+            }
+            refreshOnlinePlayer(uuid, playerData);
+        }
+    }
+
+    /**
+     * Applies the stored max health to a player if they are online on this server
+     * @param uuid The UUID of the player
+     * @param playerData The current data of the player
+     */
+    private void refreshOnlinePlayer(UUID uuid, PlayerData playerData) {
+        if (playerData == null) return;
+
+        if (playerData.getMaxHealth() <= 0) return;
+        plugin.getWorkQueue().submit(uuid, player -> LifeStealZ.setMaxHealth(player, playerData.getMaxHealth()));
+    }
+}
@@ -1,11 +1,174 @@
 package com.zetaplugins.lifestealz.util;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Keeps track of the running cooldowns of players.
+ *
+ * <p>Every {@link Type} has its own open-addressing table that maps a UUID (stored as two longs) to the time its
+ * cooldown ends, so checking or starting a cooldown doesn't allocate. Expired cooldowns are swept lazily whenever
+ * a table has to grow, so a table only ever holds about as many entries as there are running cooldowns.
+ * All methods are thread-safe.</p>
+ */
 public final class CooldownManager {
-    public static Map<UUID, Long> lastHeartUse = new HashMap<>();
-    public static Map<UUID, Long> lastHeartGain = new HashMap<>();
-    public static Map<UUID, Long> lastHeartPickupMessage = new HashMap<>();
+    private final Table[] tables = new Table[Type.values().length];
+
+    public CooldownManager() {
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new Table();
+        }
+    }
+
+    /**
+     * Start the cooldown if it is not running
+     * @param type The type of the cooldown
+     * @param uuid The UUID of the player
+     * @param durationMillis How long the cooldown should last
+     * @return True if the cooldown was started, false if it is still running
+     */
+    public boolean tryAcquire(Type type, UUID uuid, long durationMillis) {
+        return tables[type.ordinal()].tryAcquire(uuid, durationMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Start the cooldown, even if it is already running
+     * @param type The type of the cooldown
+     * @param uuid The UUID of the player
+     * @param durationMillis How long the cooldown should last
+     */
+    public void start(Type type, UUID uuid, long durationMillis) {
+        tables[type.ordinal()].start(uuid, durationMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the remaining time of a cooldown
+     * @param type The type of the cooldown
+     * @param uuid The UUID of the player
+     * @return The remaining time in milliseconds, or 0 if the cooldown is not running
+     */
+    public long remaining(Type type, UUID uuid) {
+        return tables[type.ordinal()].remaining(uuid, System.currentTimeMillis());
+    }
+
+    /**
+     * Check if a cooldown is running
+     * @param type The type of the cooldown
+     * @param uuid The UUID of the player
+     * @return True if the cooldown is running
+     */
+    public boolean isOnCooldown(Type type, UUID uuid) {
+        return remaining(type, uuid) > 0;
+    }
+
+    public enum Type {
+        /** Using a heart item */
+        HEART_USE,
+        /** Gaining a heart by killing a player or picking up a heart */
+        HEART_GAIN,
+        /** The message that a heart can't be picked up during the heart gain cooldown */
+        HEART_PICKUP_MESSAGE
+    }
+
+    private static final class Table {
+        private static final int INITIAL_CAPACITY = 64;
+        /** A cooldown always ends after the epoch, so 0 marks an empty slot */
+        private static final long EMPTY = 0L;
+
+        private long[] mostSigBits;
+        private long[] leastSigBits;
+        private long[] endTimes;
+        private int size;
+
+        private Table() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private synchronized boolean tryAcquire(UUID uuid, long durationMillis, long now) {
+            int slot = findSlot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (endTimes[slot] > now) return false;
+            put(slot, uuid, now + durationMillis, now);
+            return true;
+        }
+
+        private synchronized void start(UUID uuid, long durationMillis, long now) {
+            put(findSlot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()), uuid, now + durationMillis, now);
+        }
+
+        private synchronized long remaining(UUID uuid, long now) {
+            int slot = findSlot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return Math.max(0, endTimes[slot] - now);
+        }
+
+        private void put(int slot, UUID uuid, long endTime, long now) {
+            if (endTime <= now) return;
+
+            if (endTimes[slot] != EMPTY) {
+                endTimes[slot] = endTime;
+                return;
+            }
+
+            if ((size + 1) * 2 > endTimes.length) {
+                rehash(now);
+                slot = findSlot(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            }
+            mostSigBits[slot] = uuid.getMostSignificantBits();
+            leastSigBits[slot] = uuid.getLeastSignificantBits();
+            endTimes[slot] = endTime;
+            size++;
+        }
+
+        /**
+         * @return The slot of the UUID, or the empty slot where it would be inserted
+         */
+        private int findSlot(long most, long least) {
+            int mask = endTimes.length - 1;
+            int slot = hash(most, least) & mask;
+            while (endTimes[slot] != EMPTY && (mostSigBits[slot] != most || leastSigBits[slot] != least)) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Drop expired cooldowns and grow the table if it is still more than a quarter full, so inserts stay amortized constant
+         */
+        private void rehash(long now) {
+            long[] oldMostSigBits = mostSigBits;
+            long[] oldLeastSigBits = leastSigBits;
+            long[] oldEndTimes = endTimes;
+
+            int live = 0;
+            for (long endTime : oldEndTimes) {
+                if (endTime > now) live++;
+            }
+            int capacity = INITIAL_CAPACITY;
+            while (capacity < (live + 1) * 4) capacity <<= 1;
+
+            allocate(capacity);
+            for (int i = 0; i < oldEndTimes.length; i++) {
+                if (oldEndTimes[i] <= now) continue;
+
+                int slot = findSlot(oldMostSigBits[i], oldLeastSigBits[i]);
+                mostSigBits[slot] = oldMostSigBits[i];
+                leastSigBits[slot] = oldLeastSigBits[i];
+                endTimes[slot] = oldEndTimes[i];
+                size++;
+            }
+        }
+
+        private void allocate(int capacity) {
+            mostSigBits = new long[capacity];
+            leastSigBits = new long[capacity];
+            endTimes = new long[capacity];
+            size = 0;
+        }
+
+        /**
+         * Random UUIDs are already well distributed, but offline mode UUIDs are name based, so the bits are mixed anyway
+         */
+        private static int hash(long most, long least) {
+            long hash = (most ^ least) * 0x9e3779b97f4a7c15L;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
 }
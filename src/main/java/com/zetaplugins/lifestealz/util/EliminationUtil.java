@@ -2,6 +2,7 @@ package com.zetaplugins.lifestealz.util;
 
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.ledger.HeartChangeCause;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
@@ -25,8 +26,10 @@ public class EliminationUtil {
      */
     public static void eliminatePlayer(LifeStealZ plugin, Player player, PlayerData playerData, boolean announce) {
         // Set player to 0 hearts
+        plugin.getHeartLedger().record(player.getUniqueId(), playerData.getMaxHealth(), 0.0, HeartChangeCause.ELIMINATION, null);
         playerData.setMaxHealth(0.0);
         plugin.getStorage().save(playerData);
+        plugin.getEliminatedPlayersCache().markEliminated(player.getUniqueId(), player.getName());
         
         // Execute elimination commands
         final var elimCommands = plugin.getConfig().getStringList("eliminationCommands");
@@ -4,14 +4,18 @@ import net.kyori.adventure.text.Component;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 import com.zetaplugins.lifestealz.LifeStealZ;
 import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataField;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
 
 public final class GracePeriodManager {
+    private static final String TIMER_TYPE = "gracePeriodEnd";
+
     private final LifeStealZ plugin;
 
     public GracePeriodManager(LifeStealZ plugin) {
@@ -34,11 +38,19 @@ public final class GracePeriodManager {
     public boolean isInGracePeriod(OfflinePlayer player) {
         if (!isEnabled()) return false;
 
-        PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
+        OptionalLong storedFirstJoin = plugin.getStorage().loadLong(player.getUniqueId(), PlayerDataField.FIRST_JOIN);
 
-        if (playerData == null) return false;
+        return storedFirstJoin.isPresent() && isInGracePeriod(storedFirstJoin.getAsLong());
+    }
+
+    /**
+     * Checks if a player with the given first join time is in the grace period.
+     * @param firstJoin The first join time of the player in milliseconds.
+     * @return True if the player is in the grace period, false otherwise.
+     */
+    public boolean isInGracePeriod(long firstJoin) {
+        if (!isEnabled()) return false;
 
-        long firstJoin = playerData.getFirstJoin();
         final long now = System.currentTimeMillis();
         final long gracePeriodDuration = (long) getConfig().getDuration() * 1000;
 
@@ -53,11 +65,20 @@ public final class GracePeriodManager {
     public Optional<Integer> getGracePeriodRemaining(Player player) {
         if (!isEnabled()) return Optional.empty();
 
-        PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
+        OptionalLong storedFirstJoin = plugin.getStorage().loadLong(player.getUniqueId(), PlayerDataField.FIRST_JOIN);
+
+        if (storedFirstJoin.isEmpty()) return Optional.empty();
+        return getGracePeriodRemaining(storedFirstJoin.getAsLong());
+    }
 
-        if (playerData == null) return Optional.empty();
+    /**
+     * Gets the remaining time of the grace period of a player with the given first join time.
+     * @param firstJoin The first join time of the player in milliseconds.
+     * @return The remaining time of the grace period.
+     */
+    public Optional<Integer> getGracePeriodRemaining(long firstJoin) {
+        if (!isEnabled()) return Optional.empty();
 
-        long firstJoin = playerData.getFirstJoin();
         final long now = System.currentTimeMillis();
         final long gracePeriodDuration = (long) getConfig().getDuration() * 1000;
 
@@ -78,24 +99,39 @@ public final class GracePeriodManager {
                     command.replace("&player&", player.getName()));
         }
 
-        // Duration in ticks: 20 ticks = 1 second
-        final long gracePeriodDuration = (long) getConfig().getDuration() * 20;
+        scheduleGracePeriodEnd(player, System.currentTimeMillis());
+    }
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                endGracePeriod(player);
-            }
-        }.runTaskLater(plugin, gracePeriodDuration);
+    /**
+     * Schedules the end of the grace period of a player, e.g. again after a restart when the player joins.
+     * Does nothing if the player is not in the grace period.
+     * @param player The player to schedule the end of the grace period for.
+     * @param firstJoin The first join time of the player in milliseconds.
+     */
+    public void scheduleGracePeriodEnd(OfflinePlayer player, long firstJoin) {
+        if (!isInGracePeriod(firstJoin)) return;
+
+        final long gracePeriodEnd = firstJoin + getConfig().getDuration() * 1000L;
+        plugin.getTimingWheel().scheduleAt(getTimerKey(player.getUniqueId()), gracePeriodEnd, () -> endGracePeriod(player));
     }
 
     /**
      * Sends the player a message and executes commands when the grace period ends.
-     * @param player The player to end the grace period for.
+     * @param player The player to end the grace period for. The message is only sent if the player is online.
      */
-    public void endGracePeriod(Player player) {
+    public void endGracePeriod(OfflinePlayer player) {
         if (!isEnabled()) return;
 
+        Player onlinePlayer = player.getPlayer();
+        if (onlinePlayer != null) sendGracePeriodEndEffects(onlinePlayer);
+
+        for (String command : getConfig().getEndCommands()) {
+            plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(),
+                    command.replace("&player&", player.getName()));
+        }
+    }
+
+    private void sendGracePeriodEndEffects(Player player) {
         if (getConfig().shouldAnnounce()) {
             Component endMessage = MessageUtils.getAndFormatMsg(
                     true,
@@ -108,11 +144,6 @@ public final class GracePeriodManager {
         if (getConfig().shouldPlaySound()) {
             player.playSound(player.getLocation(), Sound.BLOCK_BEACON_DEACTIVATE, 500.0f, 1.0f);
         }
-
-        for (String command : getConfig().getEndCommands()) {
-            plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(),
-                    command.replace("&player&", player.getName()));
-        }
     }
 
     /**
@@ -129,6 +160,7 @@ public final class GracePeriodManager {
 
         playerData.setFirstJoin(System.currentTimeMillis() - getConfig().getDuration() * 1000L);// Subtract the duration of the grace period
         plugin.getStorage().save(playerData);
+        plugin.getTimingWheel().cancel(getTimerKey(player.getUniqueId()));
 
         for (String command : getConfig().getEndCommands()) {
             plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(),
@@ -151,6 +183,7 @@ public final class GracePeriodManager {
 
         playerData.setFirstJoin(System.currentTimeMillis());
         plugin.getStorage().save(playerData);
+        scheduleGracePeriodEnd(player, playerData.getFirstJoin());
 
         for (String command : getConfig().getStartCommands()) {
             plugin.getServer().dispatchCommand(plugin.getServer().getConsoleSender(),
@@ -160,6 +193,10 @@ public final class GracePeriodManager {
         return true;
     }
 
+    private static TimingWheel.Key getTimerKey(UUID uuid) {
+        return new TimingWheel.Key(TIMER_TYPE, uuid);
+    }
+
     public static class GracePeriodConfig {
         private final LifeStealZ plugin;
 
@@ -25,7 +25,7 @@ public final class GuiManager {
     private GuiManager() {}
 
     public static void openReviveGui(Player player, int page) {
-        List<UUID> eliminatedPlayers = LifeStealZ.getInstance().getStorage().getEliminatedPlayers();
+        List<UUID> eliminatedPlayers = LifeStealZ.getInstance().getEliminatedPlayersCache().getEliminatedPlayers();
 
         Inventory inventory = getReviveInventory(eliminatedPlayers, page, LifeStealZ.getInstance());
 
@@ -34,7 +34,7 @@ public final class GuiManager {
     }
 
     public static void openReviveBeaconGui(Player player, int page, LifeStealZ plugin, Location beaconLocation) {
-        List<UUID> eliminatedPlayers = plugin.getStorage().getEliminatedPlayers();
+        List<UUID> eliminatedPlayers = plugin.getEliminatedPlayersCache().getEliminatedPlayers();
 
         Inventory inventory = getReviveInventory(eliminatedPlayers, page, plugin);
 
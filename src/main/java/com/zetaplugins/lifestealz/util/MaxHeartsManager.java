@@ -2,7 +2,8 @@ package com.zetaplugins.lifestealz.util;
 
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
-import org.bukkit.permissions.PermissionAttachmentInfo;
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.caches.PermissionLimitsCache;
 
 /**
  * Utility class to manage the maximum number of hearts a player can have.
@@ -12,26 +13,14 @@ public final class MaxHeartsManager {
 
     /**
      * Returns the maximum number of hearts a player can have.
+     * The permission part is read from the {@link PermissionLimitsCache}, so this is cheap to call.
      * @param player the player to check
      * @param config the LifeStealZ main configuration
      * @return the maximum number of hearts the player can have
      */
     public static double getMaxHearts(Player player, FileConfiguration config) {
-        final double configMaxHearts = config.getInt("maxHearts") * 2;
-
-        int highestFound = -1;
-
-        for (PermissionAttachmentInfo permInfo : player.getEffectivePermissions()) {
-            String perm = permInfo.getPermission();
-            if (perm.startsWith("lifestealz.maxhearts.")) {
-                try {
-                    String numberPart = perm.substring("lifestealz.maxhearts.".length());
-                    int hearts = Integer.parseInt(numberPart) * 2;
-                    if (hearts > highestFound) highestFound = hearts;
-                } catch (NumberFormatException ignored) {}
-            }
-        }
-
-        return highestFound == -1 ? configMaxHearts : highestFound;
+        PermissionLimitsCache.PermissionLimits limits = LifeStealZ.getInstance().getPermissionLimitsCache().get(player);
+        if (limits.hasMaxHeartsPermission()) return limits.maxHearts();
+        return config.getInt("maxHearts") * 2;
     }
 }
@@ -7,8 +7,15 @@ import org.bukkit.attribute.AttributeInstance;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import com.zetaplugins.lifestealz.LifeStealZ;
-import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
+import com.zetaplugins.lifestealz.storage.RankedPlayer;
+import com.zetaplugins.lifestealz.util.leaderboard.Leaderboard;
+import com.zetaplugins.lifestealz.util.leaderboard.LeaderboardType;
 
+/**
+ * The PlaceholderAPI expansion of LifeStealZ. Stored values are read from the {@link PlaceholderCache},
+ * so placeholders never query the database.
+ */
 public final class PapiExpansion extends PlaceholderExpansion {
     private final LifeStealZ plugin;
 
@@ -38,6 +45,9 @@ public final class PapiExpansion extends PlaceholderExpansion {
 
     @Override
     public String onRequest(OfflinePlayer player, @NotNull String identifier) {
+        // Top lists don't depend on the player, so they also work in global placeholders
+        if (identifier.startsWith("top_")) return onLeaderboardRequest(player, identifier);
+
         if (player == null || player.getPlayer() == null) return "PlayerNotFound";
 
         switch (identifier) {
@@ -56,12 +66,10 @@ public final class PapiExpansion extends PlaceholderExpansion {
                 }
 
                 // Fallback to stored data
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                return String.valueOf((int) (playerData.getMaxHealth() / 2));
+                return String.valueOf((int) (getSnapshot(player).maxHealth() / 2));
             }
             case "revived": {
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                return String.valueOf(playerData.getHasBeenRevived());
+                return String.valueOf(getSnapshot(player).hasBeenRevived());
             }
             case "health": {
                 return String.valueOf((int) (player.getPlayer().getHealth() / 2));
@@ -78,46 +86,84 @@ public final class PapiExpansion extends PlaceholderExpansion {
                 return String.valueOf(plugin.getConfig().getInt("maxRevives"));
             }
             case "craftedhearts": {
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                return String.valueOf(playerData.getCraftedHearts());
+                return String.valueOf(getSnapshot(player).craftedHearts());
             }
             case "craftedrevives": {
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                return String.valueOf(playerData.getCraftedRevives());
+                return String.valueOf(getSnapshot(player).craftedRevives());
             }
             case "isInGracePeriod": {
                 GracePeriodManager gracePeriodManager = plugin.getGracePeriodManager();
                 if (!gracePeriodManager.isEnabled()) return "false";
-                return String.valueOf(gracePeriodManager.isInGracePeriod(player.getPlayer()));
+                return String.valueOf(gracePeriodManager.isInGracePeriod(getSnapshot(player).firstJoin()));
             }
             case "gracePeriodRemaining": {
                 GracePeriodManager gracePeriodManager = plugin.getGracePeriodManager();
                 if (!gracePeriodManager.isEnabled()) return "-1";
                 return TimeFormatter.formatDuration(
-                        gracePeriodManager.getGracePeriodRemaining(player.getPlayer()).orElse(0)
+                        gracePeriodManager.getGracePeriodRemaining(getSnapshot(player).firstJoin()).orElse(0)
                 );
             }
             case "hasBypass": {
                 return String.valueOf(plugin.getBypassManager().hasBypass(player.getPlayer()));
             }
             case "heartCooldown": {
-                long heartCooldownTime = plugin.getConfig().getLong("heartCooldown");
-                final long now = System.currentTimeMillis();
-                long lastHeartUse = CooldownManager.lastHeartUse.getOrDefault(player.getUniqueId(), 0L);
-                long timeLeft = lastHeartUse + heartCooldownTime - now;
+                long timeLeft = plugin.getCooldownManager().remaining(CooldownManager.Type.HEART_USE, player.getUniqueId());
                 return TimeFormatter.formatDuration(timeLeft);
             }
             case "prestige_count": {
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                return String.valueOf(playerData.getPrestigeCount());
+                return String.valueOf(getSnapshot(player).prestigeCount());
             }
             case "prestige": {
-                PlayerData playerData = plugin.getStorage().load(player.getUniqueId());
-                int prestigeCount = playerData.getPrestigeCount();
+                int prestigeCount = getSnapshot(player).prestigeCount();
                 return prestigeCount > 0 ? String.valueOf(prestigeCount) : "None";
             }
         }
 
+        if (identifier.startsWith("rank_")) {
+            return onLeaderboardRequest(player, identifier);
+        }
+
         return "InvalidPlaceholder";
     }
+
+    /**
+     * Handles %lifestealz_top_<type>_<position>_<name|value>% and %lifestealz_rank_<type>%
+     */
+    private String onLeaderboardRequest(OfflinePlayer player, String identifier) {
+        String[] parts = identifier.split("_");
+        LeaderboardType type = parts.length >= 2 ? LeaderboardType.fromId(parts[1]) : null;
+        if (type == null) return "InvalidPlaceholder";
+
+        Leaderboard leaderboard = plugin.getLeaderboardManager().getLeaderboard(type);
+
+        if (parts[0].equals("rank") && parts.length == 2) {
+            long rank = leaderboard.getRank(player.getUniqueId());
+            return rank > 0 ? String.valueOf(rank) : "-";
+        }
+
+        if (parts[0].equals("top") && parts.length == 4) {
+            int position;
+            try {
+                position = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                return "InvalidPlaceholder";
+            }
+
+            RankedPlayer entry = leaderboard.getEntry(position);
+            switch (parts[3]) {
+                case "name": {
+                    return entry != null && entry.name() != null ? entry.name() : "-";
+                }
+                case "value": {
+                    return entry != null ? type.formatValue(entry.value()) : "-";
+                }
+            }
+        }
+
+        return "InvalidPlaceholder";
+    }
+
+    private PlaceholderCache.Snapshot getSnapshot(OfflinePlayer player) {
+        return plugin.getPlaceholderCache().get(player.getUniqueId());
+    }
 }
@@ -1,14 +1,35 @@
 package com.zetaplugins.lifestealz.util;
 
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.caches.PermissionLimitsCache;
+import com.zetaplugins.lifestealz.storage.PlayerDataField;
+import com.zetaplugins.lifestealz.storage.Storage;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 /**
@@ -35,11 +56,13 @@ import java.util.logging.Logger;
  */
 public class PrestigePermissionManager {
     
-    private static final String PERMISSION_PREFIX = "lifestealz.prestige.multiplier.";
+    private static final String PERMISSION_PREFIX = PermissionLimitsCache.PRESTIGE_MULTIPLIER_PREFIX;
     
     private final LuckPerms luckPerms;
     private final Logger logger;
-    private final FileConfiguration config;
+    private final Supplier<FileConfiguration> config;
+    private final ExecutorService executor;
+    private final AtomicBoolean resyncRunning = new AtomicBoolean(false);
     
     /**
      * Creates a new PrestigePermissionManager.
@@ -49,9 +72,48 @@ public class PrestigePermissionManager {
      * @param config Configuration file for reading multiplier settings
      */
     public PrestigePermissionManager(LuckPerms luckPerms, Logger logger, FileConfiguration config) {
+        this(luckPerms, logger, () -> config);
+    }
+    
+    /**
+     * Creates a new PrestigePermissionManager that always reads the current configuration,
+     * so multiplier changes are picked up after a reload.
+     * 
+     * @param luckPerms The LuckPerms API instance
+     * @param logger Logger for debug messages
+     * @param config Supplier of the configuration for reading multiplier settings
+     */
+    public PrestigePermissionManager(LuckPerms luckPerms, Logger logger, Supplier<FileConfiguration> config) {
         this.luckPerms = luckPerms;
         this.logger = logger;
         this.config = config;
+        this.executor = createExecutor(Math.max(1, config.get().getInt("prestige.multiplier.resync-parallelism", 4)));
+    }
+    
+    /**
+     * Creates the executor that LuckPerms node updates run on.
+     * Threads are daemon threads and time out when idle, so nothing lingers after a resync.
+     * 
+     * @param parallelism The maximum amount of users that are updated at the same time
+     * @return The executor
+     */
+    private static ExecutorService createExecutor(int parallelism) {
+        AtomicInteger threadCount = new AtomicInteger();
+        // One extra thread for the resync job that feeds the batches
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(
+                parallelism + 1,
+                parallelism + 1,
+                30L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "LifeStealZ-PrestigeSync-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
     }
     
     /**
@@ -72,28 +134,15 @@ public class PrestigePermissionManager {
         
         return CompletableFuture.supplyAsync(() -> {
             try {
-                User user = luckPerms.getUserManager().loadUser(player.getUniqueId()).join();
-                if (user == null) {
+                NodeUpdateResult result = applyMultiplierNode(player.getUniqueId(), prestigeLevel);
+                if (result == NodeUpdateResult.FAILED) {
                     logger.warning("Failed to load LuckPerms user for " + player.getName());
                     return false;
                 }
                 
-                // Remove all old prestige multiplier permissions
-                user.data().toCollection().stream()
-                    .filter(node -> node.getKey().startsWith(PERMISSION_PREFIX))
-                    .forEach(node -> user.data().remove(node));
-                
-                // Add new multiplier permission if prestige > 0
                 if (prestigeLevel > 0) {
-                    String multiplierPermission = calculateMultiplierPermission(prestigeLevel);
-                    Node permNode = Node.builder(multiplierPermission).build();
-                    user.data().add(permNode);
-                    
-                    logger.info("Granted " + player.getName() + " permission: " + multiplierPermission);
+                    logger.info("Granted " + player.getName() + " permission: " + calculateMultiplierPermission(prestigeLevel));
                 }
-                
-                // Save to database
-                luckPerms.getUserManager().saveUser(user);
                 return true;
                 
             } catch (Exception e) {
@@ -101,7 +150,123 @@ public class PrestigePermissionManager {
                 e.printStackTrace();
                 return false;
             }
-        });
+        }, executor);
+    }
+    
+    /**
+     * Replaces all prestige multiplier nodes of a user with the one for the given level.
+     * Blocks until LuckPerms has loaded and saved the user, so it must be called off the main thread.
+     * 
+     * @param uuid The UUID of the user
+     * @param prestigeLevel The prestige level of the user
+     * @return Whether the user was updated, already up to date or could not be loaded
+     */
+    private NodeUpdateResult applyMultiplierNode(UUID uuid, int prestigeLevel) {
+        User user = luckPerms.getUserManager().loadUser(uuid).join();
+        if (user == null) return NodeUpdateResult.FAILED;
+        
+        String multiplierPermission = prestigeLevel > 0 ? calculateMultiplierPermission(prestigeLevel) : null;
+        
+        List<Node> oldNodes = user.data().toCollection().stream()
+            .filter(node -> node.getKey().startsWith(PERMISSION_PREFIX))
+            .toList();
+        
+        boolean upToDate = multiplierPermission == null
+            ? oldNodes.isEmpty()
+            : oldNodes.size() == 1 && oldNodes.get(0).getKey().equals(multiplierPermission);
+        if (upToDate) return NodeUpdateResult.UNCHANGED;
+        
+        // Remove all old prestige multiplier permissions
+        oldNodes.forEach(node -> user.data().remove(node));
+        
+        // Add new multiplier permission if prestige > 0
+        if (multiplierPermission != null) {
+            user.data().add(Node.builder(multiplierPermission).build());
+        }
+        
+        // Save to database
+        luckPerms.getUserManager().saveUser(user).join();
+        return NodeUpdateResult.UPDATED;
+    }
+    
+    /**
+     * Recomputes the multiplier node of every player that has prestiged, e.g. after
+     * {@code prestige.multiplier.increment} was changed, and removes the nodes of players whose prestige was reset.
+     * 
+     * <p>Players are read from storage page by page ({@code prestige.multiplier.resync-batch-size})
+     * and each page is applied to LuckPerms in parallel on this manager's executor. Players with a prestige count
+     * of 0 are found through LuckPerms instead (only the users that still hold a multiplier node), so the resync
+     * doesn't have to load every user. Only one resync can run at a time.</p>
+     * 
+     * @param storage The storage to read the prestige counts from
+     * @param progressListener Called after every batch with the progress so far
+     * @return CompletableFuture with the final statistics, or null if a resync is already running
+     */
+    public CompletableFuture<ResyncStats> resyncAll(Storage storage, Consumer<ResyncStats> progressListener) {
+        if (!resyncRunning.compareAndSet(false, true)) return null;
+        
+        final int batchSize = Math.max(1, config.get().getInt("prestige.multiplier.resync-batch-size", 50));
+        
+        return CompletableFuture.supplyAsync(() -> {
+            final ResyncProgress progress = new ResyncProgress(System.currentTimeMillis());
+            
+            // Users that hold a multiplier node but are not visited through the prestige pages had their prestige reset
+            Set<UUID> nodeHolders = new HashSet<>(luckPerms.getUserManager()
+                .searchAll(NodeMatcher.keyStartsWith(PERMISSION_PREFIX)).join().keySet());
+            
+            String lastUuid = null;
+            while (true) {
+                Map<UUID, Integer> page = storage.getPrestigeCountsPage(lastUuid, batchSize);
+                if (page.isEmpty()) break;
+                
+                applyBatch(page, progress);
+                nodeHolders.removeAll(page.keySet());
+                for (UUID uuid : page.keySet()) lastUuid = uuid.toString();
+                progressListener.accept(progress.toStats());
+                
+                if (page.size() < batchSize) break;
+            }
+            
+            List<UUID> remainingHolders = new ArrayList<>(nodeHolders);
+            for (int from = 0; from < remainingHolders.size(); from += batchSize) {
+                Map<UUID, Integer> batch = new LinkedHashMap<>();
+                for (UUID uuid : remainingHolders.subList(from, Math.min(from + batchSize, remainingHolders.size()))) {
+                    // Players that are not stored (e.g. manual grants to players that never joined) are left alone
+                    OptionalLong prestigeCount = storage.loadLong(uuid, PlayerDataField.PRESTIGE_COUNT);
+                    if (prestigeCount.isPresent()) batch.put(uuid, (int) prestigeCount.getAsLong());
+                }
+                if (batch.isEmpty()) continue;
+                
+                applyBatch(batch, progress);
+                progressListener.accept(progress.toStats());
+            }
+            
+            return progress.toStats();
+        }, executor).whenComplete((stats, throwable) -> resyncRunning.set(false));
+    }
+    
+    /**
+     * Applies the multiplier nodes of a batch of players in parallel and waits for all of them
+     * 
+     * @param prestigeCounts The prestige counts of the players
+     * @param progress The progress to add the results to
+     */
+    private void applyBatch(Map<UUID, Integer> prestigeCounts, ResyncProgress progress) {
+        List<CompletableFuture<NodeUpdateResult>> batch = new ArrayList<>(prestigeCounts.size());
+        for (Map.Entry<UUID, Integer> entry : prestigeCounts.entrySet()) {
+            batch.add(CompletableFuture.supplyAsync(() -> applyMultiplierNode(entry.getKey(), entry.getValue()), executor)
+                .exceptionally(throwable -> {
+                    logger.warning("Failed to resync prestige multiplier for " + entry.getKey() + ": " + throwable.getMessage());
+                    return NodeUpdateResult.FAILED;
+                }));
+        }
+        
+        for (CompletableFuture<NodeUpdateResult> future : batch) {
+            NodeUpdateResult result = future.join();
+            progress.processed++;
+            if (result == NodeUpdateResult.UPDATED) progress.updated++;
+            else if (result == NodeUpdateResult.FAILED) progress.failed++;
+        }
     }
     
     /**
@@ -126,8 +291,8 @@ public class PrestigePermissionManager {
      * @return The permission string (e.g., "lifestealz.prestige.multiplier.105")
      */
     private String calculateMultiplierPermission(int prestigeLevel) {
-        double baseMultiplier = config.getDouble("prestige.multiplier.base", 1.0);
-        double increment = config.getDouble("prestige.multiplier.increment", 0.05);
+        double baseMultiplier = config.get().getDouble("prestige.multiplier.base", 1.0);
+        double increment = config.get().getDouble("prestige.multiplier.increment", 0.05);
         
         double multiplier = baseMultiplier + (prestigeLevel * increment);
         int multiplierValue = (int) Math.round(multiplier * 100);
@@ -145,24 +310,14 @@ public class PrestigePermissionManager {
      * <p>If multiple multiplier permissions exist (e.g., due to manual permission grants),
      * this method returns the <b>highest</b> multiplier value.</p>
      * 
+     * <p>The value is served from the {@link PermissionLimitsCache}, which is refreshed
+     * whenever the player's permissions change.</p>
+     * 
      * @param player The player to check
      * @return The multiplier value (e.g., 1.05, 1.50, 2.00), or 1.0 if no multiplier found
      */
     public static double getPrestigeMultiplier(Player player) {
-        return player.getEffectivePermissions().stream()
-            .map(perm -> perm.getPermission())
-            .filter(perm -> perm.startsWith(PERMISSION_PREFIX))
-            .mapToDouble(perm -> {
-                try {
-                    String multiplierStr = perm.replace(PERMISSION_PREFIX, "");
-                    // Convert "105" → 1.05, "150" → 1.50, "200" → 2.00
-                    return Double.parseDouble(multiplierStr) / 100.0;
-                } catch (NumberFormatException e) {
-                    return 1.0; // Default if parsing fails
-                }
-            })
-            .max() // Get the highest multiplier if multiple exist
-            .orElse(1.0); // Default: no multiplier
+        return LifeStealZ.getInstance().getPermissionLimitsCache().get(player).prestigeMultiplier();
     }
     
     /**
@@ -207,4 +362,48 @@ public class PrestigePermissionManager {
         int multiplierValue = (int) Math.round(multiplier * 100);
         return PERMISSION_PREFIX + multiplierValue;
     }
+    
+    /**
+     * Outcome of updating the multiplier node of a single user.
+     */
+    private enum NodeUpdateResult {
+        UPDATED,
+        UNCHANGED,
+        FAILED
+    }
+    
+    /**
+     * The counters of a running resync. Only used by the resync job thread.
+     */
+    private static final class ResyncProgress {
+        private final long startTime;
+        private int processed;
+        private int updated;
+        private int failed;
+        
+        private ResyncProgress(long startTime) {
+            this.startTime = startTime;
+        }
+        
+        private ResyncStats toStats() {
+            return new ResyncStats(processed, updated, failed, System.currentTimeMillis() - startTime);
+        }
+    }
+    
+    /**
+     * Statistics of a (running or finished) multiplier resync.
+     * 
+     * @param processed The amount of players that were processed
+     * @param updated The amount of players whose node was changed
+     * @param failed The amount of players that could not be updated
+     * @param elapsedMillis The time the resync has been running for
+     */
+    public record ResyncStats(int processed, int updated, int failed, long elapsedMillis) {
+        /**
+         * @return The throughput of the resync in players per second
+         */
+        public double playersPerSecond() {
+            return elapsedMillis == 0 ? processed : processed * 1000.0 / elapsedMillis;
+        }
+    }
 }
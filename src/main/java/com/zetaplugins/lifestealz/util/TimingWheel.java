@@ -0,0 +1,181 @@
+package com.zetaplugins.lifestealz.util;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Runs delayed tasks that expire at a point in time (grace period ends, afterlife releases, beacon revives)
+ * from a single tick task, instead of scheduling one Bukkit task per timer.
+ *
+ * <p>A hashed timing wheel with {@value #WHEEL_SIZE} slots of {@value #SLOT_MILLIS}ms each: a timer is put into the slot
+ * of its deadline, and every tick only the slots that passed since the last tick are checked. Timers further away
+ * than one turn of the wheel stay in their slot until their turn comes. The wheel follows the wall clock, so timers
+ * expire on time even if the server lags. Timers with a key replace the previous timer with the same key.
+ * All methods must be called on the main thread.</p>
+ */
+public final class TimingWheel {
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final long SLOT_MILLIS = 50;
+
+    private final LifeStealZ plugin;
+    private final List<List<Timer>> slots = new ArrayList<>(WHEEL_SIZE);
+    private final Map<Key, Timer> keyedTimers = new HashMap<>();
+    private final List<Timer> dueTimers = new ArrayList<>();
+    private long currentTick;
+    private BukkitTask tickTask;
+
+    public TimingWheel(LifeStealZ plugin) {
+        this.plugin = plugin;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = System.currentTimeMillis() / SLOT_MILLIS;
+    }
+
+    /**
+     * Start the tick task that runs expired timers
+     */
+    public void start() {
+        if (tickTask != null) return;
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * Run a task at a point in time
+     * @param key The key of the timer, replaces the running timer with the same key. May be null.
+     * @param runAt The time to run the task at in milliseconds. Times in the past run on the next tick.
+     * @param task The task to run
+     * @return The timer, which can be cancelled
+     */
+    public Timer scheduleAt(Key key, long runAt, Runnable task) {
+        if (key != null) cancel(key);
+
+        Timer timer = new Timer(key, Math.max(currentTick + 1, Math.ceilDiv(runAt, SLOT_MILLIS)), task);
+        slots.get((int) (timer.deadlineTick & MASK)).add(timer);
+        if (key != null) keyedTimers.put(key, timer);
+        return timer;
+    }
+
+    /**
+     * Run a task after a delay
+     * @param key The key of the timer, replaces the running timer with the same key. May be null.
+     * @param delayMillis The delay in milliseconds
+     * @param task The task to run
+     * @return The timer, which can be cancelled
+     */
+    public Timer schedule(Key key, long delayMillis, Runnable task) {
+        return scheduleAt(key, System.currentTimeMillis() + delayMillis, task);
+    }
+
+    /**
+     * Cancel the timer with a key
+     * @param key The key of the timer
+     * @return True if a timer was cancelled
+     */
+    public boolean cancel(Key key) {
+        Timer timer = keyedTimers.get(key);
+        if (timer == null) return false;
+        timer.cancel();
+        return true;
+    }
+
+    /**
+     * Check if a timer with a key is waiting to run
+     * @param key The key of the timer
+     * @return True if the timer is scheduled
+     */
+    public boolean isScheduled(Key key) {
+        return keyedTimers.containsKey(key);
+    }
+
+    /**
+     * @return The amount of scheduled timers
+     */
+    public int size() {
+        int size = 0;
+        for (List<Timer> slot : slots) size += slot.size();
+        return size;
+    }
+
+    private void tick() {
+        final long nowTick = System.currentTimeMillis() / SLOT_MILLIS;
+        if (nowTick <= currentTick) return;
+
+        // After a long pause every slot has to be checked, but each only once
+        final long firstTick = Math.max(currentTick + 1, nowTick - MASK);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            List<Timer> slot = slots.get((int) (tick & MASK));
+            for (int i = slot.size() - 1; i >= 0; i--) {
+                Timer timer = slot.get(i);
+                if (timer.deadlineTick > nowTick) continue;
+
+                // Swap remove, the order within a slot doesn't matter
+                slot.set(i, slot.get(slot.size() - 1));
+                slot.remove(slot.size() - 1);
+                dueTimers.add(timer);
+            }
+        }
+        currentTick = nowTick;
+
+        // Tasks may schedule or cancel timers, so they only run after the wheel was updated
+        for (Timer timer : dueTimers) {
+            if (timer.key != null) keyedTimers.remove(timer.key, timer);
+            if (timer.cancelled) continue;
+            timer.cancelled = true;
+
+            try {
+                timer.task.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to run timer " + timer.key + ":", e);
+            }
+        }
+        dueTimers.clear();
+    }
+
+    /**
+     * Identifies a timer, e.g. the grace period timer of a player
+     * @param type The kind of the timer
+     * @param id The object the timer belongs to (e.g. a player UUID or a beacon location)
+     */
+    public record Key(String type, Object id) {}
+
+    /**
+     * A scheduled task. Cancelled timers are removed from their slot once their deadline is reached.
+     */
+    public final class Timer {
+        private final Key key;
+        private final long deadlineTick;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private Timer(Key key, long deadlineTick, Runnable task) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        /**
+         * Cancel the timer. Does nothing if it already ran.
+         */
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            if (key != null) keyedTimers.remove(key, this);
+        }
+
+        /**
+         * @return True if the timer was cancelled or already ran
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -22,13 +22,12 @@ public final class VersionChecker {
     private final LifeStealZ plugin;
     private final Logger logger;
     private final String modrinthProjectId;
-    private boolean newVersionAvailable = false;
+    private volatile boolean newVersionAvailable = false;
 
     public VersionChecker(LifeStealZ plugin, String modrinthProjectId) {
         this.plugin = plugin;
         this.logger = plugin.getLogger();
         this.modrinthProjectId = modrinthProjectId;
-        checkForUpdates();
     }
 
     private String getModrinthProjectUrl() {
@@ -38,8 +37,9 @@ public final class VersionChecker {
     /**
      * Checks for updates of the LifeStealZ plugin by comparing the current version with the latest version available on Modrinth.
      * If a new version is available, it logs a message to the console with the details.
+     * This makes blocking HTTP requests, so it should not be called on the main thread.
      */
-    private void checkForUpdates() {
+    public void checkForUpdates() {
         String latestVersion = fetchLatestVersion();
         if (latestVersion != null) {
             String currentVersion = plugin.getDescription().getVersion();
@@ -1,17 +1,18 @@
 package com.zetaplugins.lifestealz.util;
 
 import com.zetaplugins.lifestealz.LifeStealZ;
-
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import com.zetaplugins.lifestealz.util.webhook.WebhookDispatcher;
 
 public final class WebHookManager {
+    private static final int QUEUE_CAPACITY = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000L;
+
     private final LifeStealZ plugin;
+    private final WebhookDispatcher dispatcher;
 
     public WebHookManager(LifeStealZ plugin) {
         this.plugin = plugin;
+        this.dispatcher = new WebhookDispatcher(plugin.getLogger(), this::getWebhookUrl, QUEUE_CAPACITY);
     }
 
     public boolean isEliminationWebhookEnabled() {
@@ -26,42 +27,29 @@ public final class WebHookManager {
         return plugin.getConfig().getString("webhook.url");
     }
 
+    /**
+     * Queue a webhook message. The message is sent in the background, so this never blocks the calling thread.
+     * @param title The title of the embed
+     * @param message The description of the embed
+     * @param colorHex The color of the embed as hex string (e.g. "ea3323")
+     */
     public void sendWebhookMessage(String title, String message, String colorHex) {
+        int color;
         try {
-            URL url = new URL(getWebhookUrl());
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-
-            // Set up the HTTP connection properties
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-            connection.setDoOutput(true);
-
-            int color = Integer.parseInt(colorHex, 16);
-
-            // Create JSON payload for Discord Embed
-            String jsonPayload = "{"
-                    + "\"embeds\": [{"
-                    + "\"title\": \"" + title + "\","
-                    + "\"description\": \"" + message + "\","
-                    + "\"color\": " + color
-                    + "}]"
-                    + "}";
-
-            // Send the JSON payload to the webhook
-            try (OutputStream os = connection.getOutputStream()) {
-                byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            // Check the response code from Discord
-            int responseCode = connection.getResponseCode();
-            if (responseCode != 204) plugin.getLogger().severe("Failed to send Discord webhook message. Response code: " + responseCode);
+            color = Integer.parseInt(colorHex, 16);
+        } catch (NumberFormatException e) {
+            plugin.getLogger().severe("Invalid Discord webhook color: " + colorHex);
+            return;
+        }
 
-            connection.disconnect();
+        dispatcher.enqueue(new WebhookDispatcher.Embed(title, message, color));
+    }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error sending Discord webhook message: " + e.getMessage());
-        }
+    /**
+     * Send the remaining queued messages and stop the background sender
+     */
+    public void shutdown() {
+        dispatcher.shutdown(SHUTDOWN_TIMEOUT_MILLIS);
     }
 
     public void sendWebhookMessage(WebHookType type, String... placeholders) {
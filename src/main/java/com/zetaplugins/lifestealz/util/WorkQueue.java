@@ -0,0 +1,116 @@
+package com.zetaplugins.lifestealz.util;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Runs queued main thread work (e.g. applying the result of a bulk admin action to every online player)
+ * within a time budget per tick, so large actions are spread over several ticks instead of causing a lag spike.
+ *
+ * <p>Work can be submitted from any thread. A single tick task runs the queued actions in order until the budget
+ * of the tick is used up, but always at least one action per tick, so the queue keeps draining on a lagging server.</p>
+ */
+public final class WorkQueue {
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final LifeStealZ plugin;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    private BukkitTask tickTask;
+    private long windowStart = System.nanoTime();
+    private long completedInWindow;
+    private volatile double drainRate;
+
+    public WorkQueue(LifeStealZ plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start the tick task that runs the queued work
+     */
+    public void start() {
+        if (tickTask != null) return;
+        tickTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    /**
+     * @return How long the queued work may run per tick, in nanoseconds
+     */
+    public long getBudgetNanos() {
+        double budgetMillis = plugin.getConfig().getDouble("workQueue.budgetPerTick", 2.0);
+        return (long) (Math.max(0.1, budgetMillis) * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Queue an action to run on the main thread. Can be called from any thread.
+     * @param action The action to run
+     */
+    public void submit(Runnable action) {
+        backlog.incrementAndGet();
+        queue.offer(action);
+    }
+
+    /**
+     * Queue an action for a player to run on the main thread. The action is skipped if the player is offline by then.
+     * Can be called from any thread.
+     * @param uuid The UUID of the player
+     * @param action The action to run with the online player
+     */
+    public void submit(UUID uuid, Consumer<Player> action) {
+        submit(() -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) action.accept(player);
+        });
+    }
+
+    /**
+     * @return The amount of actions that are waiting to run
+     */
+    public int getBacklog() {
+        return backlog.get();
+    }
+
+    /**
+     * @return How many actions ran per second, measured over the last second
+     */
+    public double getDrainRate() {
+        return drainRate;
+    }
+
+    private void tick() {
+        final long deadline = System.nanoTime() + getBudgetNanos();
+        int completed = 0;
+
+        Runnable action;
+        do {
+            action = queue.poll();
+            if (action == null) break;
+            backlog.decrementAndGet();
+            completed++;
+
+            try {
+                action.run();
+            } catch (Exception e) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to run queued work:", e);
+            }
+        } while (System.nanoTime() < deadline);
+
+        completedInWindow += completed;
+        final long now = System.nanoTime();
+        if (now - windowStart >= RATE_WINDOW_NANOS) {
+            drainRate = completedInWindow * (double) TimeUnit.SECONDS.toNanos(1) / (now - windowStart);
+            windowStart = now;
+            completedInWindow = 0;
+        }
+    }
+}
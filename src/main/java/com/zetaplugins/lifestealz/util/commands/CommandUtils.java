@@ -13,6 +13,11 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public final class CommandUtils {
+    /**
+     * The maximum amount of stored player names that are suggested in tab completion
+     */
+    public static final int TAB_COMPLETION_LIMIT = 100;
+
     /**
      * Parses a player name (or a star) to a list of players
      * @param playerName The name of the player
@@ -71,11 +76,10 @@ public final class CommandUtils {
         List<OfflinePlayer> players = new ArrayList<>();
 
         if (playerName.equals("*") && allowStar) {
-            players.addAll(
-                    plugin.getOfflinePlayerCache().getCachedData().stream()
-                            .map(name -> plugin.getServer().getOfflinePlayer(name))
-                            .collect(Collectors.toList())
-            );
+            // An empty prefix matches every name. This reads the sorted cache directly instead of copying it first.
+            for (String name : plugin.getOfflinePlayerCache().getNamesStartingWith("", Integer.MAX_VALUE)) {
+                players.add(plugin.getServer().getOfflinePlayer(name));
+            }
         } else if (playerName.equals("+") && allowPlus) {
             players.addAll(plugin.getServer().getOnlinePlayers());
         } else {
@@ -90,11 +94,20 @@ public final class CommandUtils {
         return parseOfflinePlayer(playerName, allowStar, allowPlus, LifeStealZ.getInstance());
     }
 
-    public static List<String> getOfflinePlayersTabCompletion(boolean allowStar, boolean allowPlus, LifeStealZ plugin) {
+    /**
+     * Gets the stored player names that start with the input for tab completion.
+     * This uses the sorted offline player cache, so it doesn't scan every stored name.
+     * @param allowStar If true, the star will be suggested as a wildcard for all players
+     * @param allowPlus If true, the plus will be suggested as a wildcard for all online players
+     * @param input The current input (case-insensitive)
+     * @param plugin The plugin instance
+     * @return A list of at most {@link #TAB_COMPLETION_LIMIT} player names (plus the wildcards) that start with the input
+     */
+    public static List<String> getOfflinePlayersTabCompletion(boolean allowStar, boolean allowPlus, String input, LifeStealZ plugin) {
         List<String> playerNames = new ArrayList<>();
-        if (allowStar) playerNames.add("*");
-        if (allowPlus) playerNames.add("+");
-        playerNames.addAll(plugin.getOfflinePlayerCache().getCachedData());
+        if (allowStar && startsWithIgnoreCase("*", input)) playerNames.add("*");
+        if (allowPlus && startsWithIgnoreCase("+", input)) playerNames.add("+");
+        playerNames.addAll(plugin.getOfflinePlayerCache().getNamesStartingWith(input, TAB_COMPLETION_LIMIT));
         return playerNames;
     }
 
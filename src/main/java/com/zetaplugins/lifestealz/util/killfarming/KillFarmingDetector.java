@@ -0,0 +1,199 @@
+package com.zetaplugins.lifestealz.util.killfarming;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Detects players that repeatedly kill the same player (e.g. an alt account) to farm hearts.
+ *
+ * <p>Every (killer, victim) pair gets a ring buffer with the times of its most recent kills, large enough for
+ * the strictest configured window. Pairs are stored in an open-addressing hash table of primitive long arrays,
+ * keyed by a 64-bit hash of both UUIDs, so a kill costs a hash lookup plus a scan of one small ring buffer,
+ * no matter how many players there are. Pairs without kills in the longest window are dropped when the table grows.</p>
+ */
+public final class KillFarmingDetector {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long EMPTY = 0L;
+
+    private final LifeStealZ plugin;
+
+    private long[] windowMillis = new long[0];
+    private int[] maxKills = new int[0];
+    private long longestWindowMillis = 0;
+    private int ringSize = 1;
+
+    private long[] keys;
+    private long[] killTimes;
+    private int[] ringHeads;
+    private long[] lastKills;
+    private int size;
+
+    public KillFarmingDetector(LifeStealZ plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Read the windows from the config. This clears all recorded kills, since the ring buffers may change size.
+     */
+    public synchronized void reload() {
+        List<long[]> windows = new ArrayList<>();
+        for (Map<?, ?> window : plugin.getConfig().getMapList("killFarming.windows")) {
+            if (!(window.get("duration") instanceof Number duration) || !(window.get("maxKills") instanceof Number kills)) continue;
+            if (duration.longValue() <= 0 || kills.intValue() < 1) continue;
+            windows.add(new long[] {duration.longValue() * 1000, kills.intValue()});
+        }
+
+        windowMillis = new long[windows.size()];
+        maxKills = new int[windows.size()];
+        longestWindowMillis = 0;
+        ringSize = 1;
+        for (int i = 0; i < windows.size(); i++) {
+            windowMillis[i] = windows.get(i)[0];
+            maxKills[i] = (int) windows.get(i)[1];
+            longestWindowMillis = Math.max(longestWindowMillis, windowMillis[i]);
+            // The kill that exceeds the limit must still be in the ring buffer
+            ringSize = Math.max(ringSize, maxKills[i] + 1);
+        }
+
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("killFarming.enabled", false) && windowMillis.length > 0;
+    }
+
+    /**
+     * Record a kill and check if the pair exceeded one of the windows
+     * @param killer The UUID of the killer
+     * @param victim The UUID of the victim
+     * @param now The time of the kill in milliseconds
+     * @return The first exceeded window, or null if the kill is within all limits
+     */
+    public synchronized Violation recordKill(UUID killer, UUID victim, long now) {
+        if (windowMillis.length == 0) return null;
+
+        int slot = findOrInsert(pairKey(killer, victim), now);
+        int base = slot * ringSize;
+        int head = ringHeads[slot];
+        killTimes[base + head] = now;
+        ringHeads[slot] = (head + 1) % ringSize;
+        lastKills[slot] = now;
+
+        for (int i = 0; i < windowMillis.length; i++) {
+            // The (maxKills + 1)-th most recent kill, including this one
+            int index = Math.floorMod(head - maxKills[i], ringSize);
+            long time = killTimes[base + index];
+            if (time != EMPTY && now - time < windowMillis[i]) {
+                return new Violation(windowMillis[i], maxKills[i], countKills(base, now, windowMillis[i]));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The amount of tracked (killer, victim) pairs
+     */
+    public synchronized int getTrackedPairs() {
+        return size;
+    }
+
+    private int countKills(int base, long now, long window) {
+        int kills = 0;
+        for (int i = 0; i < ringSize; i++) {
+            long time = killTimes[base + i];
+            if (time != EMPTY && now - time < window) kills++;
+        }
+        return kills;
+    }
+
+    private int findOrInsert(long key, long now) {
+        int slot = findSlot(keys, key);
+        if (keys[slot] == key) return slot;
+
+        if ((size + 1) * 2 > keys.length) {
+            rehash(now);
+            slot = findSlot(keys, key);
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    /**
+     * @return The slot of the key, or the empty slot where it would be inserted
+     */
+    private static int findSlot(long[] table, long key) {
+        int mask = table.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Drop expired pairs and grow the table if it is still more than a quarter full, so inserts stay amortized constant
+     */
+    private void rehash(long now) {
+        long[] oldKeys = keys;
+        long[] oldKillTimes = killTimes;
+        int[] oldRingHeads = ringHeads;
+        long[] oldLastKills = lastKills;
+
+        int live = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY && now - oldLastKills[i] < longestWindowMillis) live++;
+        }
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < (live + 1) * 4) capacity <<= 1;
+
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY || now - oldLastKills[i] >= longestWindowMillis) continue;
+
+            int slot = findSlot(keys, oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            ringHeads[slot] = oldRingHeads[i];
+            lastKills[slot] = oldLastKills[i];
+            System.arraycopy(oldKillTimes, i * ringSize, killTimes, slot * ringSize, ringSize);
+            size++;
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        killTimes = new long[capacity * ringSize];
+        ringHeads = new int[capacity];
+        lastKills = new long[capacity];
+        size = 0;
+    }
+
+    private static long pairKey(UUID killer, UUID victim) {
+        long killerHash = mix(mix(killer.getMostSignificantBits()) + killer.getLeastSignificantBits());
+        long victimHash = mix(mix(victim.getMostSignificantBits()) + victim.getLeastSignificantBits());
+        long key = mix(killerHash * 31 + victimHash);
+        return key == EMPTY ? 1L : key;
+    }
+
+    /**
+     * The SplitMix64 finalizer, spreads the bits of a value over the whole long
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * A window whose kill limit was exceeded
+     * @param windowMillis The duration of the window
+     * @param maxKills The allowed kills of the same victim within the window
+     * @param kills The kills of the same victim within the window, including the current one
+     */
+    public record Violation(long windowMillis, int maxKills, int kills) {}
+}
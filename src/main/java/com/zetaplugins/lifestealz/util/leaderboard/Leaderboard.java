@@ -0,0 +1,126 @@
+package com.zetaplugins.lifestealz.util.leaderboard;
+
+import com.zetaplugins.lifestealz.storage.RankedPlayer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An immutable snapshot of the top players of a {@link LeaderboardType} and the ranks of the online players.
+ * Ranks are competition ranks: players with the same value share a rank.
+ */
+public final class Leaderboard {
+    /**
+     * UUIDs compared like their binary form in the database. {@link UUID#compareTo} compares signed longs.
+     */
+    private static final Comparator<UUID> BINARY_UUID_ORDER = (a, b) -> {
+        int result = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return result != 0 ? result : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+
+    /**
+     * Highest value first, ties by UUID (the order of the database index)
+     */
+    static final Comparator<RankedPlayer> ORDER = Comparator.comparingDouble(RankedPlayer::value).reversed()
+            .thenComparing(RankedPlayer::uuid, BINARY_UUID_ORDER.reversed());
+
+    private final LeaderboardType type;
+    private final List<RankedPlayer> entries;
+    private final Map<UUID, Long> ranks;
+
+    /**
+     * @param type The type of the leaderboard
+     * @param entries The top players in {@link #ORDER}
+     * @param otherRanks The ranks of players that are not in the top list
+     */
+    Leaderboard(LeaderboardType type, List<RankedPlayer> entries, Map<UUID, Long> otherRanks) {
+        this.type = type;
+        this.entries = List.copyOf(entries);
+
+        Map<UUID, Long> allRanks = new HashMap<>(otherRanks);
+        long rank = 0;
+        for (int i = 0; i < this.entries.size(); i++) {
+            RankedPlayer entry = this.entries.get(i);
+            if (i == 0 || entry.value() != this.entries.get(i - 1).value()) rank = i + 1;
+            allRanks.put(entry.uuid(), rank);
+        }
+        this.ranks = Map.copyOf(allRanks);
+    }
+
+    static Leaderboard empty(LeaderboardType type) {
+        return new Leaderboard(type, List.of(), Map.of());
+    }
+
+    public LeaderboardType getType() {
+        return type;
+    }
+
+    /**
+     * @return The top players, highest first
+     */
+    public List<RankedPlayer> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the player at a position of the top list
+     * @param position The position, starting at 1
+     * @return The player, or null if the list has no player at this position
+     */
+    public RankedPlayer getEntry(int position) {
+        if (position < 1 || position > entries.size()) return null;
+        return entries.get(position - 1);
+    }
+
+    /**
+     * Get the rank of a player. Ranks are known for the top players and for online players.
+     * @param uuid The UUID of the player
+     * @return The rank of the player (starting at 1), or -1 if it is unknown
+     */
+    public long getRank(UUID uuid) {
+        return ranks.getOrDefault(uuid, -1L);
+    }
+
+    /**
+     * Create a new snapshot with the value of one player changed.
+     * The top list is updated right away, the rank of a player outside the top list is kept until the next refresh.
+     * @param player The player with their new value
+     * @param size The maximum size of the top list
+     * @return The new snapshot, or this snapshot if the change does not affect it
+     */
+    Leaderboard withPlayer(RankedPlayer player, int size) {
+        int index = indexOf(player.uuid());
+        if (index >= 0 && entries.get(index).value() == player.value()) return this;
+
+        List<RankedPlayer> newEntries = new ArrayList<>(entries);
+        if (index >= 0) newEntries.remove(index);
+
+        // If the list is not full, it contains every player. Otherwise the player has to beat the last one,
+        // a player that falls below it is dropped and the next refresh finds who follows.
+        boolean isFull = entries.size() >= size;
+        boolean belongsToTopList = !isFull || newEntries.isEmpty()
+                || ORDER.compare(player, newEntries.get(newEntries.size() - 1)) < 0;
+        if (!belongsToTopList && index < 0) return this;
+
+        if (belongsToTopList) {
+            newEntries.add(player);
+            newEntries.sort(ORDER);
+            if (newEntries.size() > size) newEntries.remove(newEntries.size() - 1);
+        }
+
+        Map<UUID, Long> otherRanks = new HashMap<>(ranks);
+        for (RankedPlayer entry : entries) otherRanks.remove(entry.uuid());
+        return new Leaderboard(type, newEntries, otherRanks);
+    }
+
+    private int indexOf(UUID uuid) {
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).uuid().equals(uuid)) return i;
+        }
+        return -1;
+    }
+}
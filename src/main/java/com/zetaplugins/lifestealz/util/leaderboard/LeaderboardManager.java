@@ -0,0 +1,155 @@
+package com.zetaplugins.lifestealz.util.leaderboard;
+
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
+import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataListener;
+import com.zetaplugins.lifestealz.storage.RankedPlayer;
+import com.zetaplugins.lifestealz.storage.Storage;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Maintains the top players for every {@link LeaderboardType}.
+ *
+ * <p>The top lists are reloaded periodically with keyset queries on the indexed columns, and the ranks of
+ * online players are counted once per distinct value. In between, saved and loaded player data is applied to
+ * the top lists right away. Readers only ever see immutable {@link Leaderboard} snapshots.</p>
+ */
+public final class LeaderboardManager implements PlayerDataListener {
+    private static final int MAX_SIZE = 100;
+    private static final int PAGE_SIZE = 50;
+
+    private final LifeStealZ plugin;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Map<LeaderboardType, Leaderboard> leaderboards;
+
+    public LeaderboardManager(LifeStealZ plugin) {
+        this.plugin = plugin;
+
+        Map<LeaderboardType, Leaderboard> emptyLeaderboards = new EnumMap<>(LeaderboardType.class);
+        for (LeaderboardType type : LeaderboardType.values()) {
+            emptyLeaderboards.put(type, Leaderboard.empty(type));
+        }
+        this.leaderboards = Collections.unmodifiableMap(emptyLeaderboards);
+    }
+
+    public boolean isEnabled() {
+        return plugin.getConfig().getBoolean("leaderboard.enabled", true);
+    }
+
+    /**
+     * @return The amount of players in each top list
+     */
+    public int getSize() {
+        return Math.max(1, Math.min(MAX_SIZE, plugin.getConfig().getInt("leaderboard.size", 10)));
+    }
+
+    /**
+     * Start refreshing the leaderboards periodically
+     */
+    public void start() {
+        if (!isEnabled()) return;
+
+        long interval = Math.max(1, plugin.getConfig().getLong("leaderboard.refreshInterval", 300)) * 20;
+        plugin.getAsyncTaskManager().addTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, 20L, interval));
+    }
+
+    /**
+     * Get the current snapshot of a leaderboard
+     * @param type The type of the leaderboard
+     * @return The snapshot, never null
+     */
+    public Leaderboard getLeaderboard(LeaderboardType type) {
+        return leaderboards.get(type);
+    }
+
+    /**
+     * Reload all top lists and the ranks of the online players from the database. Does nothing if a refresh is already running.
+     * This queries the database and must not be called on the main thread.
+     */
+    public void refresh() {
+        if (!refreshing.compareAndSet(false, true)) return;
+
+        try {
+            final int size = getSize();
+            final Storage storage = plugin.getStorage();
+            final PlaceholderCache placeholderCache = plugin.getPlaceholderCache();
+            final List<Player> onlinePlayers = new ArrayList<>(Bukkit.getOnlinePlayers());
+
+            for (LeaderboardType type : LeaderboardType.values()) {
+                List<RankedPlayer> entries = new ArrayList<>(size);
+                RankedPlayer last = null;
+                while (entries.size() < size) {
+                    List<RankedPlayer> page = storage.getRankedPlayersPage(type.getField(), last, Math.min(PAGE_SIZE, size - entries.size()));
+                    if (page.isEmpty()) break;
+                    entries.addAll(page);
+                    last = page.get(page.size() - 1);
+                }
+
+                // Online players share values (e.g. the start hearts), so every distinct value is counted only once
+                Map<Double, Long> ranksByValue = new HashMap<>();
+                Map<UUID, Long> otherRanks = new HashMap<>();
+                for (Player player : onlinePlayers) {
+                    PlaceholderCache.Snapshot snapshot = placeholderCache.peek(player.getUniqueId());
+                    if (snapshot == null) continue;
+
+                    long rank = ranksByValue.computeIfAbsent(type.getValue(snapshot), value -> {
+                        long playersAbove = storage.countPlayersAbove(type.getField(), value);
+                        return playersAbove < 0 ? -1 : playersAbove + 1;
+                    });
+                    if (rank > 0) otherRanks.put(player.getUniqueId(), rank);
+                }
+
+                replace(type, new Leaderboard(type, entries, otherRanks));
+            }
+        } catch (Exception e) {
+            plugin.getLogger().log(Level.SEVERE, "Failed to refresh leaderboards:", e);
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    @Override
+    public void onPlayerDataChanged(PlayerData playerData) {
+        if (!isEnabled()) return;
+
+        final int size = getSize();
+        final UUID uuid = UUID.fromString(playerData.getUuid());
+        for (LeaderboardType type : LeaderboardType.values()) {
+            RankedPlayer player = new RankedPlayer(uuid, playerData.getName(), type.getValue(playerData));
+            synchronized (this) {
+                Leaderboard current = leaderboards.get(type);
+                Leaderboard updated = current.withPlayer(player, size);
+                if (updated != current) replace(type, updated);
+            }
+        }
+    }
+
+    @Override
+    public void onPlayerDataInvalidated(UUID uuid) {
+        // Online players are reloaded by the placeholder cache, which reports the new data through onPlayerDataChanged
+    }
+
+    @Override
+    public void onAllPlayerDataInvalidated() {
+        if (!isEnabled()) return;
+        plugin.getAsyncTaskManager().addTask(Bukkit.getScheduler().runTaskAsynchronously(plugin, this::refresh));
+    }
+
+    private synchronized void replace(LeaderboardType type, Leaderboard leaderboard) {
+        Map<LeaderboardType, Leaderboard> newLeaderboards = new EnumMap<>(leaderboards);
+        newLeaderboards.put(type, leaderboard);
+        leaderboards = Collections.unmodifiableMap(newLeaderboards);
+    }
+}
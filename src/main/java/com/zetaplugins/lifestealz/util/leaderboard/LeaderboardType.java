@@ -0,0 +1,89 @@
+package com.zetaplugins.lifestealz.util.leaderboard;
+
+import com.zetaplugins.lifestealz.caches.PlaceholderCache;
+import com.zetaplugins.lifestealz.storage.PlayerData;
+import com.zetaplugins.lifestealz.storage.PlayerDataField;
+
+import java.util.Locale;
+
+/**
+ * The values players can be ranked by
+ */
+public enum LeaderboardType {
+    HEARTS("hearts", PlayerDataField.MAX_HEALTH),
+    KILLS("kills", PlayerDataField.KILLED_OTHER_PLAYERS),
+    PRESTIGE("prestige", PlayerDataField.PRESTIGE_COUNT),
+    REVIVES("revives", PlayerDataField.HAS_BEEN_REVIVED);
+
+    private final String id;
+    private final PlayerDataField field;
+
+    LeaderboardType(String id, PlayerDataField field) {
+        this.id = id;
+        this.field = field;
+    }
+
+    /**
+     * @return The id used in placeholders (e.g. "hearts" in %lifestealz_top_hearts_1_name%)
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return The stored field players are ranked by
+     */
+    public PlayerDataField getField() {
+        return field;
+    }
+
+    /**
+     * Get the ranked value of a player
+     * @param playerData The data of the player
+     * @return The stored value (health points for {@link #HEARTS})
+     */
+    public double getValue(PlayerData playerData) {
+        return switch (this) {
+            case HEARTS -> playerData.getMaxHealth();
+            case KILLS -> playerData.getKilledOtherPlayers();
+            case PRESTIGE -> playerData.getPrestigeCount();
+            case REVIVES -> playerData.getHasBeenRevived();
+        };
+    }
+
+    /**
+     * Get the ranked value of a player from their placeholder snapshot
+     * @param snapshot The snapshot of the player
+     * @return The stored value (health points for {@link #HEARTS})
+     */
+    public double getValue(PlaceholderCache.Snapshot snapshot) {
+        return switch (this) {
+            case HEARTS -> snapshot.maxHealth();
+            case KILLS -> snapshot.killedOtherPlayers();
+            case PRESTIGE -> snapshot.prestigeCount();
+            case REVIVES -> snapshot.hasBeenRevived();
+        };
+    }
+
+    /**
+     * Format a stored value for display. Health points are shown as hearts.
+     * @param value The stored value
+     * @return The formatted value
+     */
+    public String formatValue(double value) {
+        return String.valueOf((long) (this == HEARTS ? value / 2 : value));
+    }
+
+    /**
+     * Get a leaderboard type by its id
+     * @param id The id of the type (case-insensitive)
+     * @return The type, or null if there is none with this id
+     */
+    public static LeaderboardType fromId(String id) {
+        String lowerId = id.toLowerCase(Locale.ROOT);
+        for (LeaderboardType type : values()) {
+            if (type.id.equals(lowerId)) return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+package com.zetaplugins.lifestealz.util.luckperms;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import com.zetaplugins.lifestealz.LifeStealZ;
+import com.zetaplugins.lifestealz.caches.PermissionLimitsCache;
+
+/**
+ * Handles the LuckPerms integration. This class must only be loaded if LuckPerms is installed.
+ */
+public final class LuckPermsManager {
+    private final LifeStealZ plugin;
+    private final LuckPerms luckPerms;
+
+    public LuckPermsManager(LifeStealZ plugin) {
+        this.plugin = plugin;
+        RegisteredServiceProvider<LuckPerms> provider = Bukkit.getServicesManager().getRegistration(LuckPerms.class);
+        this.luckPerms = provider != null ? provider.getProvider() : null;
+    }
+
+    /**
+     * Checks if the LuckPerms API is available
+     * @return True if the LuckPerms API is available, false otherwise
+     */
+    public boolean isAvailable() {
+        return luckPerms != null;
+    }
+
+    public LuckPerms getLuckPerms() {
+        return luckPerms;
+    }
+
+    /**
+     * Invalidates cached permission limits whenever LuckPerms recalculates the data of a user
+     * @param cache The cache to invalidate
+     */
+    public void subscribeToPermissionChanges(PermissionLimitsCache cache) {
+        if (!isAvailable()) return;
+
+        luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                event -> cache.invalidate(event.getUser().getUniqueId()));
+        cache.setChangeNotifications(true);
+    }
+}
@@ -1,7 +1,7 @@
 package com.zetaplugins.lifestealz.util.revive;
 
+import com.zetaplugins.lifestealz.util.TimingWheel;
 import org.bukkit.Location;
-import org.bukkit.scheduler.BukkitTask;
 
 import java.util.UUID;
 
@@ -9,10 +9,10 @@ import java.util.UUID;
  * Represents a revive task for a player at a specific location.
  *
  * @param location        The location of the beacon where the revive task is taking place.
- * @param task            The Bukkit task that manages the revive process.
+ * @param task            The timer that completes the revive process.
  * @param reviver         The UUID of the player reviving
  * @param target
  * @param start           The timestamp when the revive process started (unix epoch in seconds).
  * @param durationSeconds The duration of the revive process in seconds.
  */
-public record ReviveTask(Location location, BukkitTask task, UUID reviver, UUID target, long start, int durationSeconds) {}
+public record ReviveTask(Location location, TimingWheel.Timer task, UUID reviver, UUID target, long start, int durationSeconds) {}
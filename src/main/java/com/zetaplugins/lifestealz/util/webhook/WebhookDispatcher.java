@@ -0,0 +1,278 @@
+package com.zetaplugins.lifestealz.util.webhook;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends Discord webhook embeds from a single background thread.
+ *
+ * <p>Embeds are put into a bounded queue, so callers (e.g. event handlers) never wait for Discord.
+ * If several embeds are queued at once, they are merged into one message (up to {@value #MAX_EMBEDS_PER_MESSAGE}).
+ * Rate limits (HTTP 429) are honoured and other failures are retried with exponential backoff.</p>
+ */
+public final class WebhookDispatcher {
+    /**
+     * Discord allows at most 10 embeds per message
+     */
+    public static final int MAX_EMBEDS_PER_MESSAGE = 10;
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000L;
+    private static final long MAX_BACKOFF_MILLIS = 30_000L;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Pattern RETRY_AFTER_BODY = Pattern.compile("\"retry_after\"\\s*:\\s*([0-9.]+)");
+
+    private final Logger logger;
+    private final Supplier<String> urlSupplier;
+    private final HttpClient httpClient;
+    private final Sleeper sleeper;
+    private final BlockingQueue<Embed> queue;
+    private final Thread senderThread;
+    private volatile boolean running = true;
+
+    /**
+     * @param logger Logger for failed deliveries
+     * @param urlSupplier Supplier of the webhook URL, read for every message so config reloads are picked up
+     * @param capacity The maximum amount of embeds that can be waiting to be sent
+     */
+    public WebhookDispatcher(Logger logger, Supplier<String> urlSupplier, int capacity) {
+        this(logger, urlSupplier, HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build(), capacity);
+    }
+
+    /**
+     * @param logger Logger for failed deliveries
+     * @param urlSupplier Supplier of the webhook URL, read for every message so config reloads are picked up
+     * @param httpClient The client to send the requests with. It is reused for all requests to keep the connection alive.
+     * @param capacity The maximum amount of embeds that can be waiting to be sent
+     */
+    public WebhookDispatcher(Logger logger, Supplier<String> urlSupplier, HttpClient httpClient, int capacity) {
+        this(logger, urlSupplier, httpClient, capacity, TimeUnit.MILLISECONDS::sleep);
+    }
+
+    /**
+     * @param logger Logger for failed deliveries
+     * @param urlSupplier Supplier of the webhook URL, read for every message so config reloads are picked up
+     * @param httpClient The client to send the requests with
+     * @param capacity The maximum amount of embeds that can be waiting to be sent
+     * @param sleeper Waits between retries, so tests can check the waits without sleeping
+     */
+    WebhookDispatcher(Logger logger, Supplier<String> urlSupplier, HttpClient httpClient, int capacity, Sleeper sleeper) {
+        this.logger = logger;
+        this.urlSupplier = urlSupplier;
+        this.httpClient = httpClient;
+        this.sleeper = sleeper;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.senderThread = new Thread(this::run, "LifeStealZ-Webhook");
+        this.senderThread.setDaemon(true);
+        this.senderThread.start();
+    }
+
+    /**
+     * Queue an embed to be sent. This never blocks.
+     * @param embed The embed to send
+     * @return True if the embed was queued, false if the queue is full or the dispatcher is shut down
+     */
+    public boolean enqueue(Embed embed) {
+        if (!running) return false;
+        boolean queued = queue.offer(embed);
+        if (!queued) logger.warning("Discord webhook queue is full. Dropping webhook message: " + embed.title());
+        return queued;
+    }
+
+    /**
+     * @return The amount of embeds that are waiting to be sent
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stop accepting new embeds and wait for the queued ones to be sent
+     * @param timeoutMillis The maximum time to wait for the queue to drain
+     */
+    public void shutdown(long timeoutMillis) {
+        running = false;
+        try {
+            senderThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.warning("Discarded " + queue.size() + " Discord webhook message(s) on shutdown.");
+            queue.clear();
+        }
+    }
+
+    private void run() {
+        while (running || !queue.isEmpty()) {
+            List<Embed> batch = new ArrayList<>(MAX_EMBEDS_PER_MESSAGE);
+            try {
+                // Poll with a timeout so a shutdown is noticed without interrupting a running request
+                Embed first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_EMBEDS_PER_MESSAGE - 1);
+            send(batch);
+        }
+    }
+
+    /**
+     * Send one message containing the given embeds, retrying on rate limits and server errors
+     * @param batch The embeds to send
+     */
+    private void send(List<Embed> batch) {
+        String url = urlSupplier.get();
+        if (url == null || url.isBlank()) {
+            logger.warning("Discord webhook URL is not set. Dropping " + batch.size() + " webhook message(s).");
+            return;
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(buildPayload(batch)))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            logger.severe("Invalid Discord webhook URL: " + e.getMessage());
+            return;
+        }
+
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long waitMillis;
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                int status = response.statusCode();
+                if (status >= 200 && status < 300) return;
+
+                if (status == 429) {
+                    waitMillis = getRetryAfterMillis(response, backoff);
+                } else if (status >= 500) {
+                    waitMillis = backoff;
+                } else {
+                    logger.severe("Failed to send Discord webhook message. Response code: " + status);
+                    return;
+                }
+            } catch (IOException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    logger.log(Level.SEVERE, "Error sending Discord webhook message:", e);
+                    return;
+                }
+                waitMillis = backoff;
+            } catch (InterruptedException e) {
+                logger.warning("Interrupted while sending Discord webhook message. Dropping " + batch.size() + " webhook message(s).");
+                return;
+            }
+
+            if (attempt < MAX_ATTEMPTS && !sleep(waitMillis)) {
+                logger.warning("Interrupted while waiting to retry Discord webhook message. Dropping " + batch.size() + " webhook message(s).");
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+
+        logger.severe("Failed to send Discord webhook message after " + MAX_ATTEMPTS + " attempts. Dropping " + batch.size() + " webhook message(s).");
+    }
+
+    /**
+     * Read how long Discord wants us to wait, either from the headers or from the JSON body
+     */
+    private static long getRetryAfterMillis(HttpResponse<String> response, long fallbackMillis) {
+        // Retry-After is in seconds, X-RateLimit-Reset-After is in (fractional) seconds
+        for (String header : new String[] {"Retry-After", "X-RateLimit-Reset-After"}) {
+            String value = response.headers().firstValue(header).orElse(null);
+            if (value == null) continue;
+            try {
+                return (long) Math.ceil(Double.parseDouble(value) * 1000);
+            } catch (NumberFormatException ignored) {}
+        }
+
+        Matcher matcher = RETRY_AFTER_BODY.matcher(response.body() == null ? "" : response.body());
+        if (matcher.find()) {
+            try {
+                return (long) Math.ceil(Double.parseDouble(matcher.group(1)) * 1000);
+            } catch (NumberFormatException ignored) {}
+        }
+        return fallbackMillis;
+    }
+
+    /**
+     * @return False if the sleep was interrupted
+     */
+    private boolean sleep(long millis) {
+        try {
+            sleeper.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    static String buildPayload(List<Embed> embeds) {
+        StringBuilder json = new StringBuilder("{\"embeds\":[");
+        for (int i = 0; i < embeds.size(); i++) {
+            Embed embed = embeds.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"title\":\"").append(escapeJson(embed.title()))
+                    .append("\",\"description\":\"").append(escapeJson(embed.description()))
+                    .append("\",\"color\":").append(embed.color())
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String escapeJson(String value) {
+        if (value == null) return "";
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> {
+                    if (c < 0x20) escaped.append(String.format("\\u%04x", (int) c));
+                    else escaped.append(c);
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Waits before a retry
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /**
+     * A single Discord embed
+     * @param title The title of the embed
+     * @param description The description of the embed
+     * @param color The color of the embed as RGB integer
+     */
+    public record Embed(String title, String description, int color) {}
+}
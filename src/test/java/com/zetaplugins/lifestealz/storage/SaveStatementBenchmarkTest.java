@@ -0,0 +1,196 @@
+package com.zetaplugins.lifestealz.storage;
+
+import com.zetaplugins.lifestealz.afterlife.LifeState;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the save path before and after the modified fields bitmask: the old path built the UPDATE SQL
+ * from a HashSet of column names and bound boxed values, the new one reuses a cached statement per mask
+ * and binds typed values.
+ *
+ * <p>The timing run is skipped by default. Run it with
+ * {@code mvn test -Dtest=SaveStatementBenchmarkTest -Dlifestealz.benchmark=true}.
+ * The statements are bound against a no-op {@link PreparedStatement}, so only the work done by the plugin is measured.</p>
+ */
+class SaveStatementBenchmarkTest {
+    private static final Logger LOGGER = Logger.getLogger(SaveStatementBenchmarkTest.class.getName());
+
+    private static final int WARMUP_ITERATIONS = 2_000_000;
+    private static final int MEASURED_ITERATIONS = 5_000_000;
+
+    private static final PreparedStatement NO_OP_STATEMENT = (PreparedStatement) Proxy.newProxyInstance(
+            SaveStatementBenchmarkTest.class.getClassLoader(),
+            new Class<?>[] { PreparedStatement.class },
+            (proxy, method, args) -> null
+    );
+
+    // Read by the benchmark, so the JIT can't drop the measured work
+    private static volatile int sink;
+
+    @Test
+    void cachedStatementsSetTheSameColumnsAsTheOldPath() throws SQLException {
+        PlayerData playerData = createPlayerData();
+
+        for (int mask = 1; mask < 1 << PlayerData.FIELD_COUNT; mask++) {
+            for (boolean checkVersion : new boolean[] { false, true }) {
+                String oldSql = saveWithOldPath(playerData, PlayerData.getColumnNames(mask), checkVersion);
+                String newSql = SQLStorage.getUpdateStatement(mask, checkVersion);
+
+                assertEquals(getAssignedColumns(oldSql), getAssignedColumns(newSql));
+                assertEquals(oldSql.substring(oldSql.indexOf("version = version + 1")), newSql.substring(newSql.indexOf("version = version + 1")));
+                assertEquals(countParameters(oldSql), countParameters(newSql));
+                assertEquals(Integer.bitCount(mask) + 1, SQLStorage.bindModifiedFields(NO_OP_STATEMENT, playerData, mask));
+            }
+        }
+    }
+
+    @Test
+    void compareSavePaths() throws SQLException {
+        assumeTrue(Boolean.getBoolean("lifestealz.benchmark"), "Set -Dlifestealz.benchmark=true to run the benchmark");
+
+        PlayerData playerData = createPlayerData();
+        // A kill (max health and kill count), a heart item (max health only) and a full save
+        final int[] masks = {
+                PlayerData.MAX_HEALTH | PlayerData.KILLED_OTHER_PLAYERS,
+                PlayerData.MAX_HEALTH,
+                (1 << PlayerData.FIELD_COUNT) - 1
+        };
+
+        for (int mask : masks) {
+            runOldPath(playerData, mask, WARMUP_ITERATIONS);
+            runNewPath(playerData, mask, WARMUP_ITERATIONS);
+
+            long start = System.nanoTime();
+            runOldPath(playerData, mask, MEASURED_ITERATIONS);
+            final double oldNanos = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+            start = System.nanoTime();
+            runNewPath(playerData, mask, MEASURED_ITERATIONS);
+            final double newNanos = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+            LOGGER.info(String.format("Fields %s: HashSet/StringBuilder %.1f ns/op, bitmask/cached SQL %.1f ns/op",
+                    PlayerData.getColumnNames(mask), oldNanos, newNanos));
+        }
+    }
+
+    private static void runOldPath(PlayerData playerData, int mask, int iterations) throws SQLException {
+        int lengths = 0;
+        for (int i = 0; i < iterations; i++) {
+            // The old PlayerData added a column name to its HashSet in every setter
+            Set<String> modifiedFields = new HashSet<>();
+            for (int bit = 0; bit < PlayerData.FIELD_COUNT; bit++) {
+                if ((mask & (1 << bit)) != 0) modifiedFields.add(PlayerData.COLUMNS[bit]);
+            }
+            lengths += saveWithOldPath(playerData, modifiedFields, true).length();
+        }
+        sink = lengths;
+    }
+
+    private static void runNewPath(PlayerData playerData, int mask, int iterations) throws SQLException {
+        int lengths = 0;
+        for (int i = 0; i < iterations; i++) {
+            String sql = SQLStorage.getUpdateStatement(mask, true);
+            int index = SQLStorage.bindModifiedFields(NO_OP_STATEMENT, playerData, mask);
+            NO_OP_STATEMENT.setBytes(index++, SQLStorage.uuidToBytes(playerData.getUuid()));
+            NO_OP_STATEMENT.setLong(index, playerData.getVersion());
+            lengths += sql.length();
+        }
+        sink = lengths;
+    }
+
+    /**
+     * The save path before the modified fields bitmask, as it was in SQLStorage#updatePlayerData
+     */
+    private static String saveWithOldPath(PlayerData playerData, Set<String> modifiedFields, boolean checkVersion) throws SQLException {
+        StringBuilder updateQuery = new StringBuilder("UPDATE hearts SET ");
+        List<Object> params = new ArrayList<>();
+
+        for (String field : modifiedFields) {
+            updateQuery.append(field).append(" = ?, ");
+            switch (field) {
+                case "maxhp":
+                    params.add(playerData.getMaxHealth());
+                    break;
+                case "hasbeenRevived":
+                    params.add(playerData.getHasBeenRevived());
+                    break;
+                case "craftedHearts":
+                    params.add(playerData.getCraftedHearts());
+                    break;
+                case "craftedRevives":
+                    params.add(playerData.getCraftedRevives());
+                    break;
+                case "killedOtherPlayers":
+                    params.add(playerData.getKilledOtherPlayers());
+                    break;
+                case "firstJoin":
+                    params.add(playerData.getFirstJoin());
+                    break;
+                case "lifeState":
+                    params.add(playerData.getLifeState().name());
+                    break;
+                case "afterlifeReleaseTime":
+                    params.add(playerData.getAfterlifeReleaseTime());
+                    break;
+                case "prestigeCount":
+                    params.add(playerData.getPrestigeCount());
+                    break;
+            }
+        }
+
+        updateQuery.append("version = version + 1 WHERE uuid = ?");
+        params.add(playerData.getUuid());
+
+        if (checkVersion) {
+            updateQuery.append(" AND version = ?");
+            params.add(playerData.getVersion());
+        }
+
+        final String sql = updateQuery.toString();
+        for (int i = 0; i < params.size(); i++) {
+            NO_OP_STATEMENT.setObject(i + 1, params.get(i));
+        }
+        return sql;
+    }
+
+    private static PlayerData createPlayerData() {
+        PlayerData playerData = new PlayerData("Steve", UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5"));
+        playerData.setMaxHealth(24);
+        playerData.setHasBeenRevived(1);
+        playerData.setCraftedHearts(3);
+        playerData.setCraftedRevives(1);
+        playerData.setKilledOtherPlayers(7);
+        playerData.setFirstJoin(1_700_000_000_000L);
+        playerData.setLifeState(LifeState.AFTERLIFE);
+        playerData.setAfterlifeReleaseTime(1_700_000_600_000L);
+        playerData.setPrestigeCount(2);
+        return playerData;
+    }
+
+    private static Set<String> getAssignedColumns(String sql) {
+        String assignments = sql.substring("UPDATE hearts SET ".length(), sql.indexOf("version = version + 1"));
+        return Arrays.stream(assignments.split(", "))
+                .filter(assignment -> !assignment.isBlank())
+                .map(assignment -> assignment.substring(0, assignment.indexOf(" = ?")))
+                .collect(Collectors.toSet());
+    }
+
+    private static long countParameters(String sql) {
+        return sql.chars().filter(c -> c == '?').count();
+    }
+}
@@ -0,0 +1,231 @@
+package com.zetaplugins.lifestealz.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageExecutorTest {
+    private static final long TIMEOUT_SECONDS = 5;
+
+    private StorageExecutor executor;
+    // Released at the end of every test, so blocked operations never outlive it
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void shutdownExecutor() {
+        release.countDown();
+        if (executor != null) executor.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+    }
+
+    @Test
+    void runsOperationsOfOnePlayerInSubmissionOrder() throws Exception {
+        executor = new StorageExecutor(8);
+        final UUID uuid = UUID.randomUUID();
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final int index = i;
+            futures.add(executor.submit(uuid, () -> {
+                if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                // Earlier operations take longer, so they would be overtaken without the ordering
+                sleep(index < 10 ? 10 - index : 0);
+                order.add(index);
+                running.decrementAndGet();
+                return index;
+            }));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        assertEquals(IntStream.range(0, 100).boxed().toList(), order);
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void keepsRunningOperationsOfAPlayerAfterOneFailed() throws Exception {
+        executor = new StorageExecutor(2);
+        final UUID uuid = UUID.randomUUID();
+
+        CompletableFuture<Integer> failed = executor.submit(uuid, () -> {
+            throw new IllegalStateException("Database error");
+        });
+        CompletableFuture<Integer> next = executor.submit(uuid, () -> 42);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> failed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(42, next.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void runsOperationsOfDifferentPlayersConcurrently() throws Exception {
+        executor = new StorageExecutor(4);
+        // Each operation waits until the other one started, which only works if they run at the same time
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = executor.submit(UUID.randomUUID(), () -> awaitOther(bothStarted));
+        CompletableFuture<Boolean> second = executor.submit(UUID.randomUUID(), () -> awaitOther(bothStarted));
+
+        assertTrue(first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void neverRunsMoreOperationsThanTheConcurrencyLimit() throws Exception {
+        final int maxConcurrency = 3;
+        final int operationCount = 20;
+        executor = new StorageExecutor(maxConcurrency);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < operationCount; i++) {
+            // Player bound and unbound operations share the limit
+            if (i % 2 == 0) {
+                futures.add(executor.submit(UUID.randomUUID(), () -> trackConcurrency(running, peak)));
+            } else {
+                futures.add(executor.submit(() -> trackConcurrency(running, peak)));
+            }
+        }
+
+        waitUntil(() -> executor.getActiveCount() == maxConcurrency && executor.getQueueLength() == operationCount - maxConcurrency);
+        assertEquals(maxConcurrency, running.get());
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(maxConcurrency, peak.get());
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    void shutdownRunsOperationsQueuedBehindARunningOne() throws Exception {
+        executor = new StorageExecutor(2);
+        final UUID uuid = UUID.randomUUID();
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch firstStarted = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        futures.add(executor.submit(uuid, () -> {
+            firstStarted.countDown();
+            awaitRelease();
+            order.add(0);
+            return 0;
+        }));
+        for (int i = 1; i <= 3; i++) {
+            final int index = i;
+            futures.add(executor.submit(uuid, () -> {
+                order.add(index);
+                return index;
+            }));
+        }
+        assertTrue(firstStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        // The chained operations are only handed to the executor after the first one finished, which is during the shutdown
+        CompletableFuture.runAsync(() -> {
+            sleep(100);
+            release.countDown();
+        });
+        assertTrue(executor.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+
+        assertEquals(List.of(0, 1, 2, 3), order);
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(i, futures.get(i).getNow(-1));
+        }
+    }
+
+    @Test
+    void shutdownGivesUpAfterTheTimeout() {
+        executor = new StorageExecutor(1);
+        final UUID uuid = UUID.randomUUID();
+        executor.submit(uuid, () -> {
+            awaitRelease();
+            return null;
+        });
+        CompletableFuture<Integer> queued = executor.submit(uuid, () -> 1);
+
+        assertFalse(executor.shutdown(100));
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    void rejectsOperationsAfterShutdown() {
+        executor = new StorageExecutor(2);
+        assertTrue(executor.shutdown(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS)));
+
+        CompletableFuture<Integer> unbound = executor.submit(() -> 1);
+        CompletableFuture<Integer> playerBound = executor.submit(UUID.randomUUID(), () -> 1);
+
+        ExecutionException unboundException = assertThrows(ExecutionException.class, () -> unbound.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, unboundException.getCause());
+        ExecutionException playerBoundException = assertThrows(ExecutionException.class, () -> playerBound.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, playerBoundException.getCause());
+    }
+
+    private Void trackConcurrency(AtomicInteger running, AtomicInteger peak) {
+        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+        awaitRelease();
+        running.decrementAndGet();
+        return null;
+    }
+
+    private void awaitRelease() {
+        try {
+            if (!release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) throw new IllegalStateException("Not released in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            return bothStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException, TimeoutException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!condition.isMet()) {
+            if (System.nanoTime() > deadline) throw new TimeoutException("Condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean isMet();
+    }
+}
@@ -0,0 +1,205 @@
+package com.zetaplugins.lifestealz.storage.sync;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two pollers, as two servers sharing one database would, against one SQLite change log
+ */
+class ChangeLogPollerTest {
+    private static final Logger LOGGER = Logger.getLogger(ChangeLogPollerTest.class.getName());
+    private static final String SERVER_A = "server-a";
+    private static final String SERVER_B = "server-b";
+
+    private Path databaseFile;
+    private Connection connection;
+    private final List<ChangeLogEntry> handledByA = new ArrayList<>();
+    private final List<ChangeLogEntry> handledByB = new ArrayList<>();
+    private ChangeLogPoller pollerA;
+    private ChangeLogPoller pollerB;
+
+    @BeforeEach
+    void createChangeLog() throws IOException, SQLException {
+        databaseFile = Files.createTempFile("hearts-changes", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        try (Statement statement = connection.createStatement()) {
+            // Same table as SQLiteStorage#getCreateChangeLogTableStatement
+            statement.executeUpdate("CREATE TABLE hearts_changes ("
+                    + "seq INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "uuid CHAR(36) NOT NULL, "
+                    + "fields VARCHAR(255) NOT NULL, "
+                    + "serverId CHAR(36) NOT NULL, "
+                    + "changedAt BIGINT NOT NULL"
+                    + ")");
+        }
+
+        SQLiteChangeSource changes = new SQLiteChangeSource();
+        pollerA = new ChangeLogPoller(LOGGER, changes, SERVER_A, handledByA::add, TimeUnit.HOURS.toMillis(1));
+        pollerB = new ChangeLogPoller(LOGGER, changes, SERVER_B, handledByB::add, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @AfterEach
+    void deleteChangeLog() throws IOException, SQLException {
+        connection.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Test
+    void skipsChangesOfItsOwnServer() throws SQLException {
+        logChange(1, SERVER_A, System.currentTimeMillis());
+        logChange(2, SERVER_B, System.currentTimeMillis());
+        logChange(3, SERVER_A, System.currentTimeMillis());
+
+        pollerA.poll();
+        pollerB.poll();
+
+        assertEquals(List.of(2L), getSequences(handledByA));
+        assertEquals(List.of(1L, 3L), getSequences(handledByB));
+    }
+
+    @Test
+    void handlesLateCommitInsideTheWindowOnce() throws SQLException {
+        // Sequence 2 was reserved by a transaction that commits after 3 is visible
+        logChange(1, SERVER_A, System.currentTimeMillis());
+        logChange(3, SERVER_A, System.currentTimeMillis());
+        pollerB.poll();
+        assertEquals(List.of(1L, 3L), getSequences(handledByB));
+
+        logChange(2, SERVER_A, System.currentTimeMillis());
+        pollerB.poll();
+        pollerB.poll();
+
+        assertEquals(List.of(1L, 3L, 2L), getSequences(handledByB));
+        pollerA.poll();
+        assertTrue(handledByA.isEmpty());
+    }
+
+    @Test
+    void ignoresLateCommitOutsideTheWindow() throws SQLException {
+        logChange(1, SERVER_A, System.currentTimeMillis());
+        logChange(3, SERVER_A, System.currentTimeMillis());
+        pollerB.poll();
+
+        logChange(2, SERVER_A, System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1));
+        pollerB.poll();
+
+        assertEquals(List.of(1L, 3L), getSequences(handledByB));
+    }
+
+    @Test
+    void pagesThroughFullPagesOfAlreadySeenChanges() throws SQLException {
+        // More than two full pages, with a gap on the second page that commits late
+        final int changeCount = ChangeLogPoller.BATCH_SIZE * 2 + 10;
+        final long lateSequence = ChangeLogPoller.BATCH_SIZE + 500;
+        final long now = System.currentTimeMillis();
+        connection.setAutoCommit(false);
+        for (long sequence = 1; sequence <= changeCount; sequence++) {
+            if (sequence != lateSequence) logChange(sequence, SERVER_A, now);
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        pollerB.poll();
+        assertEquals(changeCount - 1, handledByB.size());
+
+        // The first page of the window scan only has changes that were already handled
+        pollerB.poll();
+        assertEquals(changeCount - 1, handledByB.size());
+
+        logChange(lateSequence, SERVER_A, System.currentTimeMillis());
+        pollerB.poll();
+
+        assertEquals(changeCount, handledByB.size());
+        assertEquals(changeCount, new HashSet<>(getSequences(handledByB)).size());
+        assertEquals(lateSequence, handledByB.get(handledByB.size() - 1).sequence());
+    }
+
+    private void logChange(long sequence, String serverId, long changedAt) throws SQLException {
+        final String sql = "INSERT INTO hearts_changes (seq, uuid, fields, serverId, changedAt) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setLong(1, sequence);
+            pstmt.setString(2, UUID.randomUUID().toString());
+            pstmt.setString(3, "maxhp");
+            pstmt.setString(4, serverId);
+            pstmt.setLong(5, changedAt);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static List<Long> getSequences(List<ChangeLogEntry> changes) {
+        return changes.stream().map(ChangeLogEntry::sequence).toList();
+    }
+
+    /**
+     * Reads the change log with the same queries as SQLStorage
+     */
+    private final class SQLiteChangeSource implements ChangeLogPoller.ChangeSource {
+        @Override
+        public long getLatestChangeSequence() {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT MAX(seq) FROM hearts_changes")) {
+                return resultSet.next() ? resultSet.getLong(1) : 0L;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public List<ChangeLogEntry> getChanges(long afterSequence, long changedSince, int limit) {
+            List<ChangeLogEntry> changes = new ArrayList<>();
+            final String sql = "SELECT seq, uuid, fields, serverId, changedAt FROM hearts_changes WHERE seq > ? AND changedAt >= ? ORDER BY seq LIMIT ?";
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setLong(1, afterSequence);
+                pstmt.setLong(2, changedSince);
+                pstmt.setInt(3, limit);
+
+                try (ResultSet resultSet = pstmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        changes.add(new ChangeLogEntry(
+                                resultSet.getLong("seq"),
+                                resultSet.getString("uuid"),
+                                new HashSet<>(Arrays.asList(resultSet.getString("fields").split(","))),
+                                resultSet.getString("serverId"),
+                                resultSet.getLong("changedAt")
+                        ));
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return changes;
+        }
+
+        @Override
+        public void pruneChanges(long olderThan) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM hearts_changes WHERE changedAt < ?")) {
+                pstmt.setLong(1, olderThan);
+                pstmt.executeUpdate();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
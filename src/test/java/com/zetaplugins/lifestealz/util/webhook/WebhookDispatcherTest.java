@@ -0,0 +1,190 @@
+package com.zetaplugins.lifestealz.util.webhook;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the dispatcher against a local HTTP stub instead of Discord
+ */
+class WebhookDispatcherTest {
+    private static final Logger LOGGER = Logger.getLogger(WebhookDispatcherTest.class.getName());
+
+    private HttpServer server;
+    private final Queue<String> requestBodies = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> sleeps = new ConcurrentLinkedQueue<>();
+    private volatile StubHandler handler = (exchange, requestNumber) -> respond(exchange, 204);
+    private final AtomicInteger requestCount = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/webhook", exchange -> {
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            try {
+                handler.handle(exchange, requestCount.incrementAndGet());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respond(exchange, 500);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void mergesQueuedEmbedsIntoOneMessage() throws InterruptedException {
+        final CountDownLatch firstRequestReceived = new CountDownLatch(1);
+        final CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+        handler = (exchange, requestNumber) -> {
+            if (requestNumber == 1) {
+                firstRequestReceived.countDown();
+                releaseFirstRequest.await(5, TimeUnit.SECONDS);
+            }
+            respond(exchange, 204);
+        };
+
+        WebhookDispatcher dispatcher = createDispatcher();
+        dispatcher.enqueue(embed("first"));
+        assertTrue(firstRequestReceived.await(5, TimeUnit.SECONDS));
+
+        // Queued while the first message is in flight, so they are sent together
+        dispatcher.enqueue(embed("second"));
+        dispatcher.enqueue(embed("third"));
+        dispatcher.enqueue(embed("fourth"));
+        releaseFirstRequest.countDown();
+        dispatcher.shutdown(5000);
+
+        List<String> bodies = List.copyOf(requestBodies);
+        assertEquals(2, bodies.size());
+        assertEquals(1, countEmbeds(bodies.get(0)));
+        assertEquals(3, countEmbeds(bodies.get(1)));
+        assertTrue(bodies.get(1).indexOf("second") < bodies.get(1).indexOf("third"));
+        assertTrue(bodies.get(1).indexOf("third") < bodies.get(1).indexOf("fourth"));
+    }
+
+    @Test
+    void neverPutsMoreThanTheDiscordLimitIntoOneMessage() {
+        WebhookDispatcher dispatcher = createDispatcher();
+        for (int i = 0; i < WebhookDispatcher.MAX_EMBEDS_PER_MESSAGE * 2 + 5; i++) {
+            dispatcher.enqueue(embed("embed " + i));
+        }
+        dispatcher.shutdown(5000);
+
+        int embeds = 0;
+        for (String body : requestBodies) {
+            int count = countEmbeds(body);
+            assertTrue(count <= WebhookDispatcher.MAX_EMBEDS_PER_MESSAGE);
+            embeds += count;
+        }
+        assertEquals(WebhookDispatcher.MAX_EMBEDS_PER_MESSAGE * 2 + 5, embeds);
+    }
+
+    @Test
+    void waitsForRetryAfterHeaderOnRateLimit() {
+        handler = (exchange, requestNumber) -> {
+            if (requestNumber == 1) {
+                exchange.getResponseHeaders().add("Retry-After", "2");
+                respond(exchange, 429);
+            } else {
+                respond(exchange, 204);
+            }
+        };
+
+        WebhookDispatcher dispatcher = createDispatcher();
+        dispatcher.enqueue(embed("rate limited"));
+        dispatcher.shutdown(5000);
+
+        assertEquals(2, requestCount.get());
+        assertEquals(List.of(2000L), List.copyOf(sleeps));
+        assertEquals(List.copyOf(requestBodies).get(0), List.copyOf(requestBodies).get(1));
+    }
+
+    @Test
+    void waitsForFractionalRateLimitResetAfterHeader() {
+        handler = (exchange, requestNumber) -> {
+            if (requestNumber == 1) {
+                exchange.getResponseHeaders().add("X-RateLimit-Reset-After", "0.25");
+                respond(exchange, 429);
+            } else {
+                respond(exchange, 204);
+            }
+        };
+
+        WebhookDispatcher dispatcher = createDispatcher();
+        dispatcher.enqueue(embed("rate limited"));
+        dispatcher.shutdown(5000);
+
+        assertEquals(2, requestCount.get());
+        assertEquals(List.of(250L), List.copyOf(sleeps));
+    }
+
+    @Test
+    void drainsQueueOnShutdown() {
+        handler = (exchange, requestNumber) -> {
+            Thread.sleep(50);
+            respond(exchange, 204);
+        };
+
+        WebhookDispatcher dispatcher = createDispatcher();
+        final int embedCount = WebhookDispatcher.MAX_EMBEDS_PER_MESSAGE * 3;
+        for (int i = 0; i < embedCount; i++) {
+            assertTrue(dispatcher.enqueue(embed("embed " + i)));
+        }
+        dispatcher.shutdown(5000);
+
+        assertEquals(0, dispatcher.getQueuedCount());
+        assertEquals(embedCount, requestBodies.stream().mapToInt(WebhookDispatcherTest::countEmbeds).sum());
+        assertFalse(dispatcher.enqueue(embed("after shutdown")));
+    }
+
+    private WebhookDispatcher createDispatcher() {
+        final String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/webhook";
+        return new WebhookDispatcher(LOGGER, () -> url, HttpClient.newHttpClient(), 100, sleeps::add);
+    }
+
+    private static WebhookDispatcher.Embed embed(String title) {
+        return new WebhookDispatcher.Embed(title, "description of " + title, 0xFF0000);
+    }
+
+    private static int countEmbeds(String body) {
+        int count = 0;
+        for (int index = body.indexOf("\"title\""); index >= 0; index = body.indexOf("\"title\"", index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    @FunctionalInterface
+    private interface StubHandler {
+        void handle(HttpExchange exchange, int requestNumber) throws IOException, InterruptedException;
+    }
+}